@@ -36,12 +36,20 @@ export default function Game(){
   const navigate = useNavigate()
   // Arena (2D) mode state
   const [arenaMode, setArenaMode] = useState(false)
-  const [arenaConfig, setArenaConfig] = useState(null) // { width, height, platforms:[{x,y,width,height,cells}] }
-  const [arenaFrame, setArenaFrame] = useState(null)   // { players:[{playerId,x,y,onGround}], paint: { idx: [colors] } }
+  const [arenaConfig, setArenaConfig] = useState(null) // { width, height, platforms:[{x,y,width,height,cells}], chunkCells } from /api/arena/maps/{id}
+  const [arenaFrame, setArenaFrame] = useState(null)   // { players:[{index,x,y,onGround}], paint: Uint8Array (player slot + 1 per cell), scores/territory by slot }
+  // State messages carry { mapId } only; resolve it to the map geometry before drawing
+  const applyArenaRef = (ref) => {
+    fetchArenaMap(ref).then(cfg => { if (cfg) setArenaConfig(cfg) }).catch(() => {})
+  }
+  // Arena frames come on this tab's own topic, limited to the viewport it reports (see below)
+  const viewerIdRef = useRef(newViewerId())
+  const chunkCellsRef = useRef(DEFAULT_CHUNK_CELLS)
+  const viewportRef = useRef(null)
   const canvasRef = useRef(null)
-  const inputRef = useRef({left:false,right:false,jump:false})
+  const inputRef = useRef({left:false,right:false,jump:false,bomb:false})
   const [arenaTheme, setArenaTheme] = useState(null) // 'metal' | 'cyber' | 'moon' (null => assign randomly on start)
-  const [coverageByColor, setCoverageByColor] = useState({}) // color name -> percentage (0-100)
+  const [coverageByPlayer, setCoverageByPlayer] = useState({}) // playerId -> percentage (0-100)
   const [copiedRoom, setCopiedRoom] = useState(false)
   // Cyberpunk visuals state
   const platformPatternRef = useRef(null) // CanvasPattern cache for platform texture
@@ -82,52 +90,35 @@ export default function Game(){
       stomp.subscribe(`/topic/board/${code}/state`, m => handleState(JSON.parse(m.body)))
       stomp.subscribe(`/topic/board/${code}`, m => handleMove(JSON.parse(m.body)))
       stomp.subscribe(`/topic/board/${code}/end`, m => handleEnd(JSON.parse(m.body)))
-      stomp.subscribe(`/topic/board/${code}/arena`, m => {
+      stomp.subscribe(`/topic/board/${code}/arena/${viewerIdRef.current}`, m => {
         try{
           const fr = JSON.parse(m.body)
           // Merge frames: if paint is absent, keep previous paint for smoothness
           setArenaFrame(prev => {
+            // Frames carry the room tick; ignore one that arrives after a newer frame
+            if (prev?.tick != null && fr.tick != null && fr.tick < prev.tick) return prev
             const merged = {
               ...(prev || {}),
               code: fr.code || prev?.code,
+              tick: fr.tick ?? prev?.tick,
               players: fr.players || prev?.players || [],
-              scores: fr.scores || prev?.scores || {}
+              scores: fr.scores || prev?.scores || [],
+              territory: fr.territory || prev?.territory
+            }
+            if (fr.paint) merged.paint = decodePaint(fr.paint)
+            if (Array.isArray(fr.chunks) && fr.chunks.length > 0){
+              merged.paint = applyPaintChunks(prev?.paint, fr.chunks, chunkCellsRef.current)
             }
-            if (fr.paint) merged.paint = fr.paint
             return merged
           })
-          if (fr && fr.scores){
-            setPlayers(prev => prev.map(p => ({...p, score: (fr.scores[p.playerId] ?? p.score ?? 0)})))
-          }
-          // Ensure avatar/color maps are available even if STATE hasn't arrived yet
-          // This allows drawing player sprites immediately using arena frames.
-          if (Array.isArray(fr.players) && fr.players.length > 0){
-            if (!playerAvatarMapRef.current || playerAvatarMapRef.current.size === 0){
-              const am = new Map()
-              // Prefer avatars from `players` state when available; fallback to ROBOT
-              const currentPlayers = (typeof players !== 'undefined' && Array.isArray(players)) ? players : []
-              const byId = new Map(currentPlayers.map(p => [p.playerId, p]))
-              for (const ap of fr.players){
-                const pl = byId.get(ap.playerId)
-                const av = pl && pl.avatar ? sanitizeAvatar(pl.avatar) : 'ROBOT'
-                am.set(ap.playerId, av)
-              }
-              playerAvatarMapRef.current = am
-            }
-            if (!playerColorMapRef.current || playerColorMapRef.current.size === 0){
-              const cm = new Map()
-              const currentPlayers = (typeof players !== 'undefined' && Array.isArray(players)) ? players : []
-              const byId = new Map(currentPlayers.map(p => [p.playerId, p]))
-              for (const ap of fr.players){
-                const pl = byId.get(ap.playerId)
-                const col = pl && pl.color ? pl.color : 'YELLOW'
-                cm.set(ap.playerId, col)
-              }
-              playerColorMapRef.current = cm
-            }
+          // Scores are indexed by player slot: the order of the players list in the game state
+          if (fr && Array.isArray(fr.scores)){
+            setPlayers(prev => prev.map((p, i) => ({...p, score: (fr.scores[i] ?? p.score ?? 0)})))
           }
         } catch {}
       })
+      // (Re)connected: the server forgets viewers whose subscription went away, so report the viewport again
+      if (viewportRef.current) stomp.publish({ destination:'/app/arena/viewport', body: JSON.stringify(viewportRef.current) })
       // Just after CONNECT + subscriptions, fetch positions once to avoid any delay before first state arrives
       api.get(`/api/games/${code}`).then(res => {
         if (Array.isArray(res.data?.playerPositions)){
@@ -234,7 +225,7 @@ export default function Game(){
             }, 1200)
           }
           // Arena config via GET (mid-game refresh)
-          if (res.data.arena){ setArenaMode(true); setArenaConfig(res.data.arena) }
+          if (res.data.arena){ setArenaMode(true); applyArenaRef(res.data.arena) }
           // Apply theme from GET if present (including WAITING state cases)
           if (res.data.theme){ setArenaTheme(res.data.theme) }
         } else if (res.data.status === 'WAITING') {
@@ -309,7 +300,7 @@ export default function Game(){
       // Forzar arena mode en PLAYING; si no viene config aún, usa un fallback
       setArenaMode(true)
       if (body.arena){
-        setArenaConfig(body.arena)
+        applyArenaRef(body.arena)
       } else if (!arenaConfig){
         setArenaConfig({ width: 980, height: 540, platforms: [] })
       }
@@ -391,13 +382,30 @@ export default function Game(){
     }
   }
 
-  // Arena inputs (left/right/jump) handlers
+  // Report the viewport so the server sends this tab only what it shows; the canvas fits the
+  // whole map, so the viewport is the map itself
+  useEffect(()=>{
+    if (!arenaMode || !arenaConfig) return
+    chunkCellsRef.current = arenaConfig.chunkCells || DEFAULT_CHUNK_CELLS
+    viewportRef.current = { code, viewerId: viewerIdRef.current, x: 0, y: 0, width: arenaConfig.width, height: arenaConfig.height }
+    const send = () => {
+      if (client && client.connected) client.publish({ destination:'/app/arena/viewport', body: JSON.stringify(viewportRef.current) })
+    }
+    send()
+    // The room may not exist yet while waiting; repeating is cheap and covers the start of the match
+    const t = setInterval(send, 3000)
+    return () => clearInterval(t)
+  },[client, arenaMode, arenaConfig, code])
+
+  // Arena inputs (left/right/jump, E for a paint bomb) handlers
   useEffect(()=>{
     const sendInput = () => {
       if (!client || !client.connected || !arenaMode || !canMove) return
       const playerId = localStorage.getItem('cc_userId')
-      const { left, right, jump } = inputRef.current
-      client.publish({ destination:'/app/arena/input', body: JSON.stringify({ code, playerId, left, right, jump }) })
+      const { left, right, jump, bomb } = inputRef.current
+      client.publish({ destination:'/app/arena/input', body: JSON.stringify({ code, playerId, left, right, jump, bomb }) })
+      // Like jump, a bomb is a one-shot request; the server applies it when the cooldown allows
+      inputRef.current.bomb = false
     }
     const down = (e) => {
       if (!arenaMode || !canMove) return
@@ -406,6 +414,7 @@ export default function Game(){
         case 'ArrowRight': case 'd': case 'D': e.preventDefault(); inputRef.current.right = true; sendInput(); break
         case 'ArrowUp': case 'w': case 'W': case ' ': e.preventDefault(); inputRef.current.jump = true; sendInput(); break
         case 'ArrowDown': e.preventDefault(); /* no-op in arena, just prevent page scroll */ break
+        case 'e': case 'E': e.preventDefault(); if (!e.repeat) { inputRef.current.bomb = true; sendInput() } break
         default: break
       }
     }
@@ -677,9 +686,14 @@ export default function Game(){
       lastThemeRef.current = arenaTheme
     }
 
-    // draw platforms with paint and theme edges
+    // draw platforms with paint and theme edges; paint value v is player slot v-1
+    const palette = paintPalette(players)
+    let paintOffset = 0
     for (let i=0;i<platforms.length;i++){
-      const pl = platforms[i]
+      // Moving platforms are placed from the frame tick; their paint rides along
+      const pl = platformAt(platforms[i], arenaFrame?.tick)
+      const base = paintOffset
+      paintOffset += pl.cells || 0
       if (arenaTheme === 'cyber'){
         // shadow + base
         ctx.save()
@@ -755,14 +769,13 @@ export default function Game(){
         ctx.restore()
       }
       // paint cells
-  const paintArr = arenaFrame && arenaFrame.paint ? arenaFrame.paint[i] : null
+  const paintArr = arenaFrame && arenaFrame.paint ? arenaFrame.paint.subarray(base, base + pl.cells) : null
       if (paintArr){
         const cellW = pl.width / pl.cells
         const prev = lastPaintRef.current[i] || []
         for (let cIdx=0;cIdx<paintArr.length;cIdx++){
-          const col = paintArr[cIdx]
-          if (!col) continue
-          const hex = colorToHex(col)
+          const hex = paintArr[cIdx] ? palette[paintArr[cIdx]] : null
+          if (!hex) continue
           const cx = pl.x + cIdx*cellW
           const cy = pl.y
           // base fill
@@ -790,7 +803,7 @@ export default function Game(){
             ctx.restore()
           }
           // splash on new paint
-          if (prev[cIdx] !== col){
+          if (prev[cIdx] !== paintArr[cIdx]){
             spawnPaintParticles(cx, cy, cellW, pl.height, hex)
           }
         }
@@ -801,8 +814,8 @@ export default function Game(){
     // draw players
   const pp = arenaFrame && arenaFrame.players ? arenaFrame.players : []
     for (const p of pp){
-      const playerMeta = players.find(x=>x.playerId===p.playerId)
-      const color = colorToHex(playerMeta?.color || 'PINK')
+      const playerMeta = players[p.index]
+      const color = palette[p.index + 1] || colorToHex('PINK')
       const avatar = sanitizeAvatar(playerMeta?.avatar)
       drawAvatar(ctx, p.x, p.y, color, avatar, arenaTheme)
     }
@@ -828,27 +841,30 @@ export default function Game(){
     }
   },[arenaMode, arenaConfig, arenaFrame, players, arenaTheme])
 
-  // Compute territory coverage by color (percentage of painted cells)
+  // Compute territory coverage per player (percentage of painted cells)
   useEffect(()=>{
-    if (!arenaMode || !arenaConfig) { setCoverageByColor({}); return }
+    if (!arenaMode || !arenaConfig) { setCoverageByPlayer({}); return }
+    // Server-side coverage counters (indexed by player slot) take precedence over recounting the paint buffer
+    if (arenaFrame && Array.isArray(arenaFrame.territory)){
+      const out = {}
+      players.forEach((p, i) => {
+        const pct = arenaFrame.territory[i]
+        if (pct != null) out[p.playerId] = Math.round(pct)
+      })
+      setCoverageByPlayer(out)
+      return
+    }
     const platforms = arenaConfig.platforms || []
     const totalCells = platforms.reduce((sum, pl)=> sum + (pl?.cells || 0), 0)
-    if (!arenaFrame || !arenaFrame.paint || totalCells === 0){ setCoverageByColor({}); return }
-    const counts = {}
-    for (let i=0;i<platforms.length;i++){
-      const arr = arenaFrame.paint[i]
-      if (!arr) continue
-      for (let c of arr){
-        if (!c) continue
-        counts[c] = (counts[c]||0) + 1
-      }
+    if (!arenaFrame || !arenaFrame.paint || totalCells === 0){ setCoverageByPlayer({}); return }
+    const counts = new Array(players.length + 1).fill(0)
+    for (const v of arenaFrame.paint){
+      if (v && v < counts.length) counts[v]++
     }
     const out = {}
-    for (const [col, n] of Object.entries(counts)){
-      out[col] = Math.round((n/totalCells)*100)
-    }
-    setCoverageByColor(out)
-  },[arenaMode, arenaConfig, arenaFrame])
+    players.forEach((p, i) => { out[p.playerId] = Math.round((counts[i + 1]/totalCells)*100) })
+    setCoverageByPlayer(out)
+  },[arenaMode, arenaConfig, arenaFrame, players])
 
   const handleMove = (body) => {
     setMessages(msgs => [...msgs, {t:'move', body}])
@@ -932,7 +948,7 @@ export default function Game(){
               setCanMove(true)
               try { localStorage.setItem('cc_isPlaying', 'true') } catch {}
               setArenaMode(true)
-              if (res.data.arena) setArenaConfig(res.data.arena)
+              if (res.data.arena) applyArenaRef(res.data.arena)
               const startMs = res.data.startedAtMs || res.data.startTimestamp
               const durMs = res.data.durationMs || res.data.duration || 40000
               if (startMs){
@@ -984,10 +1000,9 @@ export default function Game(){
               {/* Territory HUD (show only when playing/movable) */}
               {canMove && (
                 <div style={{position:'absolute', top: (typeof timeLeft === 'number' ? 80 : 8), left:8, right:8, display:'flex', gap:12, justifyContent:'center', pointerEvents:'none', zIndex:5}}>
-                  {players.map(p => {
-                    const colName = (p.color||'').toUpperCase()
-                    const percent = coverageByColor[colName] || 0
-                    const fill = colorToHex(colName)
+                  {players.map((p, i) => {
+                    const percent = coverageByPlayer[p.playerId] || 0
+                    const fill = paintPalette(players)[i + 1]
                     const emoji = avatarToEmoji(sanitizeAvatar(p.avatar))
                     const barBg = arenaTheme==='metal' ? '#1f2430' : arenaTheme==='cyber' ? '#0b1020' : '#1a1d22'
                     return (
@@ -1060,13 +1075,11 @@ export default function Game(){
     {endStandings && (
       (()=>{
         const idToColor = new Map(players.map(p => [p.playerId, colorToHex(p.color)]))
-        const idToColorName = new Map(players.map(p => [p.playerId, (p.color||'').toUpperCase()]))
         // Build percent-by-player map from final coverage; fallback to score ratio if missing
         const pctById = new Map()
         let missingAny = false
         for (const s of endStandings){
-          const cname = idToColorName.get(s.playerId)
-          let pct = (cname && typeof coverageByColor[cname] === 'number') ? coverageByColor[cname] : null
+          let pct = typeof coverageByPlayer[s.playerId] === 'number' ? coverageByPlayer[s.playerId] : null
           if (pct === null || Number.isNaN(pct)) { missingAny = true }
           pctById.set(s.playerId, pct)
         }
@@ -1136,6 +1149,76 @@ export default function Game(){
   )
 }
 
+// Arena paint arrives base64-encoded, one byte per cell: the painting player's slot + 1 (0 = unpainted)
+function decodePaint(b64){
+  if (typeof b64 !== 'string') return Uint8Array.from(b64 || [])
+  const bin = atob(b64)
+  const out = new Uint8Array(bin.length)
+  for (let i=0;i<bin.length;i++) out[i] = bin.charCodeAt(i)
+  return out
+}
+
+// Viewer frames carry paint as chunks of chunkCells cells; apply them onto a copy of the current paint
+const DEFAULT_CHUNK_CELLS = 64
+function applyPaintChunks(paint, chunks, chunkCells){
+  let end = paint ? paint.length : 0
+  for (const ch of chunks) end = Math.max(end, ch.index * chunkCells + decodePaint(ch.cells).length)
+  const out = new Uint8Array(end)
+  if (paint) out.set(paint)
+  for (const ch of chunks) out.set(decodePaint(ch.cells), ch.index * chunkCells)
+  return out
+}
+
+function newViewerId(){
+  const id = (localStorage.getItem('cc_userId') || 'guest').replace(/[^A-Za-z0-9_-]/g, '').slice(0, 40)
+  return `${id || 'guest'}-${Math.random().toString(36).slice(2, 10)}`
+}
+
+// Where a platform is at a room tick: moving ones ease between rest and rest + travel once per
+// periodTicks, the same formula the server uses (ArenaMapResponse)
+function platformAt(pl, tick){
+  if (!pl || !(pl.periodTicks > 0) || tick == null || (!pl.travelX && !pl.travelY)) return pl
+  const phase = (((tick % pl.periodTicks) + pl.periodTicks) % pl.periodTicks) / pl.periodTicks
+  const t = (1 - Math.cos(2 * Math.PI * phase)) / 2
+  return { ...pl, x: pl.x + (pl.travelX || 0) * t, y: pl.y + (pl.travelY || 0) * t }
+}
+
+// Arena maps are content-addressed: one fetch per map id for the whole session
+const arenaMapCache = new Map()
+function fetchArenaMap(ref){
+  if (!ref) return Promise.resolve(null)
+  if (ref.platforms || !ref.mapId) return Promise.resolve(ref)
+  if (!arenaMapCache.has(ref.mapId)){
+    const req = api.get(`/api/arena/maps/${ref.mapId}`).then(r => r.data)
+    req.catch(() => arenaMapCache.delete(ref.mapId))
+    arenaMapCache.set(ref.mapId, req)
+  }
+  return arenaMapCache.get(ref.mapId)
+}
+
+// Hex per paint value (index 0 = unpainted). Up to 16 players share four colors, so players after
+// the first of a color get a lighter or darker shade of it
+function paintPalette(players){
+  const out = [null]
+  const seen = {}
+  for (const p of players || []){
+    const name = (p.color || '').toUpperCase()
+    const n = seen[name] || 0
+    seen[name] = n + 1
+    out.push(shadeHex(colorToHex(name), n === 0 ? 0 : (n % 2 ? 1 : -1) * Math.ceil(n / 2) * 0.22))
+  }
+  return out
+}
+
+// Moves a #RRGGBB color towards white (amount > 0) or black (amount < 0)
+function shadeHex(hex, amount){
+  if (!amount) return hex
+  const v = parseInt(hex.slice(1), 16)
+  const mix = (c) => Math.round(amount > 0 ? c + (255 - c) * amount : c * (1 + amount))
+  const r = mix((v >> 16) & 255), g = mix((v >> 8) & 255), b = mix(v & 255)
+  return '#' + ((1 << 24) | (r << 16) | (g << 8) | b).toString(16).slice(1)
+}
+
 // Mapeo simple de nombre de color a color visible en tablero/leyenda
 function colorToHex(name){
   switch((name||'').toUpperCase()){
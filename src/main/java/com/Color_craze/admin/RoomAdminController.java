@@ -0,0 +1,79 @@
+package com.Color_craze.admin;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.Color_craze.board.arena.services.ArenaInspector;
+import com.Color_craze.board.models.Board;
+import com.Color_craze.board.services.BoardService;
+
+/**
+ * Live room inspector: the hottest arenas on this node by CPU, memory, subscribers, frames, bytes
+ * or tick time, plus the grid boards with the most players. Cheap enough to poll every few seconds.
+ */
+@RestController
+@RequestMapping("/admin")
+public class RoomAdminController {
+    private static final int MAX_LIMIT = 1000;
+
+    private final ArenaInspector inspector;
+    private final BoardService boardService;
+
+    public RoomAdminController(ArenaInspector inspector, BoardService boardService) {
+        this.inspector = inspector;
+        this.boardService = boardService;
+    }
+
+    @GetMapping("/rooms")
+    public ResponseEntity<Map<String, Object>> rooms(@RequestParam(defaultValue = "cpu") String sort,
+                                                     @RequestParam(defaultValue = "50") int limit) {
+        ArenaInspector.Sort by;
+        try {
+            by = ArenaInspector.Sort.parse(sort);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "sort must be one of cpu, memory, subscribers, frames, bytes, tick"));
+        }
+        int n = Math.max(1, Math.min(MAX_LIMIT, limit));
+        Map<String, Object> out = new HashMap<>();
+        out.put("sort", by.name().toLowerCase());
+        out.put("arenaCount", inspector.roomCount());
+        out.put("arenas", inspector.top(by, n));
+        Map<String, Board> boards = boardService.boards();
+        out.put("boardCount", boards.size());
+        out.put("boards", topBoards(boards, n));
+        return ResponseEntity.ok(out);
+    }
+
+    // Boards with the most players, kept in a bounded heap in one pass like ArenaInspector.top; a
+    // board has no tick loop, so only its size is reported
+    private static List<Map<String, Object>> topBoards(Map<String, Board> boards, int limit) {
+        PriorityQueue<BoardRow> best = new PriorityQueue<>(Comparator.comparingInt(BoardRow::players));
+        for (var e : boards.entrySet()) {
+            int players = e.getValue().getPlayers().size();
+            if (best.size() < limit) best.add(new BoardRow(e.getKey(), e.getValue(), players));
+            else if (players > best.peek().players()) {
+                best.poll();
+                best.add(new BoardRow(e.getKey(), e.getValue(), players));
+            }
+        }
+        List<BoardRow> sorted = new ArrayList<>(best);
+        sorted.sort(Comparator.comparingInt(BoardRow::players).reversed());
+        List<Map<String, Object>> rows = new ArrayList<>(sorted.size());
+        for (BoardRow r : sorted) {
+            rows.add(Map.of(
+                "code", r.code(),
+                "players", r.players(),
+                "retainedBytes", r.board().estimatedBytes()));
+        }
+        return rows;
+    }
+
+    private record BoardRow(String code, Board board, int players) {}
+}
@@ -0,0 +1,42 @@
+package com.Color_craze.board.arena.controllers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.Color_craze.board.arena.dtos.ArenaMapResponse;
+import com.Color_craze.board.arena.services.ArenaMapCatalog;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@CrossOrigin(origins = "*")
+@RequestMapping("/api/arena/maps")
+@RequiredArgsConstructor
+public class ArenaMapController {
+
+    private final ArenaMapCatalog catalog;
+
+    @GetMapping
+    public ResponseEntity<List<String>> list() {
+        return ResponseEntity.ok(catalog.all().stream().map(m -> m.id).toList());
+    }
+
+    // Map ids are content hashes: a given id always describes the same geometry, so it can be cached for good
+    @GetMapping("/{id}")
+    public ResponseEntity<ArenaMapResponse> get(@PathVariable String id) {
+        ArenaMapResponse map = catalog.describe(id);
+        if (map == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+            .eTag(id)
+            .body(map);
+    }
+}
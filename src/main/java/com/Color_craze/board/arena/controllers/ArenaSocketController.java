@@ -5,6 +5,7 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Controller;
 
 import com.Color_craze.board.arena.dtos.ArenaInput;
+import com.Color_craze.board.arena.dtos.ArenaViewport;
 import com.Color_craze.board.arena.services.ArenaService;
 
 import lombok.RequiredArgsConstructor;
@@ -18,4 +19,9 @@ public class ArenaSocketController {
     public void input(@Payload ArenaInput input){
         arenaService.updateInput(input);
     }
+
+    @MessageMapping("/arena/viewport")
+    public void viewport(@Payload ArenaViewport viewport){
+        arenaService.updateViewport(viewport);
+    }
 }
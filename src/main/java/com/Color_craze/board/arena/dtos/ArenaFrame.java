@@ -1,13 +1,36 @@
 package com.Color_craze.board.arena.dtos;
 
 import java.util.List;
-import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Arena frame pushed to /topic/board/{code}/arena.
+ * tick is the room's tick number when the frame was taken (120 per second, monotonic), so
+ * clients can order frames and drop stale ones.
+ * Players are named by their slot in the room (index): the order of the players list in the
+ * game state, so no ids are repeated in every frame. scores and territory are arrays indexed
+ * by slot; territory is each player's share of all cells (0-100), from the live coverage counters.
+ * paint is one byte per cell across all platforms (platform i starts after the cells of
+ * platforms 0..i-1), each byte the painting player's slot + 1 with 0 meaning unpainted; Jackson
+ * ships it as a base64 string. paint, scores and territory are left out of pose-only frames.
+ * <p>
+ * Frames on a viewer's own topic, /topic/board/{code}/arena/{viewerId}, only carry what lies
+ * inside that viewer's viewport plus a margin: players near it, and in chunks the paint chunks
+ * that changed (or came into view) since the viewer's previous frame. paint is then null.
+ * chunks is null on frames of the shared topic.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ArenaFrame(
     String code,
+    long tick,
     List<PlayerPose> players,
-    Map<Integer, String[]> paint,
-    Map<String, Integer> scores
+    byte[] paint,
+    int[] scores,
+    double[] territory,
+    List<PaintChunk> chunks
 ) {
-    public static record PlayerPose(String playerId, double x, double y, boolean onGround) {}
+    public static record PlayerPose(int index, double x, double y, boolean onGround) {}
+    // Cells of chunk index, same encoding as paint; the last chunk of a map may be shorter
+    public static record PaintChunk(int index, byte[] cells) {}
 }
@@ -1,3 +1,8 @@
 package com.Color_craze.board.arena.dtos;
 
-public record ArenaInput(String code, String playerId, boolean left, boolean right, boolean jump) {}
+/** Controls of one player; bomb asks for a paint bomb, used when the player's cooldown allows it. */
+public record ArenaInput(String code, String playerId, boolean left, boolean right, boolean jump, boolean bomb) {
+    public ArenaInput(String code, String playerId, boolean left, boolean right, boolean jump){
+        this(code, playerId, left, right, jump, false);
+    }
+}
@@ -0,0 +1,27 @@
+package com.Color_craze.board.arena.dtos;
+
+import java.util.List;
+
+/**
+ * Geometry of a catalog map as served by GET /api/arena/maps/{id}. Immutable for a given id.
+ * chunkCells: cells per paint chunk; ArenaFrame.chunks entry k covers global cells from k * chunkCells.
+ * A platform with periodTicks > 0 slides from (x, y) to (x + travelX, y + travelY) and back once per
+ * periodTicks room ticks; at frame tick t it is offset by travel * (1 - cos(2 * PI * (t mod period) / period)) / 2.
+ * Its cells move with it.
+ */
+public record ArenaMapResponse(
+    String id,
+    String name,
+    double width,
+    double height,
+    List<Platform> platforms,
+    List<Spawn> spawns,
+    int chunkCells
+) {
+    public static record Platform(double x, double y, double width, double height, int cells, double travelX, double travelY, long periodTicks) {
+        public Platform(double x, double y, double width, double height, int cells){
+            this(x, y, width, height, cells, 0, 0, 0);
+        }
+    }
+    public static record Spawn(double x, double y) {}
+}
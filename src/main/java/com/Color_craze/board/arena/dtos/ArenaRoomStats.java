@@ -0,0 +1,23 @@
+package com.Color_craze.board.arena.dtos;
+
+/**
+ * One live arena as seen by GET /admin/rooms. cpuMs is the shard thread CPU time attributed to the
+ * room over its life; frame and byte rates cover the interval since the previous inspection (the
+ * room's whole life on the first one); tick percentiles are over its last 128 engine ticks.
+ */
+public record ArenaRoomStats(
+    String code,
+    int shard,
+    String activity,
+    int players,
+    int subscribers,
+    int viewers,
+    long ticks,
+    double cpuMs,
+    long retainedBytes,
+    double framesPerSec,
+    double bytesPerSec,
+    double tickP50Us,
+    double tickP95Us,
+    double tickP99Us,
+    double tickMaxUs) {}
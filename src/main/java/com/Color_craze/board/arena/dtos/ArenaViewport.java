@@ -0,0 +1,7 @@
+package com.Color_craze.board.arena.dtos;
+
+/**
+ * Area a client shows, in map units, sent to /app/arena/viewport whenever it moves. The server then
+ * sends that client frames on /topic/board/{code}/arena/{viewerId} limited to this area plus a margin.
+ */
+public record ArenaViewport(String code, String viewerId, double x, double y, double width, double height) {}
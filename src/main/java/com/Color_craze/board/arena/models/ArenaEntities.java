@@ -0,0 +1,132 @@
+package com.Color_craze.board.arena.models;
+
+import java.util.Arrays;
+
+/**
+ * Transient arena objects (paint projectiles, pickups, hazards) as a fixed-capacity store of
+ * primitive component arrays: position, velocity, expiry tick, owner and kind. Live entities are
+ * packed into dense indices [0, size()), so the tick walks them as plain array loops; removing one
+ * moves the last entity into its place. Callers that hold on to an entity keep its id instead,
+ * which stays put while it lives; ids of removed entities go on a free list and are handed out
+ * again, so a room spawns and removes entities all match long without allocating.
+ * Owner thread only, like the rest of the state.
+ */
+public final class ArenaEntities {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int NONE = -1;
+    // Kinds; what each does on a tick is up to the simulation
+    public static final byte PROJECTILE = 1;
+    public static final byte PICKUP = 2;
+    public static final byte HAZARD = 3;
+
+    // Components by dense index
+    public final double[] x;
+    public final double[] y;
+    public final double[] vx;
+    public final double[] vy;
+    // Room tick on which the entity disappears by itself
+    public final long[] expiresAt;
+    // Roster slot of the player it belongs to, or -1
+    public final byte[] owner;
+    public final byte[] kind;
+    private int size;
+    // id -> dense index (NONE while the id is free) and dense index -> id
+    private final int[] denseOf;
+    private final int[] idOf;
+    // Free ids, used as a stack
+    private final int[] free;
+    private int freeCount;
+
+    public ArenaEntities(int capacity){
+        int n = Math.max(1, capacity);
+        x = new double[n];
+        y = new double[n];
+        vx = new double[n];
+        vy = new double[n];
+        expiresAt = new long[n];
+        owner = new byte[n];
+        kind = new byte[n];
+        denseOf = new int[n];
+        idOf = new int[n];
+        free = new int[n];
+        clear();
+    }
+
+    public int capacity(){
+        return x.length;
+    }
+
+    /** Live entities; their dense indices are 0 .. size() - 1. */
+    public int size(){
+        return size;
+    }
+
+    /** Adds an entity and returns its id, or NONE when the store is full. */
+    public int spawn(byte kind, double x, double y, double vx, double vy, long expiresAt, int owner){
+        if (freeCount == 0) return NONE;
+        int id = free[--freeCount];
+        int i = size++;
+        denseOf[id] = i;
+        idOf[i] = id;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        this.expiresAt[i] = expiresAt;
+        this.owner[i] = (byte) owner;
+        this.kind[i] = kind;
+        return id;
+    }
+
+    /**
+     * Removes the entity at dense index i by moving the last one into its place. A loop that
+     * removes while it walks should go from size() - 1 down to 0, so every entity is seen once.
+     */
+    public void removeAt(int i){
+        int id = idOf[i], last = --size;
+        if (i != last){
+            x[i] = x[last];
+            y[i] = y[last];
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+            expiresAt[i] = expiresAt[last];
+            owner[i] = owner[last];
+            kind[i] = kind[last];
+            idOf[i] = idOf[last];
+            denseOf[idOf[i]] = i;
+        }
+        denseOf[id] = NONE;
+        free[freeCount++] = id;
+    }
+
+    /** Removes the entity with this id; false when it is not live. */
+    public boolean despawn(int id){
+        int i = indexOf(id);
+        if (i == NONE) return false;
+        removeAt(i);
+        return true;
+    }
+
+    /** Dense index of a live entity, or NONE. */
+    public int indexOf(int id){
+        return id >= 0 && id < denseOf.length ? denseOf[id] : NONE;
+    }
+
+    /** Id of the entity at a dense index. */
+    public int id(int i){
+        return idOf[i];
+    }
+
+    /** Removes every entity; ids are handed out from 0 again. */
+    public void clear(){
+        size = 0;
+        Arrays.fill(denseOf, NONE);
+        int n = free.length;
+        for (int k = 0; k < n; k++) free[k] = n - 1 - k;
+        freeCount = n;
+    }
+
+    long estimatedBytes(){
+        return 7 * 16L + capacity() * (4 * 8L + 8 + 1 + 1 + 3 * 4);
+    }
+}
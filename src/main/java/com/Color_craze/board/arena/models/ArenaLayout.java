@@ -0,0 +1,56 @@
+package com.Color_craze.board.arena.models;
+
+/**
+ * Fixed binary layout of an arena checkpoint, which is also the layout of an off-heap state's
+ * region (see ArenaState.useOffHeap). Big-endian, sized by the map's cell count only:
+ * <pre>
+ *   header   HEADER bytes                magic, version, total cells, players, tick
+ *   players  MAX_PLAYERS x PLAYER bytes  x, y, vx, vy, lastAwardTick, score, paint, onGround
+ *   paint    cells bytes                 one byte per global cell, as ArenaState.paintAt
+ *   credits  MAX_PLAYERS x creditBytes   per player slot, a bitmap of the cells it was credited for
+ * </pre>
+ * Player slots past the player count are zero. Identity (player ids, colors) is not part of it:
+ * a checkpoint is restored into a room that already has the same roster.
+ */
+public final class ArenaLayout {
+    public static final int MAGIC = 0x41524E31; // "ARN1"
+    public static final int VERSION = 1;
+
+    static final int MAGIC_AT = 0;
+    static final int VERSION_AT = 4;
+    static final int CELLS_AT = 8;
+    static final int PLAYERS_AT = 12;
+    static final int TICK_AT = 16;
+    public static final int HEADER = 32;
+
+    // Offsets inside one player record
+    static final int X = 0, Y = 8, VX = 16, VY = 24, LAST_AWARD = 32, SCORE = 40, PAINT_VALUE = 44, ON_GROUND = 45;
+    public static final int PLAYER = 48;
+
+    public static final int PLAYERS = HEADER;
+    public static final int PAINT = PLAYERS + ArenaState.MAX_PLAYERS * PLAYER;
+
+    private ArenaLayout() {}
+
+    public static int creditBytes(int cells){
+        return (cells + 7) >> 3;
+    }
+
+    public static int credits(int cells){
+        return PAINT + cells;
+    }
+
+    /** Bytes of a checkpoint or region for a map with this many cells. */
+    public static int size(int cells){
+        return credits(cells) + ArenaState.MAX_PLAYERS * creditBytes(cells);
+    }
+
+    /** Tick number a checkpoint starting at the buffer's position was taken on. */
+    public static long tick(java.nio.ByteBuffer checkpoint){
+        return checkpoint.getLong(checkpoint.position() + TICK_AT);
+    }
+
+    static int player(int slot){
+        return PLAYERS + slot * PLAYER;
+    }
+}
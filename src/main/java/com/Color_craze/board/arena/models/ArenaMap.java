@@ -0,0 +1,87 @@
+package com.Color_craze.board.arena.models;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * A compiled arena layout: platforms, cell geometry, spawn spots and the collision grid,
+ * built once when the catalog loads and shared by every room that plays it.
+ * The id is a hash of the geometry, so two files describing the same layout share an id and
+ * any change to a layout gives it a new one; clients can cache a map by id forever.
+ */
+public final class ArenaMap {
+    public final String id;
+    public final String name;
+    public final double width;
+    public final double height;
+    public final List<Platform2D> platforms;
+    private final double[] spawnX;
+    private final double[] spawnY;
+    private final PlatformGrid collision;
+    private final int totalCells;
+
+    public ArenaMap(String name, double width, double height, List<Platform2D> platforms, double[] spawnX, double[] spawnY){
+        if (platforms.isEmpty()) throw new IllegalArgumentException("Map " + name + " has no platforms");
+        if (spawnX.length == 0 || spawnX.length != spawnY.length) throw new IllegalArgumentException("Map " + name + " needs spawn points");
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.platforms = List.copyOf(platforms);
+        this.spawnX = spawnX.clone();
+        this.spawnY = spawnY.clone();
+        this.collision = new PlatformGrid(this.platforms, width, height);
+        int cells = 0;
+        for (Platform2D pl : this.platforms) cells += pl.cells();
+        this.totalCells = cells;
+        this.id = contentHash();
+    }
+
+    public int totalCells(){
+        return totalCells;
+    }
+
+    public int spawnCount(){
+        return spawnX.length;
+    }
+
+    public double spawnX(int i){
+        return spawnX[i];
+    }
+
+    public double spawnY(int i){
+        return spawnY[i];
+    }
+
+    /** A new, empty state laid out like this map; it shares the map's collision grid. */
+    public ArenaState newState(){
+        ArenaState st = new ArenaState(width, height);
+        for (Platform2D pl : platforms) st.addPlatform(pl);
+        for (int i = 0; i < spawnX.length; i++) st.addSpawn(spawnX[i], spawnY[i]);
+        st.mapId = id;
+        st.useCollisionIndex(collision);
+        return st;
+    }
+
+    // First 64 bits of SHA-256 over a canonical text form of the geometry (the name is not part of it)
+    private String contentHash(){
+        StringBuilder sb = new StringBuilder();
+        sb.append(width).append(',').append(height).append('|');
+        for (Platform2D pl : platforms){
+            sb.append(pl.x()).append(',').append(pl.y()).append(',').append(pl.width()).append(',')
+              .append(pl.height()).append(',').append(pl.cells());
+            if (pl.moves()) sb.append('~').append(pl.travelX()).append(',').append(pl.travelY()).append(',').append(pl.periodTicks());
+            sb.append(';');
+        }
+        sb.append('|');
+        for (int i = 0; i < spawnX.length; i++) sb.append(spawnX[i]).append(',').append(spawnY[i]).append(';');
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e){
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.Color_craze.board.arena.models;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -8,35 +11,668 @@ import java.util.Map;
 import com.Color_craze.utils.enums.ColorStatus;
 
 public class ArenaState {
+    // Paint value of an unpainted cell; a player's paint is its roster slot + 1 (see Player2D.paint)
+    public static final byte UNPAINTED = 0;
+    // Players per arena; paint values 1..MAX_PLAYERS fit a byte with room to spare
+    public static final int MAX_PLAYERS = 16;
+    // Paint and owners are stored in chunks of CHUNK_CELLS consecutive global cells
+    public static final int CHUNK_SHIFT = 6;
+    public static final int CHUNK_CELLS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_CELLS - 1;
+    // Horizontal step between players sharing a spawn spot
+    private static final double SPAWN_SPREAD = Player2D.WIDTH + 4;
+
     public final double width;
     public final double height;
+    // Id of the catalog map this state was built from (null for states assembled by hand)
+    public String mapId;
     public final List<Platform2D> platforms = new ArrayList<>();
     public final Map<String, Player2D> players = new HashMap<>();
-    // Paint per platform: array of color names per cell, null means unpainted
-    public final Map<Integer, String[]> paint = new HashMap<>();
-    // Per-player credit memory: which cells this player has been credited for
-    // Key is a composed long: high 32 bits = platform index, low 32 bits = cell index
-    public final Map<String, java.util.Set<Long>> creditedByPlayer = new HashMap<>();
+    // Players in join order; Player2D.index points into this list (tick iterates it by index)
+    public final List<Player2D> roster = new ArrayList<>();
+    // Paint for all platforms, one byte per cell holding the painting player's roster slot + 1
+    // (UNPAINTED = 0), so a cell's paint also names its owner whatever the players' display colors.
+    // Platform i owns global cells [cellOffset(i), cellOffset(i) + cells); cell c lives in chunk
+    // c >> CHUNK_SHIFT, which is allocated on its first paint (a missing chunk is all unpainted).
+    private byte[][] paintChunks = new byte[0][];
+    // Non-null entries of paintChunks, counted as they are allocated so memory estimates need no walk
+    private int heapChunks;
+    // Off-heap mode (see useOffHeap): paint lives at ArenaLayout.PAINT in this direct buffer instead
+    // of paintChunks, next to player records and credit bitmaps refreshed at each checkpoint
+    private ByteBuffer region;
+    // Per chunk: bumped on every change inside it, so viewers only get chunks that changed
+    private int[] chunkVersion = new int[0];
+    // Per chunk: bounding box (left, top, right, bottom) of its cells, rebuilt after the layout changes
+    private double[] chunkBounds;
+    // Range-assign index over the paint, built on the first paintRange and kept in step afterwards
+    private PaintRuns runs;
+    // Unpainted cells for nearestUnpainted, built on the first query and kept in step afterwards
+    private FreeCells freeCells;
+    // Painted cells per paint value (index 0 unused), kept in step with every paint change
+    private final int[] coverage = new int[MAX_PLAYERS + 1];
+    // Cell changes since the last reset, for per-tick instrumentation
+    private long paintChanges;
+    // First global cell index of each platform; global index = offset + cell index
+    private int[] cellOffsets = new int[8];
+    private int totalCells;
+    // Broadphase over platforms, (re)built on first use after the layout changes
+    private PlatformGrid collision;
+    // Where each platform is on the current tick, with a broadphase over the moving ones; built like collision
+    private MovingPlatforms moving;
+    // Projectiles, pickups and hazards; allocated when the first one spawns
+    private ArenaEntities entities;
+    // Spawn spots in join order; players past the last spot share it
+    private double[] spawnX = new double[0];
+    private double[] spawnY = new double[0];
+    // Player instances kept across reset() so a pooled state re-spawns without allocating
+    private final List<Player2D> seats = new ArrayList<>();
+    // Buffers the room running on this state borrows (see scratch()); kept and reset with the state
+    private Scratch scratch;
+
+    /** Per-room working buffers that live as long as the state, so a pooled state's next room reuses them. */
+    public interface Scratch {
+        /** Back to how a new room expects them; called by ArenaState.reset. */
+        void reset();
+    }
 
     public ArenaState(double width, double height){
         this.width = width; this.height = height;
     }
 
-    public void ensurePaintArray(int platformIndex, int cells){
-        paint.computeIfAbsent(platformIndex, k -> new String[cells]);
+    public int addPlatform(Platform2D pl){
+        if (region != null) throw new IllegalStateException("Arena layout is fixed once paint is off-heap");
+        int idx = platforms.size();
+        platforms.add(pl);
+        if (idx == cellOffsets.length) cellOffsets = Arrays.copyOf(cellOffsets, idx * 2);
+        cellOffsets[idx] = totalCells;
+        totalCells += pl.cells();
+        int chunks = (totalCells + CHUNK_MASK) >> CHUNK_SHIFT;
+        paintChunks = Arrays.copyOf(paintChunks, chunks);
+        chunkVersion = Arrays.copyOf(chunkVersion, chunks);
+        collision = null;
+        moving = null;
+        chunkBounds = null;
+        runs = null;
+        freeCells = null;
+        return idx;
+    }
+
+    public void addPlayer(Player2D p){
+        if (roster.size() >= MAX_PLAYERS) throw new IllegalStateException("Arena is full (" + MAX_PLAYERS + " players)");
+        p.index = roster.size();
+        p.paint = (byte) (p.index + 1);
+        // Sized up front so crediting never grows the set during a match
+        if (p.credited == null || p.credited.size() < totalCells) p.credited = new BitSet(Math.max(1, totalCells));
+        roster.add(p);
+        players.put(p.playerId, p);
+        if (seats.size() < roster.size()) seats.add(p);
+    }
+
+    public void addSpawn(double x, double y){
+        int n = spawnX.length;
+        spawnX = Arrays.copyOf(spawnX, n + 1);
+        spawnY = Arrays.copyOf(spawnY, n + 1);
+        spawnX[n] = x;
+        spawnY[n] = y;
+    }
+
+    /**
+     * Adds a player at the next spawn spot, reusing the Player2D left in that slot by an
+     * earlier match when there is one. With more players than spots the spots are used again,
+     * each round standing a player width further right (within the arena) so nobody spawns
+     * on top of another player.
+     */
+    public Player2D spawn(String playerId, ColorStatus color){
+        int i = roster.size(), n = spawnX.length;
+        double x = 0, y = 0;
+        if (n > 0){
+            x = spawnX[i % n];
+            y = spawnY[i % n];
+            if (i >= n) x = Math.max(0, Math.min(width - Player2D.WIDTH, x + (i / n) * SPAWN_SPREAD));
+        }
+        Player2D p;
+        if (i < seats.size()){
+            p = seats.get(i);
+            p.reset(playerId, x, y, color);
+        } else {
+            p = new Player2D(playerId, x, y, color);
+        }
+        addPlayer(p);
+        return p;
+    }
+
+    /**
+     * Returns the state to its freshly loaded look so a pool can hand it to the next room:
+     * no players, no paint, counters cleared. Layout, broadphase, allocated chunks and the room
+     * scratch are kept.
+     */
+    public void reset(){
+        players.clear();
+        roster.clear();
+        for (byte[] c : paintChunks) if (c != null) Arrays.fill(c, UNPAINTED);
+        if (region != null) for (int c = 0; c < totalCells; c++) region.put(ArenaLayout.PAINT + c, UNPAINTED);
+        Arrays.fill(chunkVersion, 0);
+        Arrays.fill(coverage, 0);
+        paintChanges = 0;
+        if (runs != null) runs.reset();
+        if (freeCells != null) freeCells.reset();
+        if (moving != null) moving.settle(0);
+        if (entities != null) entities.clear();
+        if (scratch != null) scratch.reset();
+    }
+
+    /** The room scratch attached to this state, or null before the first room attaches one. */
+    public Scratch scratch(){
+        return scratch;
+    }
+
+    public void attachScratch(Scratch scratch){
+        this.scratch = scratch;
+    }
+
+    /** Transient objects of the match (see ArenaEntities), created on first use with the default capacity. */
+    public ArenaEntities entities(){
+        ArenaEntities e = entities;
+        if (e == null){
+            e = new ArenaEntities(ArenaEntities.DEFAULT_CAPACITY);
+            entities = e;
+        }
+        return e;
+    }
+
+    /** Whether any entity is live, without creating the store. */
+    public boolean hasEntities(){
+        return entities != null && entities.size() > 0;
+    }
+
+    /** Collision index over the current platforms; built once when the map is complete. */
+    public PlatformGrid collisionIndex(){
+        PlatformGrid g = collision;
+        if (g == null){
+            g = new PlatformGrid(platforms, width, height);
+            collision = g;
+        }
+        return g;
+    }
+
+    private MovingPlatforms moving(){
+        MovingPlatforms m = moving;
+        if (m == null){
+            m = new MovingPlatforms(platforms, width, height, PlatformGrid.DEFAULT_CELL_SIZE);
+            moving = m;
+        }
+        return m;
+    }
+
+    public boolean hasMovingPlatforms(){
+        return moving().index.length > 0;
+    }
+
+    /**
+     * Puts the moving platforms where they are on the given room tick (see Platform2D.travelAt) and
+     * re-files the ones that changed grid cells. Returns how many moved; platformDX/DY tell by how much.
+     */
+    public int movePlatforms(long tick){
+        return moving().moveTo(tick);
+    }
+
+    /** Current left edge of a platform; its rest x unless it moves. */
+    public double platformX(int platformIndex){
+        return moving().x[platformIndex];
+    }
+
+    /** Current top of a platform; its rest y unless it moves. */
+    public double platformY(int platformIndex){
+        return moving().y[platformIndex];
+    }
+
+    /** Horizontal displacement of a platform on the last movePlatforms. */
+    public double platformDX(int platformIndex){
+        return moving().dx[platformIndex];
+    }
+
+    public double platformDY(int platformIndex){
+        return moving().dy[platformIndex];
+    }
+
+    /** Whether a platform, where it currently is, overlaps the rectangle. */
+    public boolean platformIntersects(int platformIndex, double x, double y, double w, double h){
+        return moving().intersects(platformIndex, x, y, w, h);
+    }
+
+    /**
+     * Broadphase over fixed and moving platforms at their current positions: writes the indices of
+     * those overlapping the AABB into out, ascending and without duplicates, and returns how many.
+     * out must hold at least platforms.size() entries.
+     */
+    public int queryPlatforms(double x, double y, double w, double h, int[] out){
+        int n = collisionIndex().query(x, y, w, h, out);
+        return moving().query(x, y, w, h, out, n);
+    }
+
+    /** Lowest index of a platform whose current top is within tolerance of feetY under [x, x + w), or -1. */
+    public int platformUnder(double x, double feetY, double w, double tolerance){
+        int fixed = collisionIndex().platformUnder(x, feetY, w, tolerance);
+        int moved = moving().platformUnder(x, feetY, w, tolerance);
+        return fixed < 0 ? moved : moved < 0 ? fixed : Math.min(fixed, moved);
+    }
+
+    // Installs a grid compiled ahead of time for exactly this platform list (see ArenaMap)
+    void useCollisionIndex(PlatformGrid grid){
+        this.collision = grid;
+    }
+
+    public int cellOffset(int platformIndex){
+        return cellOffsets[platformIndex];
+    }
+
+    public int totalCells(){
+        return totalCells;
+    }
+
+    /** New array with every cell's paint; unallocated chunks read as UNPAINTED. Allocates, so not for the tick. */
+    public byte[] paint(){
+        byte[] out = new byte[totalCells];
+        copyPaint(out);
+        return out;
+    }
+
+    /** Writes every cell's paint into dst (at least totalCells() long) without allocating. */
+    public void copyPaint(byte[] dst){
+        if (region != null){
+            region.get(ArenaLayout.PAINT, dst, 0, totalCells);
+            return;
+        }
+        for (int k = 0; k < paintChunks.length; k++){
+            int from = k << CHUNK_SHIFT, len = Math.min(CHUNK_CELLS, totalCells - from);
+            byte[] c = paintChunks[k];
+            if (c != null) System.arraycopy(c, 0, dst, from, len);
+            else Arrays.fill(dst, from, from + len, UNPAINTED);
+        }
     }
 
-    public boolean creditPaint(int platformIndex, int cellIndex, ColorStatus color){
-        String[] arr = paint.get(platformIndex);
-        if (arr == null || cellIndex < 0 || cellIndex >= arr.length) return false;
-        String current = arr[cellIndex];
-        String newCol = color.name();
-        if (newCol.equals(current)) return false;
-        arr[cellIndex] = newCol;
+    /**
+     * Writes the paint of one chunk into dst (at least CHUNK_CELLS long) without allocating;
+     * returns the chunk's cell count, which is below CHUNK_CELLS for the map's last chunk only.
+     */
+    public int copyChunk(int chunk, byte[] dst){
+        int from = chunk << CHUNK_SHIFT, len = Math.min(CHUNK_CELLS, totalCells - from);
+        if (region != null){
+            region.get(ArenaLayout.PAINT + from, dst, 0, len);
+            return len;
+        }
+        byte[] c = paintChunks[chunk];
+        if (c != null) System.arraycopy(c, 0, dst, 0, len);
+        else Arrays.fill(dst, 0, len, UNPAINTED);
+        return len;
+    }
+
+    public byte paintAt(int cell){
+        ByteBuffer r = region;
+        if (r != null) return r.get(ArenaLayout.PAINT + cell);
+        byte[] c = paintChunks[cell >> CHUNK_SHIFT];
+        return c == null ? UNPAINTED : c[cell & CHUNK_MASK];
+    }
+
+    public byte paintAt(int platformIndex, int cellIndex){
+        return paintAt(cellOffsets[platformIndex] + cellIndex);
+    }
+
+    /** Roster slot of the player whose paint covers the cell, or -1 when unpainted. */
+    public int ownerAt(int cell){
+        return paintAt(cell) - 1;
+    }
+
+    public int chunkCount(){
+        return paintChunks.length;
+    }
+
+    /** Change counter of a chunk; 0 while it has never been painted. */
+    public int chunkVersion(int chunk){
+        return chunkVersion[chunk];
+    }
+
+    /** Chunks allocated so far; memory for paint grows with this, not with the map size. Off-heap, all of them. */
+    public int allocatedChunks(){
+        return region != null ? paintChunks.length : heapChunks;
+    }
+
+    /** Whether any cell of the chunk lies within the rectangle; cells of moving platforms anywhere along their travel. */
+    public boolean chunkIntersects(int chunk, double x, double y, double w, double h){
+        double[] b = chunkBounds;
+        if (b == null){
+            b = computeChunkBounds();
+            chunkBounds = b;
+        }
+        int i = chunk * 4;
+        return b[i] < x + w && b[i + 2] > x && b[i + 1] < y + h && b[i + 3] > y;
+    }
+
+    private double[] computeChunkBounds(){
+        double[] b = new double[paintChunks.length * 4];
+        for (int k = 0; k < paintChunks.length; k++){
+            b[k * 4] = b[k * 4 + 1] = Double.POSITIVE_INFINITY;
+            b[k * 4 + 2] = b[k * 4 + 3] = Double.NEGATIVE_INFINITY;
+        }
+        for (int i = 0; i < platforms.size(); i++){
+            Platform2D pl = platforms.get(i);
+            double cellW = pl.width() / pl.cells();
+            double tx = pl.moves() ? pl.travelX() : 0, ty = pl.moves() ? pl.travelY() : 0;
+            for (int c = 0; c < pl.cells(); c++){
+                int k = (cellOffsets[i] + c) >> CHUNK_SHIFT;
+                double left = pl.x() + c * cellW;
+                b[k * 4] = Math.min(b[k * 4], left + Math.min(0, tx));
+                b[k * 4 + 1] = Math.min(b[k * 4 + 1], pl.y() + Math.min(0, ty));
+                b[k * 4 + 2] = Math.max(b[k * 4 + 2], left + cellW + Math.max(0, tx));
+                b[k * 4 + 3] = Math.max(b[k * 4 + 3], pl.y() + pl.height() + Math.max(0, ty));
+            }
+        }
+        return b;
+    }
+
+    /**
+     * Paints a global cell with the player's paint, keeping coverage counters in step.
+     * Returns the roster slot of the previous owner, or -1 when the cell had none.
+     */
+    public int paintCell(int cell, Player2D p){
+        int prevOwner = ownerAt(cell);
+        setCell(cell, p.paint);
+        return prevOwner;
+    }
+
+    /** Paints a cell by platform and cell index; false when out of range or already the player's. */
+    public boolean creditPaint(int platformIndex, int cellIndex, Player2D p){
+        if (platformIndex < 0 || platformIndex >= platforms.size()) return false;
+        if (cellIndex < 0 || cellIndex >= platforms.get(platformIndex).cells()) return false;
+        int cell = cellOffsets[platformIndex] + cellIndex;
+        if (paintAt(cell) == p.paint) return false;
+        setCell(cell, p.paint);
         return true;
     }
 
-    public static long cellKey(int platformIndex, int cellIndex){
-        return (((long)platformIndex) << 32) | (cellIndex & 0xffffffffL);
+    /**
+     * Turns a global cell back to unpainted, keeping coverage counters in step. Returns the roster
+     * slot of the previous owner, or -1 (and changes nothing) when the cell was already unpainted.
+     */
+    public int clearCell(int cell){
+        int prevOwner = ownerAt(cell);
+        if (prevOwner >= 0) setCell(cell, UNPAINTED);
+        return prevOwner;
+    }
+
+    private void setCell(int cell, byte value){
+        int k = cell >> CHUNK_SHIFT;
+        byte prev;
+        if (region != null){
+            prev = region.get(ArenaLayout.PAINT + cell);
+            region.put(ArenaLayout.PAINT + cell, value);
+        } else {
+            byte[] paint = paintChunks[k];
+            if (paint == null){
+                paint = paintChunks[k] = new byte[CHUNK_CELLS];
+                heapChunks++;
+            }
+            prev = paint[cell & CHUNK_MASK];
+            paint[cell & CHUNK_MASK] = value;
+        }
+        if (prev != UNPAINTED) coverage[prev]--;
+        if (value != UNPAINTED) coverage[value]++;
+        chunkVersion[k]++;
+        paintChanges++;
+        if (runs != null) runs.set(cell, value);
+        if (freeCells != null) freeCells.set(cell, value == UNPAINTED);
+    }
+
+    /**
+     * Paints global cells [from, to) with the player's paint in one operation, for area abilities.
+     * before (MAX_PLAYERS + 1 entries, indexed by paint value) is overwritten with how many of the
+     * cells each paint value held, UNPAINTED and the player's own included; they come from a
+     * range-assign tree in time logarithmic per run of equal paint, not per cell. Coverage and
+     * chunk versions follow; the cell bytes are filled in bulk. Returns the cells that changed.
+     */
+    public int paintRange(int from, int to, Player2D p, int[] before){
+        Arrays.fill(before, 0);
+        if (from < 0 || to > totalCells || from >= to) return 0;
+        PaintRuns r = runs;
+        if (r == null) r = runs = PaintRuns.of(this);
+        r.assign(from, to, p.paint, before);
+        int changed = (to - from) - before[p.paint];
+        if (changed == 0) return 0;
+        for (int v = 1; v <= MAX_PLAYERS; v++) if (v != p.paint) coverage[v] -= before[v];
+        coverage[p.paint] += changed;
+        if (freeCells != null) freeCells.paint(from, to);
+        for (int k = from >> CHUNK_SHIFT; k <= (to - 1) >> CHUNK_SHIFT; k++){
+            int lo = Math.max(from, k << CHUNK_SHIFT), hi = Math.min(to, (k + 1) << CHUNK_SHIFT);
+            if (region != null){
+                for (int c = lo; c < hi; c++) region.put(ArenaLayout.PAINT + c, p.paint);
+            } else {
+                byte[] chunk = paintChunks[k];
+                if (chunk == null){
+                    chunk = paintChunks[k] = new byte[CHUNK_CELLS];
+                    heapChunks++;
+                }
+                Arrays.fill(chunk, lo & CHUNK_MASK, ((hi - 1) & CHUNK_MASK) + 1, p.paint);
+            }
+            chunkVersion[k]++;
+        }
+        paintChanges += changed;
+        return changed;
+    }
+
+    /**
+     * Global index of the unpainted cell whose center on the platform's top edge is nearest to
+     * (x, y), or -1 when every cell is painted; on a tie the lower cell index wins. Platforms without
+     * unpainted cells, or too far away to beat the best so far, are skipped; on the others the
+     * candidates are the closest unpainted cell left and right of x, found through the unpainted
+     * cell index (see FreeCells) rather than by a walk over the cells. Does not allocate once the
+     * index exists.
+     */
+    public int nearestUnpainted(double x, double y){
+        FreeCells f = freeCells;
+        if (f == null) f = freeCells = FreeCells.of(this);
+        int best = -1;
+        double bestD2 = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < platforms.size(); i++){
+            if (f.free(i) == 0) continue;
+            Platform2D pl = platforms.get(i);
+            double cellW = pl.width() / pl.cells();
+            double left = platformX(i), dy = platformY(i) - y;
+            // Cell centers lie within [left + cellW / 2, left + width - cellW / 2]
+            double lo = left + cellW * 0.5, hi = left + pl.width() - cellW * 0.5;
+            double gap = x < lo ? lo - x : (x > hi ? x - hi : 0);
+            if (dy * dy + gap * gap >= bestD2) continue;
+            int base = cellOffsets[i];
+            // Last cell whose center is at or left of x (-1 = none)
+            int k = (int) Math.floor((x - left) / cellW - 0.5);
+            k = Math.max(-1, Math.min(pl.cells() - 1, k));
+            int before = f.prev(base, base + k + 1), after = f.next(base + k + 1, base + pl.cells());
+            if (before >= 0){
+                double dx = left + (before - base) * cellW + cellW * 0.5 - x;
+                double d2 = dx * dx + dy * dy;
+                if (d2 < bestD2){ bestD2 = d2; best = before; }
+            }
+            if (after >= 0){
+                double dx = left + (after - base) * cellW + cellW * 0.5 - x;
+                double d2 = dx * dx + dy * dy;
+                if (d2 < bestD2){ bestD2 = d2; best = after; }
+            }
+        }
+        return best;
+    }
+
+    /** Platform a global cell belongs to. */
+    public int platformOfCell(int cell){
+        int lo = 0, hi = platforms.size() - 1;
+        while (lo < hi){
+            int mid = (lo + hi + 1) >>> 1;
+            if (cellOffsets[mid] <= cell) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /** Cell changes since the state was built or last reset; never decreases in between. */
+    public long paintChanges(){
+        return paintChanges;
+    }
+
+    /** Cells currently painted with the given paint value. */
+    public int coverage(byte paint){
+        return coverage[paint];
+    }
+
+    /**
+     * Rough heap bytes of the match data this state holds: allocated paint chunks, chunk
+     * versions and bounds, the players with their credit sets and the off-heap region. The layout (platforms,
+     * broadphase) is left out: it is the same for every state of a map.
+     */
+    public long estimatedBytes(){
+        long bytes = 16L + 8L * paintChunks.length + heapChunks * (16L + CHUNK_CELLS) + offHeapBytes();
+        bytes += 16L + 4L * chunkVersion.length;
+        if (chunkBounds != null) bytes += 16L + 8L * chunkBounds.length;
+        if (entities != null) bytes += entities.estimatedBytes();
+        if (freeCells != null) bytes += freeCells.estimatedBytes();
+        for (Player2D p : roster) bytes += 96 + 48 + (p.credited != null ? p.credited.size() / 8 : 0);
+        return bytes;
+    }
+
+    /**
+     * Moves paint into a direct buffer laid out by {@link ArenaLayout}, where checkpoints are bulk
+     * copies or channel writes instead of a walk over the state. Call once the map is complete:
+     * platforms can no longer be added afterwards. Paint already present is carried over.
+     */
+    public void useOffHeap(){
+        if (region != null) return;
+        ByteBuffer r = ByteBuffer.allocateDirect(ArenaLayout.size(totalCells));
+        for (int c = 0; c < totalCells; c++) r.put(ArenaLayout.PAINT + c, paintAt(c));
+        region = r;
+        paintChunks = new byte[paintChunks.length][];
+        heapChunks = 0;
+    }
+
+    public boolean isOffHeap(){
+        return region != null;
+    }
+
+    public long offHeapBytes(){
+        return region != null ? region.capacity() : 0;
+    }
+
+    /**
+     * Off-heap only: the state's region with header, player records and credit bitmaps refreshed
+     * for the given tick, as a read-only view from 0 to ArenaLayout.size. It can be handed straight
+     * to a FileChannel. Owner thread; the view is only stable until the next step.
+     */
+    public ByteBuffer region(long tick){
+        if (region == null) throw new IllegalStateException("Arena state is not off-heap");
+        writeRecords(region, 0, tick);
+        return region.asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes a checkpoint (see ArenaLayout) of the state at the given tick into dst at its position
+     * and advances it. Paint is copied in bulk: the whole region off-heap, chunk by chunk on the heap.
+     * Returns the bytes written.
+     */
+    public int checkpoint(ByteBuffer dst, long tick){
+        int size = ArenaLayout.size(totalCells), base = dst.position();
+        if (dst.remaining() < size) throw new IllegalArgumentException("Checkpoint needs " + size + " bytes");
+        if (region != null){
+            writeRecords(region, 0, tick);
+            dst.put(base, region, 0, size);
+        } else {
+            writeRecords(dst, base, tick);
+            for (int k = 0; k < paintChunks.length; k++){
+                int from = k << CHUNK_SHIFT, len = Math.min(CHUNK_CELLS, totalCells - from);
+                byte[] c = paintChunks[k];
+                if (c != null) dst.put(base + ArenaLayout.PAINT + from, c, 0, len);
+                else for (int i = 0; i < len; i++) dst.put(base + ArenaLayout.PAINT + from + i, UNPAINTED);
+            }
+        }
+        dst.position(base + size);
+        return size;
+    }
+
+    // Header, player records and credit bitmaps at base; everything but the paint
+    private void writeRecords(ByteBuffer b, int base, long tick){
+        b.putInt(base + ArenaLayout.MAGIC_AT, ArenaLayout.MAGIC);
+        b.putInt(base + ArenaLayout.VERSION_AT, ArenaLayout.VERSION);
+        b.putInt(base + ArenaLayout.CELLS_AT, totalCells);
+        b.putInt(base + ArenaLayout.PLAYERS_AT, roster.size());
+        b.putLong(base + ArenaLayout.TICK_AT, tick);
+        int creditBytes = ArenaLayout.creditBytes(totalCells);
+        int credits = base + ArenaLayout.credits(totalCells);
+        for (int i = 0; i < MAX_PLAYERS; i++){
+            int at = base + ArenaLayout.player(i);
+            Player2D p = i < roster.size() ? roster.get(i) : null;
+            b.putDouble(at + ArenaLayout.X, p != null ? p.x : 0);
+            b.putDouble(at + ArenaLayout.Y, p != null ? p.y : 0);
+            b.putDouble(at + ArenaLayout.VX, p != null ? p.vx : 0);
+            b.putDouble(at + ArenaLayout.VY, p != null ? p.vy : 0);
+            b.putLong(at + ArenaLayout.LAST_AWARD, p != null ? p.lastAwardTick : 0);
+            b.putInt(at + ArenaLayout.SCORE, p != null ? p.score : 0);
+            b.put(at + ArenaLayout.PAINT_VALUE, p != null ? p.paint : UNPAINTED);
+            b.put(at + ArenaLayout.ON_GROUND, (byte) (p != null && p.onGround ? 1 : 0));
+            int bits = credits + i * creditBytes;
+            for (int j = 0; j < creditBytes; j++) b.put(bits + j, (byte) 0);
+            if (p == null || p.credited == null) continue;
+            for (int c = p.credited.nextSetBit(0); c >= 0 && c < totalCells; c = p.credited.nextSetBit(c + 1)){
+                b.put(bits + (c >> 3), (byte) (b.get(bits + (c >> 3)) | 1 << (c & 7)));
+            }
+        }
+    }
+
+    /**
+     * Restores paint, positions, scores and credits from a checkpoint at src's position, taken from
+     * a state of the same map with the same number of players, and advances src. Cells are only
+     * written where they differ, so chunk versions move exactly for the chunks that change.
+     * Returns the checkpoint's tick.
+     */
+    public long restore(ByteBuffer src){
+        int base = src.position();
+        if (src.getInt(base + ArenaLayout.MAGIC_AT) != ArenaLayout.MAGIC || src.getInt(base + ArenaLayout.VERSION_AT) != ArenaLayout.VERSION){
+            throw new IllegalArgumentException("Not an arena checkpoint");
+        }
+        if (src.getInt(base + ArenaLayout.CELLS_AT) != totalCells) throw new IllegalArgumentException("Checkpoint is for another map");
+        int n = src.getInt(base + ArenaLayout.PLAYERS_AT);
+        if (n != roster.size()) throw new IllegalArgumentException("Checkpoint has " + n + " players, arena has " + roster.size());
+        // Checked before anything changes, so a bad checkpoint leaves the state as it was
+        for (int c = 0; c < totalCells; c++){
+            byte v = src.get(base + ArenaLayout.PAINT + c);
+            if (v < UNPAINTED || v > n) throw new IllegalArgumentException("Checkpoint paints cell " + c + " with " + v);
+        }
+        int creditBytes = ArenaLayout.creditBytes(totalCells);
+        int credits = base + ArenaLayout.credits(totalCells);
+        for (int i = 0; i < n; i++){
+            int at = base + ArenaLayout.player(i);
+            Player2D p = roster.get(i);
+            p.x = src.getDouble(at + ArenaLayout.X);
+            p.y = src.getDouble(at + ArenaLayout.Y);
+            p.vx = src.getDouble(at + ArenaLayout.VX);
+            p.vy = src.getDouble(at + ArenaLayout.VY);
+            p.lastAwardTick = src.getLong(at + ArenaLayout.LAST_AWARD);
+            p.score = src.getInt(at + ArenaLayout.SCORE);
+            p.onGround = src.get(at + ArenaLayout.ON_GROUND) != 0;
+            p.credited.clear();
+            int bits = credits + i * creditBytes;
+            for (int j = 0; j < creditBytes; j++){
+                int b = src.get(bits + j) & 0xFF;
+                for (; b != 0; b &= b - 1) p.credited.set((j << 3) + Integer.numberOfTrailingZeros(b));
+            }
+        }
+        for (int c = 0; c < totalCells; c++){
+            byte v = src.get(base + ArenaLayout.PAINT + c);
+            if (paintAt(c) != v) setCell(c, v);
+        }
+        long tick = src.getLong(base + ArenaLayout.TICK_AT);
+        // Moving platforms are wherever the tick puts them
+        moving().settle(tick);
+        src.position(base + ArenaLayout.size(totalCells));
+        return tick;
+    }
+
+    /** Share of all cells painted by the player, 0-100. */
+    public double territoryPercent(Player2D p){
+        return totalCells == 0 ? 0 : coverage[p.paint] * 100.0 / totalCells;
     }
 }
@@ -0,0 +1,168 @@
+package com.Color_craze.board.arena.models;
+
+import java.util.Arrays;
+
+/**
+ * Index of the unpainted cells of a state, for bot targeting: a bitmap over global cells (bit set =
+ * unpainted) with a summary word per 64 bitmap words, plus an unpainted count per platform. The
+ * paint code keeps it in step cell by cell or range by range; finding the free cell nearest to a
+ * given cell of a platform is a couple of word scans through the summary instead of a walk over
+ * the platform's cells, and fully painted platforms are skipped by their count. Arrays only, sized
+ * once for the layout, so updates and queries do not allocate.
+ */
+final class FreeCells {
+    private final int cells;
+    // Bit c of word c >> 6: cell c is unpainted
+    private final long[] bits;
+    // Bit w of word w >> 6: bits[w] != 0
+    private final long[] summary;
+    // First global cell of each platform, and its unpainted cells
+    private final int[] offsets;
+    private final int[] free;
+
+    FreeCells(int cells, int[] offsets, int platforms){
+        this.cells = cells;
+        this.bits = new long[Math.max(1, (cells + 63) >> 6)];
+        this.summary = new long[(bits.length + 63) >> 6];
+        this.offsets = Arrays.copyOf(offsets, platforms + 1);
+        this.offsets[platforms] = cells;
+        this.free = new int[platforms];
+    }
+
+    /** Builds the index for the current paint of a state. */
+    static FreeCells of(ArenaState st){
+        int n = st.platforms.size();
+        int[] offsets = new int[n];
+        for (int i = 0; i < n; i++) offsets[i] = st.cellOffset(i);
+        FreeCells f = new FreeCells(st.totalCells(), offsets, n);
+        for (int c = 0; c < f.cells; c++) if (st.paintAt(c) == ArenaState.UNPAINTED) f.bits[c >> 6] |= 1L << c;
+        f.recount();
+        return f;
+    }
+
+    /** Every cell unpainted again. */
+    void reset(){
+        Arrays.fill(bits, 0);
+        for (int w = 0; w < (cells >> 6); w++) bits[w] = -1L;
+        if ((cells & 63) != 0) bits[cells >> 6] = (1L << cells) - 1;
+        recount();
+    }
+
+    private void recount(){
+        Arrays.fill(summary, 0);
+        for (int w = 0; w < bits.length; w++) if (bits[w] != 0) summary[w >> 6] |= 1L << w;
+        for (int i = 0; i < free.length; i++) free[i] = count(offsets[i], offsets[i + 1]);
+    }
+
+    /** Records a cell's paint changing to or from unpainted. */
+    void set(int cell, boolean unpainted){
+        int w = cell >> 6;
+        long bit = 1L << cell;
+        if (((bits[w] & bit) != 0) == unpainted) return;
+        bits[w] ^= bit;
+        free[platformOf(cell)] += unpainted ? 1 : -1;
+        if (bits[w] != 0) summary[w >> 6] |= 1L << w;
+        else summary[w >> 6] &= ~(1L << w);
+    }
+
+    /** Records cells [from, to) as painted, as by a range repaint. */
+    void paint(int from, int to){
+        if (from >= to) return;
+        // Per platform the range covers, so the counts follow
+        for (int i = platformOf(from); i < free.length && offsets[i] < to; i++){
+            int lo = Math.max(from, offsets[i]), hi = Math.min(to, offsets[i + 1]);
+            if (lo < hi) free[i] -= count(lo, hi);
+        }
+        for (int w = from >> 6; w <= (to - 1) >> 6; w++){
+            bits[w] &= ~mask(w, from, to);
+            if (bits[w] == 0) summary[w >> 6] &= ~(1L << w);
+        }
+    }
+
+    /** Unpainted cells of a platform. */
+    int free(int platformIndex){
+        return free[platformIndex];
+    }
+
+    /** Lowest unpainted cell in [from, to), or -1. */
+    int next(int from, int to){
+        if (from >= to) return -1;
+        int w = from >> 6;
+        long word = bits[w] & (-1L << from);
+        if (word == 0){
+            w = nextWord(w + 1);
+            if (w < 0) return -1;
+            word = bits[w];
+        }
+        int c = (w << 6) + Long.numberOfTrailingZeros(word);
+        return c < to ? c : -1;
+    }
+
+    /** Highest unpainted cell in [from, to), or -1. */
+    int prev(int from, int to){
+        if (from >= to) return -1;
+        int w = (to - 1) >> 6;
+        long word = bits[w] & (-1L >>> (63 - ((to - 1) & 63)));
+        if (word == 0){
+            w = prevWord(w - 1);
+            if (w < 0) return -1;
+            word = bits[w];
+        }
+        int c = (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+        return c >= from ? c : -1;
+    }
+
+    /** Platform holding a global cell. */
+    int platformOf(int cell){
+        int lo = 0, hi = free.length - 1;
+        while (lo < hi){
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= cell) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    // First non-empty bitmap word at or after w, or -1
+    private int nextWord(int w){
+        if (w >= bits.length) return -1;
+        int s = w >> 6;
+        long word = summary[s] & (-1L << w);
+        while (word == 0){
+            if (++s == summary.length) return -1;
+            word = summary[s];
+        }
+        return (s << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    // Last non-empty bitmap word at or before w, or -1
+    private int prevWord(int w){
+        if (w < 0) return -1;
+        int s = w >> 6;
+        long word = summary[s] & (-1L >>> (63 - (w & 63)));
+        while (word == 0){
+            if (--s < 0) return -1;
+            word = summary[s];
+        }
+        return (s << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
+
+    // Unpainted cells in [from, to), from < to
+    private int count(int from, int to){
+        int n = 0;
+        for (int w = from >> 6; w <= (to - 1) >> 6; w++) n += Long.bitCount(bits[w] & mask(w, from, to));
+        return n;
+    }
+
+    // Bits of word w that fall in [from, to)
+    private static long mask(int w, int from, int to){
+        long m = -1L;
+        if (w == from >> 6) m &= -1L << from;
+        if (w == (to - 1) >> 6) m &= -1L >>> (63 - ((to - 1) & 63));
+        return m;
+    }
+
+    long estimatedBytes(){
+        return 3 * 16L + 8L * bits.length + 8L * summary.length + 4L * (offsets.length + free.length);
+    }
+}
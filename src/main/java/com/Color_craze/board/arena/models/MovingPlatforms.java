@@ -0,0 +1,172 @@
+package com.Color_craze.board.arena.models;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The moving platforms of one state: where every platform is on the current tick, how far it moved
+ * on the last update, and a dynamic uniform grid over the moving ones (the fixed ones are in the
+ * map's shared PlatformGrid). An update only visits moving platforms, and one that still covers
+ * the same grid cells is not re-filed; otherwise it leaves its old cells and joins its new ones.
+ * Per-cell lists grow by doubling and are kept, so once each platform has been through its travel
+ * updates stop allocating. Updated by the owner thread between steps; queries only read.
+ */
+final class MovingPlatforms {
+    private final List<Platform2D> platforms;
+    // Platform indices of the moving platforms, ascending
+    final int[] index;
+    // Per platform index: current position and displacement on the last update (0 for fixed ones)
+    final double[] x;
+    final double[] y;
+    final double[] dx;
+    final double[] dy;
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    // Grid range the k-th moving platform is filed under: c0, c1, r0, r1 at 4k
+    private final int[] range;
+    // Platform indices per grid cell, unordered; null until a moving platform reaches the cell
+    private final int[][] cellItems;
+    private final int[] cellCount;
+
+    MovingPlatforms(List<Platform2D> platforms, double width, double height, double cellSize){
+        this.platforms = platforms;
+        int n = platforms.size(), m = 0;
+        this.x = new double[n];
+        this.y = new double[n];
+        this.dx = new double[n];
+        this.dy = new double[n];
+        for (int i = 0; i < n; i++){
+            x[i] = platforms.get(i).x();
+            y[i] = platforms.get(i).y();
+            if (platforms.get(i).moves()) m++;
+        }
+        this.index = new int[m];
+        for (int i = 0, k = 0; i < n; i++) if (platforms.get(i).moves()) index[k++] = i;
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.range = new int[4 * m];
+        this.cellItems = new int[m > 0 ? cols * rows : 0][];
+        this.cellCount = new int[cellItems.length];
+        for (int k = 0; k < m; k++){
+            bounds(index[k], range, 4 * k);
+            file(index[k], 4 * k);
+        }
+    }
+
+    /** Puts every moving platform where it is on the tick; returns how many moved. */
+    int moveTo(long tick){
+        int moved = 0;
+        for (int k = 0; k < index.length; k++){
+            int i = index[k];
+            Platform2D pl = platforms.get(i);
+            double t = pl.travelAt(tick);
+            double nx = pl.x() + pl.travelX() * t, ny = pl.y() + pl.travelY() * t;
+            dx[i] = nx - x[i];
+            dy[i] = ny - y[i];
+            if (dx[i] == 0 && dy[i] == 0) continue;
+            x[i] = nx;
+            y[i] = ny;
+            moved++;
+            refile(i, 4 * k);
+        }
+        return moved;
+    }
+
+    /** moveTo without a displacement, for a state that jumps to a tick (reset, restore). */
+    void settle(long tick){
+        moveTo(tick);
+        Arrays.fill(dx, 0);
+        Arrays.fill(dy, 0);
+    }
+
+    boolean intersects(int i, double rx, double ry, double rw, double rh){
+        Platform2D pl = platforms.get(i);
+        return rx < x[i] + pl.width() && rx + rw > x[i] && ry < y[i] + pl.height() && ry + rh > y[i];
+    }
+
+    /** Adds the moving platforms overlapping the AABB to the n sorted entries of out; returns the new count. */
+    int query(double qx, double qy, double qw, double qh, int[] out, int n){
+        if (index.length == 0) return n;
+        int c0 = col(qx), c1 = col(qx + qw), r0 = row(qy), r1 = row(qy + qh);
+        for (int r = r0; r <= r1; r++){
+            for (int c = c0; c <= c1; c++){
+                int cell = r * cols + c;
+                int[] items = cellItems[cell];
+                for (int k = 0; k < cellCount[cell]; k++){
+                    if (intersects(items[k], qx, qy, qw, qh)) n = PlatformGrid.insertSorted(out, n, items[k]);
+                }
+            }
+        }
+        return n;
+    }
+
+    /** Lowest index of a moving platform whose top is within tolerance of feetY under [px, px + w), or -1. */
+    int platformUnder(double px, double feetY, double w, double tolerance){
+        if (index.length == 0) return -1;
+        int best = -1;
+        int c0 = col(px), c1 = col(px + w), r0 = row(feetY - tolerance), r1 = row(feetY + tolerance);
+        for (int r = r0; r <= r1; r++){
+            for (int c = c0; c <= c1; c++){
+                int cell = r * cols + c;
+                int[] items = cellItems[cell];
+                for (int k = 0; k < cellCount[cell]; k++){
+                    int i = items[k];
+                    if (best >= 0 && i >= best) continue;
+                    boolean horizontallyOver = (px + w) > x[i] && px < (x[i] + platforms.get(i).width());
+                    if (horizontallyOver && Math.abs(feetY - y[i]) <= tolerance) best = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Re-files platform i when the grid cells it covers changed
+    private void refile(int i, int at){
+        int c0 = range[at], c1 = range[at + 1], r0 = range[at + 2], r1 = range[at + 3];
+        bounds(i, range, at);
+        if (c0 == range[at] && c1 == range[at + 1] && r0 == range[at + 2] && r1 == range[at + 3]) return;
+        for (int r = r0; r <= r1; r++) for (int c = c0; c <= c1; c++) remove(r * cols + c, i);
+        file(i, at);
+    }
+
+    private void file(int i, int at){
+        for (int r = range[at + 2]; r <= range[at + 3]; r++){
+            for (int c = range[at]; c <= range[at + 1]; c++){
+                int cell = r * cols + c;
+                int[] items = cellItems[cell];
+                if (items == null) items = cellItems[cell] = new int[2];
+                else if (cellCount[cell] == items.length) items = cellItems[cell] = Arrays.copyOf(items, items.length * 2);
+                items[cellCount[cell]++] = i;
+            }
+        }
+    }
+
+    private void remove(int cell, int i){
+        int[] items = cellItems[cell];
+        for (int k = 0; k < cellCount[cell]; k++){
+            if (items[k] != i) continue;
+            items[k] = items[--cellCount[cell]];
+            return;
+        }
+    }
+
+    private void bounds(int i, int[] out, int at){
+        Platform2D pl = platforms.get(i);
+        out[at] = col(x[i]);
+        out[at + 1] = col(x[i] + pl.width());
+        out[at + 2] = row(y[i]);
+        out[at + 3] = row(y[i] + pl.height());
+    }
+
+    private int col(double v){
+        int c = (int) Math.floor(v / cellSize);
+        return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+    }
+
+    private int row(double v){
+        int r = (int) Math.floor(v / cellSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+}
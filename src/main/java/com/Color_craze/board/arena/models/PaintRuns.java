@@ -0,0 +1,99 @@
+package com.Color_craze.board.arena.models;
+
+/**
+ * Segment tree over an arena's global cells that records, per node, whether every cell below it
+ * holds the same paint value (or MIXED). Assigning a range stops at nodes that are uniform, so a
+ * repaint visits O(log n) nodes per run of equal paint it covers, and the cells each previous value
+ * held come out of those nodes' sizes instead of a per-cell scan. A uniform node stands for its
+ * whole subtree (lazy assignment): children are only brought up to date when a later update
+ * descends through it. Arrays only, so updates do not allocate.
+ */
+final class PaintRuns {
+    private static final byte MIXED = -1;
+
+    private final int leaves;
+    // 1-based heap: node k has children 2k and 2k + 1; leaves at [leaves, 2 * leaves)
+    private final byte[] uniform;
+
+    PaintRuns(int cells){
+        int n = 1;
+        while (n < Math.max(1, cells)) n <<= 1;
+        this.leaves = n;
+        this.uniform = new byte[2 * n];
+    }
+
+    /** Builds the tree for the current paint of the first cells of a state. */
+    static PaintRuns of(ArenaState st){
+        PaintRuns r = new PaintRuns(st.totalCells());
+        for (int c = 0; c < st.totalCells(); c++) r.uniform[r.leaves + c] = st.paintAt(c);
+        for (int k = r.leaves - 1; k >= 1; k--) r.pull(k);
+        return r;
+    }
+
+    /** Every cell back to unpainted, in O(1). */
+    void reset(){
+        uniform[1] = ArenaState.UNPAINTED;
+    }
+
+    void set(int cell, byte value){
+        set(1, 0, leaves, cell, value);
+    }
+
+    private void set(int k, int lo, int hi, int cell, byte value){
+        if (hi - lo == 1){
+            uniform[k] = value;
+            return;
+        }
+        if (uniform[k] == value) return;
+        push(k);
+        int mid = (lo + hi) >>> 1;
+        if (cell < mid) set(2 * k, lo, mid, cell, value);
+        else set(2 * k + 1, mid, hi, cell, value);
+        pull(k);
+    }
+
+    /**
+     * Assigns value to cells [from, to) and adds to before[v] how many of them held paint value v
+     * (before is indexed by paint value, UNPAINTED included).
+     */
+    void assign(int from, int to, byte value, int[] before){
+        if (from < to) assign(1, 0, leaves, from, to, value, before);
+    }
+
+    private void assign(int k, int lo, int hi, int from, int to, byte value, int[] before){
+        if (to <= lo || hi <= from) return;
+        if (from <= lo && hi <= to && uniform[k] != MIXED){
+            before[uniform[k]] += hi - lo;
+            uniform[k] = value;
+            return;
+        }
+        push(k);
+        int mid = (lo + hi) >>> 1;
+        assign(2 * k, lo, mid, from, to, value, before);
+        assign(2 * k + 1, mid, hi, from, to, value, before);
+        pull(k);
+    }
+
+    /** Paint value of one cell as the tree sees it; for tests and checks. */
+    byte get(int cell){
+        int k = 1, lo = 0, hi = leaves;
+        while (hi - lo > 1 && uniform[k] == MIXED){
+            int mid = (lo + hi) >>> 1;
+            if (cell < mid){ k = 2 * k; hi = mid; } else { k = 2 * k + 1; lo = mid; }
+        }
+        return uniform[k];
+    }
+
+    // A uniform node hands its value down before one of its children changes
+    private void push(int k){
+        byte v = uniform[k];
+        if (v == MIXED) return;
+        uniform[2 * k] = v;
+        uniform[2 * k + 1] = v;
+    }
+
+    private void pull(int k){
+        byte l = uniform[2 * k], r = uniform[2 * k + 1];
+        uniform[k] = l == r && l != MIXED ? l : MIXED;
+    }
+}
@@ -1,6 +1,28 @@
 package com.Color_craze.board.arena.models;
 
-public record Platform2D(double x, double y, double width, double height, int cells) {
+/**
+ * A platform as the map describes it, at rest. A moving platform (periodTicks > 0 and a non-zero
+ * travel) slides from (x, y) to (x + travelX, y + travelY) and back once per periodTicks, eased at
+ * both ends, without rotating. Where it is depends on the room tick alone (travelAt), so the
+ * server and clients place it the same way; its current position lives in ArenaState.
+ */
+public record Platform2D(double x, double y, double width, double height, int cells, double travelX, double travelY, long periodTicks) {
+    public Platform2D(double x, double y, double width, double height, int cells){
+        this(x, y, width, height, cells, 0, 0, 0);
+    }
+
+    public boolean moves(){
+        return periodTicks > 0 && (travelX != 0 || travelY != 0);
+    }
+
+    /** Share of the travel covered at the tick: 0 at rest, 1 at the far end. */
+    public double travelAt(long tick){
+        if (!moves()) return 0;
+        double phase = Math.floorMod(tick, periodTicks) / (double) periodTicks;
+        return (1 - Math.cos(2 * Math.PI * phase)) * 0.5;
+    }
+
+    // At rest; a moving platform's current bounds are ArenaState.platformIntersects
     public boolean intersects(double rx, double ry, double rwidth, double rheight){
         return rx < x + width && rx + rwidth > x && ry < y + height && ry + rheight > y;
     }
@@ -0,0 +1,121 @@
+package com.Color_craze.board.arena.models;
+
+import java.util.List;
+
+/**
+ * Uniform-grid broadphase over the fixed platforms of a map, built once when the map is loaded.
+ * Moving platforms are left out (their slots stay empty); each state tracks them in its own
+ * MovingPlatforms, see ArenaState.queryPlatforms.
+ * Every grid cell lists, in ascending order, the platforms whose bounds touch it (CSR layout:
+ * cellStart/items), so a query only visits the few grid cells an AABB covers and hands back
+ * platform indices directly instead of scanning the whole list.
+ * Immutable after construction and safe to share between threads.
+ */
+public final class PlatformGrid {
+    public static final double DEFAULT_CELL_SIZE = 64.0;
+
+    private final Platform2D[] platforms;
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    // Platforms of grid cell c are items[cellStart[c] .. cellStart[c+1])
+    private final int[] cellStart;
+    private final int[] items;
+
+    public PlatformGrid(List<Platform2D> platforms, double width, double height){
+        this(platforms, width, height, DEFAULT_CELL_SIZE);
+    }
+
+    public PlatformGrid(List<Platform2D> platforms, double width, double height, double cellSize){
+        this.platforms = platforms.toArray(new Platform2D[0]);
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        int[] counts = new int[cols * rows + 1];
+        for (Platform2D pl : this.platforms){
+            if (pl.moves()) continue;
+            int c0 = col(pl.x()), c1 = col(pl.x() + pl.width());
+            int r0 = row(pl.y()), r1 = row(pl.y() + pl.height());
+            for (int r = r0; r <= r1; r++) for (int c = c0; c <= c1; c++) counts[r * cols + c + 1]++;
+        }
+        for (int i = 1; i < counts.length; i++) counts[i] += counts[i - 1];
+        this.cellStart = counts;
+        this.items = new int[counts[counts.length - 1]];
+        int[] fill = java.util.Arrays.copyOf(counts, counts.length - 1);
+        // Platforms are visited in index order, so each cell's list comes out sorted
+        for (int i = 0; i < this.platforms.length; i++){
+            Platform2D pl = this.platforms[i];
+            if (pl.moves()) continue;
+            int c0 = col(pl.x()), c1 = col(pl.x() + pl.width());
+            int r0 = row(pl.y()), r1 = row(pl.y() + pl.height());
+            for (int r = r0; r <= r1; r++) for (int c = c0; c <= c1; c++) items[fill[r * cols + c]++] = i;
+        }
+    }
+
+    public int size(){
+        return platforms.length;
+    }
+
+    /**
+     * Writes the indices of the platforms overlapping the AABB into out, ascending and without
+     * duplicates, and returns how many were written. out must hold at least size() entries.
+     */
+    public int query(double x, double y, double w, double h, int[] out){
+        int n = 0;
+        int c0 = col(x), c1 = col(x + w);
+        int r0 = row(y), r1 = row(y + h);
+        for (int r = r0; r <= r1; r++){
+            for (int c = c0; c <= c1; c++){
+                int cell = r * cols + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++){
+                    int idx = items[k];
+                    if (!platforms[idx].intersects(x, y, w, h)) continue;
+                    n = insertSorted(out, n, idx);
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Lowest index of a platform whose top lies within tolerance of feetY and that horizontally
+     * overlaps [x, x + w), or -1. Matches the "standing on top" probe used by the tick.
+     */
+    public int platformUnder(double x, double feetY, double w, double tolerance){
+        int best = -1;
+        int c0 = col(x), c1 = col(x + w);
+        int r0 = row(feetY - tolerance), r1 = row(feetY + tolerance);
+        for (int r = r0; r <= r1; r++){
+            for (int c = c0; c <= c1; c++){
+                int cell = r * cols + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++){
+                    int idx = items[k];
+                    if (best >= 0 && idx >= best) break; // lists are sorted: nothing lower left here
+                    Platform2D pl = platforms[idx];
+                    boolean horizontallyOver = (x + w) > pl.x() && x < (pl.x() + pl.width());
+                    if (horizontallyOver && Math.abs(feetY - pl.y()) <= tolerance) best = idx;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int col(double x){
+        int c = (int) Math.floor(x / cellSize);
+        return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+    }
+
+    private int row(double y){
+        int r = (int) Math.floor(y / cellSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+
+    static int insertSorted(int[] out, int n, int idx){
+        int i = n;
+        while (i > 0 && out[i - 1] > idx) i--;
+        if (i > 0 && out[i - 1] == idx) return n;
+        System.arraycopy(out, i, out, i + 1, n - i);
+        out[i] = idx;
+        return n + 1;
+    }
+}
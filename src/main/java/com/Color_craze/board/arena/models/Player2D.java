@@ -1,16 +1,28 @@
 package com.Color_craze.board.arena.models;
 
+import java.util.BitSet;
+
 import com.Color_craze.utils.enums.ColorStatus;
 
 public class Player2D {
-    public final String playerId;
+    // Identity fields are rewritten when a pooled arena reuses this slot (see reset)
+    public String playerId;
     public double x, y; // position top-left
     public double vx, vy;
     public boolean onGround;
-    public final ColorStatus color;
+    // Display color only; several players may share one in large rooms
+    public ColorStatus color;
+    // Paint value this player leaves on cells: roster slot + 1, set when joining an ArenaState
+    public byte paint;
     public int score;
-    // Cooldown to rate-limit scoring (+1) frequency
-    public long lastAwardMs = 0L;
+    // Room tick of the last +1, to rate-limit scoring frequency
+    public long lastAwardTick;
+    // Room tick of the last paint bomb, for its cooldown
+    public long lastBombTick;
+    // Slot in ArenaState.roster, assigned when the player joins the arena
+    public int index = -1;
+    // Global cell indices this player has been credited for (see ArenaState.cellOffset)
+    public BitSet credited = new BitSet();
     public static final double WIDTH = 24;
     public static final double HEIGHT = 32;
 
@@ -19,4 +31,19 @@ public class Player2D {
         this.x = x; this.y = y;
         this.color = color;
     }
+
+    /** Reuses this instance for a new player: identity, spawn position and all match state. */
+    public void reset(String playerId, double x, double y, ColorStatus color){
+        this.playerId = playerId;
+        this.color = color;
+        this.x = x; this.y = y;
+        this.vx = 0; this.vy = 0;
+        this.onGround = false;
+        this.score = 0;
+        this.lastAwardTick = 0;
+        this.lastBombTick = 0;
+        this.index = -1;
+        this.paint = ArenaState.UNPAINTED;
+        if (credited != null) credited.clear();
+    }
 }
@@ -0,0 +1,186 @@
+package com.Color_craze.board.arena.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.Color_craze.board.arena.models.ArenaLayout;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.services.GameStateSnapshotService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Arena checkpoints for crash recovery: every arena.checkpoint.every-ticks room ticks, and soon
+ * after significant events (match start, paint bombs), the room's state is written to
+ * GameStateSnapshotService so a restarted node can resume the match (see ArenaService.resumeGame).
+ * <p>
+ * The shard thread only takes a bulk copy of the state (ArenaState.checkpoint, the ArenaLayout
+ * format with its tick number) into one of two buffers the room keeps for this; a writer thread
+ * compresses and stores it. An older checkpoint the writer has not picked up yet is overwritten,
+ * never queued, so a slow store costs checkpoints, not tick time or memory.
+ * <p>
+ * Encoding: version byte, map id (modified UTF-8), raw checkpoint length, then the checkpoint
+ * deflated. Paint and credit bitmaps are mostly runs, so a match fits in a few hundred bytes.
+ */
+@Component
+public class ArenaCheckpoints {
+    private static final Logger log = LoggerFactory.getLogger(ArenaCheckpoints.class);
+    private static final int VERSION = 1;
+
+    private final GameStateSnapshotService store;
+    @org.springframework.beans.factory.annotation.Value("${arena.checkpoint.enabled:true}")
+    private boolean enabled = true;
+    @org.springframework.beans.factory.annotation.Value("${arena.checkpoint.every-ticks:600}")
+    private long everyTicks = 600;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "arena-checkpoint");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** A decoded checkpoint: the map it belongs to and the ArenaLayout bytes, ready for ArenaState.restore. */
+    public record Checkpoint(String mapId, ByteBuffer layout) {
+        public long tick(){
+            return ArenaLayout.tick(layout);
+        }
+    }
+
+    public ArenaCheckpoints(GameStateSnapshotService store) {
+        this.store = store;
+    }
+
+    /** Owner thread, at paint cadence: takes a checkpoint when one is due or was asked for. */
+    void maybeCapture(ArenaRoom room){
+        if (!enabled) return;
+        boolean due = everyTicks > 0 && room.tick - room.lastCheckpointTick >= everyTicks;
+        if (due || room.checkpointRequested) capture(room);
+    }
+
+    /** Owner thread: copies the room's state into a free buffer and hands it to the writer. */
+    void capture(ArenaRoom room){
+        ArenaState st = room.state;
+        // Not picked up yet: overwrite it with the newer state
+        ByteBuffer buf = room.checkpointPending.getAndSet(null);
+        if (buf == null) buf = room.checkpointSpare.getAndSet(null);
+        int size = ArenaLayout.size(st.totalCells());
+        if (buf == null || buf.capacity() != size) buf = ByteBuffer.allocate(size);
+        buf.clear();
+        st.checkpoint(buf, room.tick);
+        buf.flip();
+        room.checkpointPending.set(buf);
+        room.lastCheckpointTick = room.tick;
+        room.checkpointRequested = false;
+        if (room.checkpointQueued.compareAndSet(false, true)) writer.execute(() -> drain(room));
+    }
+
+    // Writer thread: stores the room's latest checkpoint until none is pending
+    private void drain(ArenaRoom room){
+        do {
+            ByteBuffer buf = room.checkpointPending.getAndSet(null);
+            if (buf != null){
+                try {
+                    if (!room.isClosed()){
+                        store.saveArena(room.code, encode(room.state.mapId, buf));
+                        // The match ended while this was being written: stopGame's delete may have come first
+                        if (room.isClosed()) store.deleteArena(room.code);
+                    }
+                } catch (Exception ex){
+                    log.warn("Arena checkpoint failed for room {}: {}", room.code, ex.toString());
+                } finally {
+                    room.checkpointSpare.set(buf);
+                }
+            }
+            room.checkpointQueued.set(false);
+        } while (room.checkpointPending.get() != null && room.checkpointQueued.compareAndSet(false, true));
+    }
+
+    /** The latest stored checkpoint of a room, or null when there is none or it cannot be read. */
+    public Checkpoint load(String code){
+        byte[] data;
+        try {
+            data = store.loadArena(code);
+        } catch (Exception ex){
+            log.warn("Arena checkpoint for room {} could not be loaded: {}", code, ex.toString());
+            return null;
+        }
+        if (data == null) return null;
+        try {
+            return decode(data);
+        } catch (IOException ex){
+            log.warn("Arena checkpoint for room {} is unreadable: {}", code, ex.toString());
+            return null;
+        }
+    }
+
+    public void delete(String code){
+        try { store.deleteArena(code); } catch (Exception ignore) {}
+    }
+
+    static byte[] encode(String mapId, ByteBuffer checkpoint) throws IOException {
+        int length = checkpoint.remaining();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(checkpoint.duplicate());
+            deflater.finish();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeUTF(mapId != null ? mapId : "");
+            out.writeInt(length);
+            byte[] chunk = new byte[1024];
+            while (!deflater.finished()){
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static Checkpoint decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        int version = in.readUnsignedByte();
+        if (version != VERSION) throw new IOException("Unknown arena checkpoint version " + version);
+        String mapId = in.readUTF();
+        int length = in.readInt();
+        if (length < ArenaLayout.HEADER || length > ArenaLayout.size(1 << 24)) throw new IOException("Bad arena checkpoint length " + length);
+        int offset = data.length - in.available();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, data.length - offset);
+            byte[] raw = new byte[length];
+            int n = 0;
+            while (n < length && !inflater.finished()){
+                int k = inflater.inflate(raw, n, length - n);
+                if (k == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += k;
+            }
+            if (n != length) throw new IOException("Truncated arena checkpoint");
+            return new Checkpoint(mapId.isEmpty() ? null : mapId, ByteBuffer.wrap(raw));
+        } catch (DataFormatException ex){
+            throw new IOException("Corrupt arena checkpoint", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        writer.shutdown();
+    }
+}
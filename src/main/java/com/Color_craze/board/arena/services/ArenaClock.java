@@ -0,0 +1,12 @@
+package com.Color_craze.board.arena.services;
+
+/**
+ * Monotonic time source of the tick engine. Production uses System.nanoTime; tests and
+ * benchmarks plug in a clock they move by hand so a room can run faster than real time.
+ */
+@FunctionalInterface
+public interface ArenaClock {
+    ArenaClock SYSTEM = System::nanoTime;
+
+    long nanoTime();
+}
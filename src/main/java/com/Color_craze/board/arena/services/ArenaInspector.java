@@ -0,0 +1,119 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.springframework.stereotype.Component;
+
+import com.Color_craze.board.arena.dtos.ArenaRoomStats;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Ranks live arenas for the admin room inspector. Every call makes one pass over the rooms reading
+ * counters they already keep (no locks, no snapshots, nothing the owner thread is mutating; the
+ * memory estimate is one its owner refreshes about once a second as it publishes) and keeps the top N in a bounded heap; only
+ * those N are expanded into full stats, so the cost stays O(rooms log N) on a node with thousands
+ * of rooms.
+ */
+@Component
+@RequiredArgsConstructor
+public class ArenaInspector {
+    private final ArenaService arenaService;
+    private final ArenaTickEngine engine;
+    // Counters per room as of the previous call, so rates cover the time between two calls
+    private Map<ArenaRoom, Sample> previous = new HashMap<>();
+
+    /** What to rank rooms by, highest first. */
+    public enum Sort {
+        CPU, MEMORY, SUBSCRIBERS, FRAMES, BYTES, TICK;
+
+        public static Sort parse(String value){
+            if (value == null || value.isBlank()) return CPU;
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private record Sample(long at, long frames, long bytes) {}
+
+    private record Row(ArenaRoom room, double key, double framesPerSec, double bytesPerSec) {}
+
+    public int roomCount(){
+        return arenaService.rooms().size();
+    }
+
+    /** The limit rooms ranking highest by sort. */
+    public synchronized List<ArenaRoomStats> top(Sort sort, int limit){
+        long now = System.nanoTime();
+        Map<ArenaRoom, Sample> seen = new HashMap<>(Math.max(16, previous.size() * 2));
+        PriorityQueue<Row> best = new PriorityQueue<>(Comparator.comparingDouble(Row::key));
+        for (ArenaRoom room : arenaService.rooms()){
+            Sample cur = new Sample(now, room.framesSent, room.bytesSent);
+            Sample prev = previous.getOrDefault(room, new Sample(room.createdNanos, 0, 0));
+            seen.put(room, cur);
+            double secs = Math.max(1e-3, (cur.at() - prev.at()) / 1e9);
+            double fps = (cur.frames() - prev.frames()) / secs;
+            double bps = (cur.bytes() - prev.bytes()) / secs;
+            double key = switch (sort){
+                case CPU -> cpuNanos(room);
+                case MEMORY -> room.retainedBytes;
+                case SUBSCRIBERS -> room.subscriberCount();
+                case FRAMES -> fps;
+                case BYTES -> bps;
+                case TICK -> meanTickNanos(room);
+            };
+            if (best.size() < limit) best.add(new Row(room, key, fps, bps));
+            else if (limit > 0 && key > best.peek().key()){
+                best.poll();
+                best.add(new Row(room, key, fps, bps));
+            }
+        }
+        previous = seen;
+        List<Row> rows = new ArrayList<>(best);
+        rows.sort(Comparator.comparingDouble(Row::key).reversed());
+        List<ArenaRoomStats> out = new ArrayList<>(rows.size());
+        for (Row r : rows) out.add(stats(r));
+        return out;
+    }
+
+    private ArenaRoomStats stats(Row row){
+        ArenaRoom room = row.room();
+        int[] ticks = recentTicks(room);
+        Arrays.sort(ticks);
+        return new ArenaRoomStats(room.code, room.shard, room.activity().name(), room.playerIds.size(),
+            room.subscriberCount(), room.viewers.size(), room.tick,
+            cpuNanos(room) / 1e6, room.retainedBytes, row.framesPerSec(), row.bytesPerSec(),
+            percentile(ticks, 0.50), percentile(ticks, 0.95), percentile(ticks, 0.99),
+            ticks.length > 0 ? ticks[ticks.length - 1] / 1e3 : 0);
+    }
+
+    private double cpuNanos(ArenaRoom room){
+        return room.shard >= 0 ? room.busyNanos * engine.cpuPerBusyNano(room.shard) : room.busyNanos;
+    }
+
+    private static double meanTickNanos(ArenaRoom room){
+        long n = Math.min(room.tickSampleCount, ArenaRoom.TICK_SAMPLES);
+        if (n == 0) return 0;
+        long sum = 0;
+        for (int i = 0; i < n; i++) sum += room.tickSamples[i];
+        return (double) sum / n;
+    }
+
+    private static int[] recentTicks(ArenaRoom room){
+        int n = (int) Math.min(room.tickSampleCount, ArenaRoom.TICK_SAMPLES);
+        return Arrays.copyOf(room.tickSamples, n);
+    }
+
+    // Nearest-rank percentile of sorted tick samples, in microseconds
+    private static double percentile(int[] sorted, double p){
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))] / 1e3;
+    }
+}
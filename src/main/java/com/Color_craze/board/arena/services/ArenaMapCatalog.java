@@ -0,0 +1,106 @@
+package com.Color_craze.board.arena.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import com.Color_craze.board.arena.dtos.ArenaMapResponse;
+import com.Color_craze.board.arena.models.ArenaMap;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Platform2D;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Arena maps available to rooms, read from JSON files at startup (arena.maps.location) and
+ * compiled once into {@link ArenaMap}s. Maps are looked up by content id; the default map
+ * (arena.maps.default, by name) is what new rooms play.
+ */
+@Component
+public class ArenaMapCatalog {
+    private static final Logger log = LoggerFactory.getLogger(ArenaMapCatalog.class);
+
+    // File format of a map definition
+    record MapFile(String name, double width, double height, List<ArenaMapResponse.Platform> platforms, List<ArenaMapResponse.Spawn> spawns) {}
+
+    private final Map<String, ArenaMap> byId = new LinkedHashMap<>();
+    private final Map<String, ArenaMapResponse> responses = new LinkedHashMap<>();
+    private final ArenaMap defaultMap;
+
+    public ArenaMapCatalog(@Value("${arena.maps.location:classpath*:arena/maps/*.json}") String location,
+                           @Value("${arena.maps.default:classic}") String defaultName) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ArenaMap fallback = null, chosen = null;
+        for (Resource r : new PathMatchingResourcePatternResolver().getResources(location)){
+            MapFile file;
+            try (InputStream in = r.getInputStream()){
+                file = mapper.readValue(in, MapFile.class);
+            }
+            ArenaMap map = compile(file);
+            if (byId.putIfAbsent(map.id, map) != null) continue;
+            responses.put(map.id, toResponse(map));
+            if (fallback == null) fallback = map;
+            if (map.name.equals(defaultName)) chosen = map;
+            log.info("Arena map '{}' loaded as {} ({} platforms, {} cells)", map.name, map.id, map.platforms.size(), map.totalCells());
+        }
+        if (fallback == null) throw new IllegalStateException("No arena maps found at " + location);
+        if (chosen == null) log.warn("Arena map '{}' not found, defaulting to '{}'", defaultName, fallback.name);
+        this.defaultMap = chosen != null ? chosen : fallback;
+    }
+
+    static ArenaMap compile(MapFile file){
+        List<Platform2D> platforms = new ArrayList<>();
+        if (file.platforms() != null){
+            for (var p : file.platforms()){
+                platforms.add(new Platform2D(p.x(), p.y(), p.width(), p.height(), p.cells(), p.travelX(), p.travelY(), p.periodTicks()));
+            }
+        }
+        int n = file.spawns() == null ? 0 : file.spawns().size();
+        double[] sx = new double[n], sy = new double[n];
+        for (int i = 0; i < n; i++){
+            sx[i] = file.spawns().get(i).x();
+            sy[i] = file.spawns().get(i).y();
+        }
+        return new ArenaMap(file.name(), file.width(), file.height(), platforms, sx, sy);
+    }
+
+    private static ArenaMapResponse toResponse(ArenaMap map){
+        List<ArenaMapResponse.Platform> platforms = new ArrayList<>();
+        for (Platform2D pl : map.platforms){
+            platforms.add(new ArenaMapResponse.Platform(pl.x(), pl.y(), pl.width(), pl.height(), pl.cells(), pl.travelX(), pl.travelY(), pl.periodTicks()));
+        }
+        List<ArenaMapResponse.Spawn> spawns = new ArrayList<>();
+        for (int i = 0; i < map.spawnCount(); i++) spawns.add(new ArenaMapResponse.Spawn(map.spawnX(i), map.spawnY(i)));
+        return new ArenaMapResponse(map.id, map.name, map.width, map.height,
+            Collections.unmodifiableList(platforms), Collections.unmodifiableList(spawns), ArenaState.CHUNK_CELLS);
+    }
+
+    public ArenaMap defaultMap(){
+        return defaultMap;
+    }
+
+    /** Compiled map by content id, or null. */
+    public ArenaMap get(String id){
+        return byId.get(id);
+    }
+
+    /** Client-facing geometry of a map by content id, or null; built once at load. */
+    public ArenaMapResponse describe(String id){
+        return responses.get(id);
+    }
+
+    public Collection<ArenaMap> all(){
+        return Collections.unmodifiableCollection(byId.values());
+    }
+}
@@ -0,0 +1,23 @@
+package com.Color_craze.board.arena.services;
+
+/**
+ * Receives measurements from the arena loops. Shard callbacks run on the shard thread once per
+ * engine tick and broadcast callbacks on a broadcaster thread, so implementations must be cheap
+ * and must not block.
+ */
+public interface ArenaMetrics {
+    ArenaMetrics NOOP = new ArenaMetrics() {};
+
+    /**
+     * One engine tick of a shard. lagNanos is how late the tick started compared with when the
+     * accumulator made it due; wallNanos covers stepping and publishing every room of the shard;
+     * players and cellsChanged add up over the rooms stepped on this tick.
+     */
+    default void tick(int shard, long lagNanos, long wallNanos, int players, int cellsChanged) {}
+
+    /**
+     * One broadcast of a room's snapshot: wall time to build, serialize and hand over its messages.
+     * shard is -1 for rooms no shard runs, such as the startup warm-up's.
+     */
+    default void broadcast(int shard, long wallNanos, int messages) {}
+}
@@ -0,0 +1,103 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Player2D;
+
+/**
+ * Parallel finish phase for rooms with many players. Players are bucketed into vertical strips
+ * of the map by position and every strip moves and collides its players as one task on a
+ * fork-join pool; the merge then paints and scores in roster order on the owning shard thread.
+ * Moves only touch the player being moved, and painting, the only part where players interact
+ * (shared cells, stolen points), never reads positions, so the result is exactly the serial step's.
+ * <p>
+ * All tasks and buffers belong to the room and are reused: a step does not allocate.
+ */
+final class ArenaRegionStep {
+    private final ForkJoinPool pool;
+    private final ArenaSimulation physics;
+    private final ArenaRoom room;
+    // Players of strip r are order[start[r] .. start[r + 1]), in slot order
+    private final int[] strip;
+    private final int[] start;
+    private final int[] order;
+    private final int[] cursor;
+    // Per slot, results of the parallel move for the merge: position before the move and ground after
+    private final double[] x0;
+    private final int[] under;
+    private final Strip[] strips;
+    private final Fork fork = new Fork();
+
+    ArenaRegionStep(ForkJoinPool pool, ArenaSimulation physics, ArenaRoom room, int regions){
+        int n = room.state.roster.size();
+        this.pool = pool;
+        this.physics = physics;
+        this.room = room;
+        this.strip = new int[n];
+        this.start = new int[regions + 1];
+        this.order = new int[n];
+        this.cursor = new int[regions];
+        this.x0 = new double[n];
+        this.under = new int[n];
+        this.strips = new Strip[regions];
+        for (int r = 0; r < regions; r++) strips[r] = new Strip(r, room.candidates.length);
+    }
+
+    int regions(){
+        return strips.length;
+    }
+
+    void finish(ArenaRoom room){
+        ArenaState st = room.state;
+        int n = st.roster.size();
+        // Built lazily for hand-made states: build them here rather than racing inside the tasks
+        st.collisionIndex();
+        st.hasMovingPlatforms();
+        // Counting sort of slots by strip; stable, so each strip keeps slot order
+        double stripW = st.width / strips.length;
+        java.util.Arrays.fill(start, 0);
+        for (int pi = 0; pi < n; pi++){
+            Player2D p = st.roster.get(pi);
+            int r = (int) ((p.x + Player2D.WIDTH * 0.5) / stripW);
+            strip[pi] = r < 0 ? 0 : Math.min(strips.length - 1, r);
+            start[strip[pi] + 1]++;
+        }
+        for (int r = 0; r < strips.length; r++) start[r + 1] += start[r];
+        System.arraycopy(start, 0, cursor, 0, strips.length);
+        for (int pi = 0; pi < n; pi++) order[cursor[strip[pi]]++] = pi;
+        fork.reinitialize();
+        pool.invoke(fork);
+        // Merge: paint and score in slot order, as the serial step does
+        for (int pi = 0; pi < n; pi++) physics.paintUnder(room, pi, x0[pi], under[pi]);
+    }
+
+    private final class Fork extends RecursiveAction {
+        @Override
+        protected void compute(){
+            for (Strip s : strips) s.reinitialize();
+            invokeAll(strips);
+        }
+    }
+
+    private final class Strip extends RecursiveAction {
+        final int index;
+        // Broadphase scratch of this strip; room.candidates belongs to the serial path
+        final int[] candidates;
+
+        Strip(int index, int platforms){
+            this.index = index;
+            this.candidates = new int[platforms];
+        }
+
+        @Override
+        protected void compute(){
+            for (int k = start[index]; k < start[index + 1]; k++){
+                int pi = order[k];
+                x0[pi] = room.state.roster.get(pi).x;
+                under[pi] = physics.move(room, pi, candidates);
+            }
+        }
+    }
+}
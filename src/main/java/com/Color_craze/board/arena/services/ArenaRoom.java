@@ -0,0 +1,381 @@
+package com.Color_craze.board.arena.services;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.Color_craze.board.arena.dtos.ArenaInput;
+
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Player2D;
+
+/**
+ * Runtime handle for one live arena: the simulated state plus the bookkeeping
+ * the tick engine needs to step and publish it. A room is owned by exactly one
+ * shard for its whole life. Everything the tick touches exists before the first
+ * step (inputs, bot state, scratch buffers) and is indexed by Player2D.index, so
+ * stepping a room does not allocate; those arrays are borrowed from the state
+ * (RoomScratch), so starting a room on a pooled state does not allocate them either.
+ */
+public class ArenaRoom {
+    public final String code;
+    public final ArenaState state;
+    // Player id per roster slot, fixed for the room's life; snapshots share it
+    final List<String> playerIds;
+    // Roster slot per player id, fixed like playerIds; STOMP threads look players up here, never in
+    // the state, which goes back to its pool (and to another match) once the room is detached
+    private final Map<String, Integer> slots;
+    // Shard that owns this room and the broadcast phase offset within it
+    int shard = -1;
+    int phase;
+    // Engine ticks seen by this room (monotonic, 120 Hz); the room's clock for scoring, bots and frames
+    long tick;
+    // Number of simulation steps performed so far
+    long steps;
+    // state.paintChanges() as of the previous step, so the engine can report cells changed per step
+    long paintChangesSeen;
+    volatile boolean closed;
+    // Set when the shard let go of the room; its state returns to the pool once no broadcast runs
+    volatile boolean detached;
+
+    // Step length: the room is stepped every `substeps` engine ticks (1 = 120 Hz, 2 = 60 Hz, 4 = 30 Hz)
+    int substeps = 1;
+    double dt = ArenaSimulation.DT;
+    double friction = ArenaSimulation.FRICTION;
+    // Swept (continuous) collision instead of per-step overlap tests; required below 120 Hz
+    boolean swept;
+    // Parallel move phase for rooms with many players (null = serial), see ArenaRegionStep
+    ArenaRegionStep regions;
+
+    // Arrays borrowed from the state for the room's life; the fields below point into it
+    final RoomScratch scratch;
+    // Latest input per slot (MAX_PLAYERS slots, the roster uses the first ones); only the owning shard writes these
+    final InputState[] inputs;
+    // Inputs from STOMP threads, applied at the start of the next step
+    private final ConcurrentLinkedQueue<ArenaInput> inbox = new ConcurrentLinkedQueue<>();
+    // Bot AI state per player: whether it is a CPU player, walk direction (-1, 0, +1) and tick of the next decision
+    final boolean[] bot;
+    final int[] botDir;
+    final long[] botNextDecisionTick;
+    // Bot randomness, seeded from the room code so a replay of the same inputs gives the same game
+    final SplittableRandom random;
+    final BotTarget botTarget = new BotTarget();
+    // Cells that already cost a previous owner a point this step; a handful, as each player's
+    // decrements are capped at substeps per step (the array lives in scratch, which keeps it if it grows)
+    int stepDecrementCount;
+    // Broadphase query output, one slot per platform
+    final int[] candidates;
+    // Cells per paint value a range repaint took over (see ArenaState.paintRange)
+    final int[] repainted;
+    // Timed paint decay (null = paint stays until painted over), see PaintDecay
+    PaintDecay decay;
+    // Crash-recovery checkpoints (see ArenaCheckpoints): the latest one not yet stored and a stored
+    // one whose buffer the writer handed back, the tick of the last capture, and whether an event
+    // asked for one before the next periodic capture
+    final AtomicReference<ByteBuffer> checkpointPending = new AtomicReference<>();
+    final AtomicReference<ByteBuffer> checkpointSpare = new AtomicReference<>();
+    final AtomicBoolean checkpointQueued = new AtomicBoolean();
+    long lastCheckpointTick;
+    boolean checkpointRequested;
+    // Platform each player stood on after the previous step (-1 = airborne)
+    final int[] ground;
+    // Horizontal acceleration per player for the step in progress, from input or bot steering
+    final double[] accel;
+
+    // Snapshot hand-off: the latest unclaimed snapshot, and a sent snapshot whose paint buffers a broadcaster handed back
+    private final AtomicReference<ArenaSnapshot> pending = new AtomicReference<>();
+    private final AtomicReference<ArenaSnapshot> spare = new AtomicReference<>();
+    // Latest published snapshot, for readers that only look at scores and poses
+    private volatile ArenaSnapshot latest;
+    // Set while a broadcast for this room is queued, so a slow broadcaster is not flooded
+    final AtomicBoolean broadcastQueued = new AtomicBoolean();
+    // Viewport of each client that asked for interest-managed frames, by viewer id; only the
+    // broadcaster holding broadcastQueued reads their sent-chunk versions
+    final Map<String, ArenaViewer> viewers = new ConcurrentHashMap<>();
+
+    // Inspector counters (see ArenaInspector). The owner thread adds the room's share of each tick's
+    // wall time and keeps the most recent ones in a ring; the broadcaster holding broadcastQueued
+    // adds what it sent. Single writer each, read without locking by the admin endpoint.
+    static final int TICK_SAMPLES = 128;
+    final int[] tickSamples = new int[TICK_SAMPLES];
+    volatile long tickSampleCount;
+    volatile long busyNanos;
+    // Wall time of the current tick's batch step attributed to this room, added to its publish time
+    long stepShareNanos;
+    // estimatedBytes() as of the last refresh (at most every MEMORY_REFRESH_TICKS, on publish), for
+    // readers off the owner thread; pose publishes in between do not pay for the estimate
+    static final long MEMORY_REFRESH_TICKS = 120;
+    volatile long retainedBytes;
+    private long memoryRefreshedTick;
+    // SnapshotPaint.estimatedBytes of the last buffer publish filled; owner thread
+    private long paintBytes;
+    volatile long framesSent;
+    volatile long bytesSent;
+    final long createdNanos = System.nanoTime();
+
+    /** How the engine treats the room: full rate, reduced rate, or not stepped at all. */
+    public enum Activity { ACTIVE, IDLE, HIBERNATING }
+
+    // Hibernation (see updateActivity): rate while players are active, reduced rate once nobody
+    // has sent input for idleAfterTicks (0 = never idle), and the topic's subscriber count
+    // (null = unknown, treated as watched)
+    private int activeHz = (int) Math.round(1.0 / ArenaSimulation.DT);
+    private boolean activeSwept;
+    private int idleHz;
+    private long idleAfterTicks;
+    private AtomicInteger subscribers;
+    private Activity activity = Activity.ACTIVE;
+    private long lastHumanInputTick;
+    // Raised by offer() on human input; the owner switches back to full rate on its next tick
+    private volatile boolean woken;
+
+    static class InputState { boolean left, right, jump, bomb; }
+
+    static class BotTarget { int platformIndex; int cellIndex; double x; double y; }
+
+    public ArenaRoom(String code, ArenaState state){
+        this.code = code;
+        this.state = state;
+        int n = state.roster.size();
+        this.scratch = RoomScratch.of(state);
+        this.inputs = scratch.inputs;
+        this.bot = scratch.bot;
+        this.botDir = scratch.botDir;
+        this.botNextDecisionTick = scratch.botNextDecisionTick;
+        this.candidates = scratch.candidates;
+        this.repainted = scratch.repainted;
+        this.ground = scratch.ground;
+        this.accel = scratch.accel;
+        this.random = new SplittableRandom(code.hashCode());
+        this.paintChangesSeen = state.paintChanges();
+        List<String> ids = new ArrayList<>(n);
+        Map<String, Integer> slots = new HashMap<>();
+        for (int i = 0; i < n; i++){
+            Player2D p = state.roster.get(i);
+            ids.add(p.playerId);
+            if (p.playerId != null) slots.put(p.playerId, i);
+            bot[i] = isBot(p.playerId);
+            botDir[i] = random.nextDouble() < 0.5 ? -1 : 1;
+            p.lastAwardTick = -ArenaSimulation.AWARD_INTERVAL_TICKS; // first award is not held back
+            p.lastBombTick = -ArenaSimulation.BOMB_COOLDOWN_TICKS;
+        }
+        this.playerIds = Collections.unmodifiableList(ids);
+        this.slots = Map.copyOf(slots);
+        this.retainedBytes = estimatedBytes();
+    }
+
+    /**
+     * Sets the simulation rate. 120 Hz keeps the chosen collision mode; 60 and 30 Hz always use
+     * swept collision since discrete overlap tests would tunnel through thin platforms.
+     */
+    public void setTickRate(int hz, boolean swept){
+        this.activeHz = hz;
+        this.activeSwept = swept;
+        applyRate(hz, swept);
+    }
+
+    private void applyRate(int hz, boolean swept){
+        int base = (int) Math.round(1.0 / ArenaSimulation.DT);
+        this.substeps = Math.max(1, Math.round(base / (float) Math.max(1, hz)));
+        this.dt = ArenaSimulation.DT * substeps;
+        this.friction = Math.pow(ArenaSimulation.FRICTION, substeps);
+        this.swept = swept || substeps > 1;
+    }
+
+    public int substeps(){
+        return substeps;
+    }
+
+    /**
+     * Lets the room slow down to idleHz once no human has sent input for idleAfterTicks, and stop
+     * stepping altogether while, on top of that, nobody is subscribed to its frames. Idle time is
+     * counted from the room's current tick.
+     */
+    public void configureIdle(long idleAfterTicks, int idleHz, AtomicInteger subscribers){
+        this.idleAfterTicks = idleAfterTicks;
+        this.idleHz = idleHz;
+        this.subscribers = subscribers;
+        // Idle time counts from now: a room resumed at a late tick has not been idle all along
+        this.lastHumanInputTick = tick;
+    }
+
+    /** Whether anybody receives this room's frames. */
+    public boolean watched(){
+        AtomicInteger s = subscribers;
+        return s == null || s.get() > 0;
+    }
+
+    /** Subscriptions to the room's topics (shared and per viewer); 0 when not tracked. */
+    public int subscriberCount(){
+        AtomicInteger s = subscribers;
+        return s != null ? s.get() : 0;
+    }
+
+    public Activity activity(){
+        return activity;
+    }
+
+    /**
+     * Owner thread, once per engine tick: picks the activity level from the time since the last
+     * human input and the subscriber count, and switches the step rate when it changes. Leaving
+     * hibernation does not replay the skipped time; the room simply resumes from the current tick.
+     */
+    Activity updateActivity(){
+        if (idleAfterTicks <= 0) return activity;
+        if (woken){
+            woken = false;
+            lastHumanInputTick = tick;
+        }
+        Activity next = tick - lastHumanInputTick < idleAfterTicks ? Activity.ACTIVE
+            : watched() ? Activity.IDLE : Activity.HIBERNATING;
+        if (next != activity){
+            if (next == Activity.ACTIVE) applyRate(activeHz, activeSwept);
+            else if (activity == Activity.ACTIVE) applyRate(Math.min(activeHz, idleHz), true);
+            activity = next;
+        }
+        return activity;
+    }
+
+    /** Input slot for a player of this room, or null when the player is not part of it. */
+    InputState input(String playerId){
+        Integer slot = slots.get(playerId);
+        return slot != null ? inputs[slot] : null;
+    }
+
+    /**
+     * Queues an input for the next step; safe from any thread. Returns false for unknown players
+     * and once the room is closed. Reads nothing but the room's own fixed roster index.
+     */
+    boolean offer(ArenaInput input){
+        if (closed || !slots.containsKey(input.playerId())) return false;
+        inbox.offer(input);
+        if (!isBot(input.playerId())) woken = true;
+        return true;
+    }
+
+    private static boolean isBot(String playerId){
+        return playerId != null && playerId.startsWith("bot_");
+    }
+
+    // Owner thread: applies queued inputs in arrival order; a jump stays set until a step consumes it
+    void drainInputs(){
+        ArenaInput in;
+        while ((in = inbox.poll()) != null){
+            InputState st = input(in.playerId());
+            if (st == null) continue;
+            st.left = in.left();
+            st.right = in.right();
+            if (in.jump()) st.jump = true;
+            if (in.bomb()) st.bomb = true;
+        }
+    }
+
+    /**
+     * Owner thread: takes a snapshot of the current tick and makes it the one broadcasters claim.
+     * Paint is copied into whichever of the room's two buffers is free; a snapshot nobody claimed
+     * yet is taken back, and if it carried paint the new one does too so no paint update is lost.
+     */
+    ArenaSnapshot publish(boolean includePaint){
+        ArenaSnapshot reuse = pending.getAndSet(null);
+        if (reuse != null && reuse.paint != null) includePaint = true;
+        SnapshotPaint paint = null;
+        if (includePaint){
+            if (reuse == null || reuse.paint == null) reuse = spare.getAndSet(null);
+            if (reuse != null) paint = reuse.paint;
+            if (paint == null || paint.cells != state.totalCells()) paint = new SnapshotPaint(state.totalCells(), state.chunkCount());
+            // Only the chunks painted since this buffer was last filled are copied
+            paint.capture(state);
+            paintBytes = paint.estimatedBytes();
+        }
+        ArenaSnapshot snap = ArenaSnapshot.of(this, paint);
+        if (tick - memoryRefreshedTick >= MEMORY_REFRESH_TICKS){
+            retainedBytes = estimatedBytes();
+            memoryRefreshedTick = tick;
+        }
+        latest = snap;
+        pending.set(snap);
+        return snap;
+    }
+
+    /** Takes ownership of the latest unclaimed snapshot (and its paint buffer), or null. */
+    ArenaSnapshot claim(){
+        return pending.getAndSet(null);
+    }
+
+    /** Whether a snapshot is waiting to be claimed. */
+    boolean hasPending(){
+        return pending.get() != null;
+    }
+
+    /** Hands a claimed snapshot's paint buffers back once nothing reads it anymore. */
+    void recycle(ArenaSnapshot snap){
+        if (snap.paint != null) spare.set(snap);
+    }
+
+    /** Latest published snapshot, or null before the first one; never carries ownership of its paint. */
+    public ArenaSnapshot latest(){
+        return latest;
+    }
+
+    /** Current tick number; frames carry it so clients can order them. */
+    public long tick(){
+        return tick;
+    }
+
+    public long steps(){
+        return steps;
+    }
+
+    // Owner thread: the room's wall time on one engine tick
+    void recordTick(long nanos){
+        busyNanos += nanos;
+        long n = tickSampleCount;
+        tickSamples[(int) (n & (TICK_SAMPLES - 1))] = (int) Math.min(nanos, Integer.MAX_VALUE);
+        tickSampleCount = n + 1;
+    }
+
+    // Broadcaster holding broadcastQueued: messages and serialized bytes sent for one snapshot
+    void recordSent(int messages, long bytes){
+        framesSent += messages;
+        bytesSent += bytes;
+    }
+
+    /**
+     * Rough heap bytes held by this room beyond the shared map layout: its state and the scratch
+     * borrowed with it, the two snapshot paint buffers (counted as the last one filled), the
+     * viewers' chunk versions and the checkpoint buffers. Walks the state, so owner thread only
+     * (or before the room is scheduled); other threads read retainedBytes.
+     */
+    long estimatedBytes(){
+        int chunks = state.chunkCount();
+        long bytes = state.estimatedBytes() + scratch.estimatedBytes();
+        bytes += 2 * paintBytes;                                    // pending and spare snapshot paint
+        bytes += viewers.size() * (64L + 4L * chunks);
+        bytes += 4L * TICK_SAMPLES;
+        if (decay != null) bytes += decay.estimatedBytes();
+        ByteBuffer cp = checkpointSpare.get();
+        if (cp != null) bytes += 2L * cp.capacity();                 // both checkpoint buffers once in use
+        return bytes;
+    }
+
+    // Owner thread, after a step: cells whose paint changed since the previous call
+    int takeCellsChanged(){
+        long now = state.paintChanges();
+        int changed = (int) (now - paintChangesSeen);
+        paintChangesSeen = now;
+        return changed;
+    }
+
+    public boolean isClosed(){
+        return closed;
+    }
+}
@@ -1,397 +1,350 @@
 package com.Color_craze.board.arena.services;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.core.MessagePostProcessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
-import com.Color_craze.board.arena.dtos.ArenaFrame;
 import com.Color_craze.board.arena.dtos.ArenaInput;
+import com.Color_craze.board.arena.dtos.ArenaViewport;
+import com.Color_craze.board.arena.models.ArenaMap;
 import com.Color_craze.board.arena.models.ArenaState;
-import com.Color_craze.board.arena.models.Platform2D;
-import com.Color_craze.board.arena.models.Player2D;
 import com.Color_craze.board.models.GameSession.PlayerEntry;
-// import com.Color_craze.utils.enums.ColorStatus;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class ArenaService {
-    private final SimpMessagingTemplate messagingTemplate;
-    private final Map<String, ArenaState> arenas = new ConcurrentHashMap<>();
-    private final Map<String, InputState> inputs = new ConcurrentHashMap<>(); // key: code|playerId
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-    // Track scheduled tasks per game to allow proper cancellation and avoid leaks
-    private final Map<String, java.util.concurrent.ScheduledFuture<?>> tickTasks = new ConcurrentHashMap<>();
-    private final Map<String, java.util.concurrent.ScheduledFuture<?>> broadcastPosTasks = new ConcurrentHashMap<>();
-    private final Map<String, java.util.concurrent.ScheduledFuture<?>> broadcastPaintTasks = new ConcurrentHashMap<>();
-    // Simple bot AI state: direction and next decision timestamp per bot (key: code|playerId)
-    private final Map<String, Integer> botDir = new ConcurrentHashMap<>(); // -1 left, +1 right
-    private final Map<String, Long> botNextDecisionMs = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(ArenaService.class);
+    // Viewer ids become part of a topic name
+    private static final Pattern VIEWER_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
 
-    private static class InputState { volatile boolean left, right, jump; }
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ArenaTickEngine engine;
+    private final ArenaSubscriptions subscriptions;
+    private final ArenaMapCatalog maps;
+    private final Map<String, ArenaRoom> arenas = new ConcurrentHashMap<>();
+    private final ArenaSimulation physics = new ArenaSimulation();
+    // Entry points the owning shard calls for each room it steps; built in init()
+    private ArenaTickEngine.Simulation simulation;
+    // Batched SIMD velocity update across a shard's rooms; null = scalar path
+    private ArenaVectorKernel vectorKernel;
+    @org.springframework.beans.factory.annotation.Value("${arena.physics.vector:false}")
+    private boolean vectorPhysics;
+    // Serializes and sends snapshots off the shard threads, so a slow send never delays a tick
+    private final ExecutorService broadcaster = Executors.newFixedThreadPool(
+        Math.max(1, Runtime.getRuntime().availableProcessors() / 2), r -> {
+            Thread t = new Thread(r, "arena-broadcast");
+            t.setDaemon(true);
+            return t;
+        });
+    // Physics rate (120, 60 or 30 Hz) and collision mode; below 120 Hz collision is always swept
+    @org.springframework.beans.factory.annotation.Value("${arena.physics.hz:120}")
+    private int physicsHz = 120;
+    @org.springframework.beans.factory.annotation.Value("${arena.physics.swept:false}")
+    private boolean sweptCollision;
+    // Rooms with at least this many players move them in parallel by map region (0 = always serial),
+    // on a pool of arena.physics.parallel-threads shared by all such rooms
+    @org.springframework.beans.factory.annotation.Value("${arena.physics.parallel-min-players:0}")
+    private int parallelMinPlayers;
+    @org.springframework.beans.factory.annotation.Value("${arena.physics.parallel-threads:0}")
+    private int parallelThreads;
+    private volatile ForkJoinPool regionPool;
+    // Rooms without human input for this long drop to arena.idle.hz (0 = never), and stop
+    // stepping while nobody is subscribed either
+    @org.springframework.beans.factory.annotation.Value("${arena.idle.after-ms:3000}")
+    private long idleAfterMs = 3000;
+    @org.springframework.beans.factory.annotation.Value("${arena.idle.hz:30}")
+    private int idleHz = 30;
+    // Pre-built states per catalog map, reset and reused across rooms
+    @org.springframework.beans.factory.annotation.Value("${arena.pool.capacity:64}")
+    private int poolCapacity = 64;
+    @org.springframework.beans.factory.annotation.Value("${arena.pool.prewarm:8}")
+    private int poolPrewarm = 8;
+    private final Map<String, ArenaStatePool> pools = new ConcurrentHashMap<>();
+    // Crash-recovery checkpoints; absent in tests that build the service by hand
+    @org.springframework.beans.factory.annotation.Autowired(required = false)
+    private ArenaCheckpoints checkpoints;
+    // Keep each pooled state's paint (and checkpoint records) in a direct buffer, see ArenaState.useOffHeap
+    @org.springframework.beans.factory.annotation.Value("${arena.state.off-heap:false}")
+    private boolean offHeapState = false;
+    // Decay game mode: painted cells fade back to unpainted this long after they were last painted
+    // (0 = paint stays until painted over)
+    @org.springframework.beans.factory.annotation.Value("${arena.paint.decay-ms:0}")
+    private long paintDecayMs = 0;
+    // Interest management: viewer frames include what lies this far (map units) outside the viewport,
+    // so content is already there when it scrolls in; at most max-viewers per room
+    @org.springframework.beans.factory.annotation.Value("${arena.viewport.margin:120}")
+    private double viewportMargin = 120;
+    @org.springframework.beans.factory.annotation.Value("${arena.viewport.max-viewers:32}")
+    private int maxViewers = 32;
+
+    @PostConstruct
+    void init(){
+        simulation = newSimulation(messagingTemplate, checkpoints);
+        poolFor(maps.defaultMap().id).prewarm(poolPrewarm);
+        if (vectorPhysics){
+            // The kernel class links against the incubator module, so only touch it when that is present
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) vectorKernel = new ArenaVectorKernel(physics);
+            else log.warn("arena.physics.vector is on but jdk.incubator.vector is not loaded (--add-modules); using scalar physics");
+        }
+    }
 
     public ArenaState initGame(String code, List<PlayerEntry> players){
-        ArenaState st = new ArenaState(980, 540); // a bit wider to match the vibe of the reference
-    // Ground (normalize to ~5 px per cell like other platforms)
-    // st.width ~ 980 => 196 cells keeps ~5 px per cell for consistent scoring across platforms
-    addPlatform(st, 0, 510, st.width, 30, 196);
-
-        // Lower side ledges (approximate angled ramps with rectangles)
-        addPlatform(st, 140, 440, 180, 22, 36); // left lower
-        addPlatform(st, st.width - 140 - 180, 440, 180, 22, 36); // right lower
-
-    // Mid center platform (restored)
-    addPlatform(st, (st.width-320)/2, 360, 320, 24, 64); // main mid
-
-        // Upper side ledges
-        addPlatform(st, 120, 250, 200, 22, 40); // left upper
-        addPlatform(st, st.width - 120 - 200, 250, 200, 22, 40); // right upper
-
-        // Small top center platform (requested)
-        addPlatform(st, (st.width-160)/2, 160, 160, 20, 32); // top center small
-
-    // Removed narrow mid connectors to open space
+        ArenaRoom room = newRoom(code, poolFor(maps.defaultMap().id).acquire(), players);
+        if (paintDecayMs > 0) room.decay = room.scratch.decay(room.state.totalCells(), ArenaSimulation.ticks(paintDecayMs), room.tick());
+        // First checkpoint right away, so a crash early in the match still has the roster's start
+        room.checkpointRequested = true;
+        start(room, players.size());
+        log.debug("Arena room {} started with {} platforms", code, room.state.platforms.size());
+        return room.state;
+    }
 
-        // Spawn players on upper side ledges; distribute if more players
-        double[][] spawnSpots = new double[][]{
-            {140+20, 250-32},                          // left upper ledge
-            {st.width - 120 - 200 + 200 - 44, 250-32}, // right upper ledge
-            {(st.width-320)/2 + 10, 360-32},           // mid
-            {(st.width-320)/2 + 320 - 34, 360-32}      // mid right edge
-        };
-        for (int i=0;i<players.size();i++){
-            var p = players.get(i);
-            double sx = spawnSpots[Math.min(i, spawnSpots.length-1)][0];
-            double sy = spawnSpots[Math.min(i, spawnSpots.length-1)][1];
-            Player2D pl = new Player2D(p.playerId, sx, sy, p.color);
-            st.players.put(p.playerId, pl);
+    /**
+     * Resumes a match from its latest checkpoint after a restart: same roster, paint, scores,
+     * credits and poses, and the room clock continues from the checkpoint's tick. Decay timers are
+     * not part of a checkpoint; painted cells get a full decay period again. Returns null when
+     * there is no usable checkpoint.
+     */
+    public ArenaState resumeGame(String code, List<PlayerEntry> players){
+        ArenaCheckpoints.Checkpoint cp = checkpoints != null ? checkpoints.load(code) : null;
+        if (cp == null) return null;
+        ArenaStatePool pool = poolFor(cp.mapId() != null && maps.get(cp.mapId()) != null ? cp.mapId() : maps.defaultMap().id);
+        ArenaState st = pool.acquire();
+        ArenaRoom room = newRoom(code, st, players);
+        try {
+            room.tick = st.restore(cp.layout());
+        } catch (IllegalArgumentException ex){
+            log.warn("Arena checkpoint for room {} does not fit its roster: {}", code, ex.getMessage());
+            pool.release(st);
+            return null;
         }
-    arenas.put(code, st);
-    try { System.out.println("[Arena] platforms=" + st.platforms.size()); } catch (Exception ignore) {}
-        // Cancel any previous tasks for this code (defensive)
-        var prevTick = tickTasks.remove(code);
-        if (prevTick != null) { try { prevTick.cancel(true); } catch (Exception ignore) {} }
-        var prevPos = broadcastPosTasks.remove(code);
-        if (prevPos != null) { try { prevPos.cancel(true); } catch (Exception ignore) {} }
-        var prevPaint = broadcastPaintTasks.remove(code);
-        if (prevPaint != null) { try { prevPaint.cancel(true); } catch (Exception ignore) {} }
-
-        // Start physics loop (~120 Hz/8ms) for smooth feel.
-        var tickF = scheduler.scheduleAtFixedRate(() -> tick(code), 0, 8, TimeUnit.MILLISECONDS);
-        // Broadcast positions/scores at ~30 Hz and paint at ~6-7 Hz to reduce payload size.
-    var posF = scheduler.scheduleAtFixedRate(() -> broadcast(code, false), 0, 22, TimeUnit.MILLISECONDS);
-        var paintF = scheduler.scheduleAtFixedRate(() -> broadcast(code, true), 0, 150, TimeUnit.MILLISECONDS);
-        tickTasks.put(code, tickF);
-        broadcastPosTasks.put(code, posF);
-        broadcastPaintTasks.put(code, paintF);
+        room.lastCheckpointTick = room.tick;
+        room.paintChangesSeen = st.paintChanges();
+        if (paintDecayMs > 0){
+            room.decay = room.scratch.decay(st.totalCells(), ArenaSimulation.ticks(paintDecayMs), room.tick);
+            for (int c = 0; c < st.totalCells(); c++) if (st.paintAt(c) != ArenaState.UNPAINTED) room.decay.painted(c, room.tick);
+        }
+        // Scores are readable (getSnapshot) before the first tick
+        room.publish(false);
+        start(room, players.size());
+        log.info("Arena room {} resumed at tick {}", code, room.tick);
         return st;
     }
 
-    private void addPlatform(ArenaState st, double x, double y, double w, double h, int cells){
-        int idx = st.platforms.size();
-        st.platforms.add(new Platform2D(x,y,w,h,cells));
-        st.ensurePaintArray(idx, cells);
+    // Rate, parallel moves and idling for a new room, then registers and schedules it
+    private void start(ArenaRoom room, int players){
+        room.setTickRate(physicsHz, sweptCollision);
+        if (parallelMinPlayers > 0 && players >= parallelMinPlayers) room.regions = new ArenaRegionStep(regionPool(), physics, room, regionPool().getParallelism());
+        room.configureIdle(ArenaSimulation.ticks(idleAfterMs), idleHz, subscriptions.counter(room.code));
+        // Replace any previous room for this code (defensive)
+        ArenaRoom prev = arenas.remove(room.code);
+        if (prev != null) engine.remove(prev);
+        arenas.put(room.code, room);
+        // Physics (~120 Hz) and broadcasts (positions ~40 Hz, paint ~6-7 Hz) run on the room's shard
+        engine.add(room, simulation);
     }
 
-    public void stopGame(String code){
-        arenas.remove(code);
-        // Cancel and remove scheduled tasks for this game
-        var t = tickTasks.remove(code);
-        if (t != null) { try { t.cancel(true); } catch (Exception ignore) {} }
-        var bp = broadcastPosTasks.remove(code);
-        if (bp != null) { try { bp.cancel(true); } catch (Exception ignore) {} }
-        var bq = broadcastPaintTasks.remove(code);
-        if (bq != null) { try { bq.cancel(true); } catch (Exception ignore) {} }
-        // Clean up inputs for this game to free memory
-        String prefix = code + "|";
-        inputs.keySet().removeIf(k -> k.startsWith(prefix));
+    /**
+     * The production step/publish/broadcast path with frames sent through out; the warm-up passes a
+     * template over a null channel so frames are built and serialized exactly as in a match.
+     */
+    ArenaTickEngine.Simulation newSimulation(SimpMessagingTemplate out){
+        return newSimulation(out, null);
     }
 
-    // includePaint=false => send only players+scores; true => include paint array as well
-    private void broadcast(String code, boolean includePaint){
-        ArenaState st = arenas.get(code);
-        if (st == null) return;
-        var players = st.players.values().stream().map(p -> new com.Color_craze.board.arena.dtos.ArenaFrame.PlayerPose(p.playerId, p.x, p.y, p.onGround)).collect(java.util.stream.Collectors.toList());
-        java.util.Map<String, Integer> scores = new java.util.HashMap<>();
-        for (var e : st.players.entrySet()) scores.put(e.getKey(), e.getValue().score);
-        var frame = new com.Color_craze.board.arena.dtos.ArenaFrame(code, players, includePaint ? st.paint : null, scores);
-        messagingTemplate.convertAndSend(String.format("/topic/board/%s/arena", code), frame);
+    // As above, taking crash-recovery checkpoints at paint cadence when cp is not null
+    private ArenaTickEngine.Simulation newSimulation(SimpMessagingTemplate out, ArenaCheckpoints cp){
+        return new ArenaTickEngine.Simulation() {
+            @Override public void step(ArenaRoom room){ physics.step(room); }
+            @Override public void publish(ArenaRoom room, boolean includePaint){
+                if (includePaint && cp != null) cp.maybeCapture(room);
+                if (!room.watched()){
+                    // No subscribers: keep the snapshot current for endGame at paint cadence, send nothing
+                    if (includePaint) room.publish(false);
+                    return;
+                }
+                room.publish(includePaint);
+                if (room.broadcastQueued.compareAndSet(false, true)) broadcaster.execute(() -> broadcast(room, out));
+            }
+            @Override public void detached(ArenaRoom room){
+                room.detached = true;
+                releaseWhenIdle(room);
+            }
+            @Override public void stepAll(ArenaRoom[] rooms, int from, int to){
+                if (vectorKernel != null) vectorKernel.stepAll(rooms, from, to);
+                else ArenaTickEngine.Simulation.super.stepAll(rooms, from, to);
+            }
+        };
     }
 
-    public ArenaState getState(String code){
-        return arenas.get(code);
+    /** A room on the default map that is not registered or scheduled; for headless runs such as the warm-up. */
+    ArenaRoom newHeadlessRoom(String code, List<PlayerEntry> players){
+        ArenaRoom room = newRoom(code, poolFor(maps.defaultMap().id).acquire(), players);
+        room.setTickRate(physicsHz, sweptCollision);
+        return room;
     }
 
-    public void updateInput(ArenaInput input){
-        if (input == null || input.code() == null || input.playerId() == null) return;
-        String key = input.code()+"|"+input.playerId();
-        InputState st = inputs.computeIfAbsent(key, k -> new InputState());
-        st.left = input.left();
-        st.right = input.right();
-        if (input.jump()) st.jump = true; // edge-trigger consumption in tick
+    // Spawns the players into a fresh (or freshly reset) state; the room is not scheduled yet
+    static ArenaRoom newRoom(String code, ArenaState st, List<PlayerEntry> players){
+        for (var p : players) st.spawn(p.playerId, p.color);
+        return new ArenaRoom(code, st);
     }
 
-    private void tick(String code){
-        ArenaState st = arenas.get(code);
-        if (st == null) return;
-        // Update bot inputs before integrating physics
-        try { updateBots(code, st); } catch (Exception ignore) {}
-    final double dt = 0.008; // ~120 Hz
-    final double gravity = 2400.0;
-    final double maxSpeed = 300.0;
-    final double accel = 3200.0;
-    final double jumpVy = -820.0;
-    List<Player2D> plist = new ArrayList<>(st.players.values());
-    final long nowMs = System.currentTimeMillis();
-    final long awardIntervalMs = 150; // ~6-7 points per second maximum
-        // Track which cells have already caused a decrement this tick to avoid mutual double-decrement
-        java.util.Set<Long> decrementedCellsThisTick = new java.util.HashSet<>();
-        for (Player2D p : plist){
-            InputState in = inputs.get(code+"|"+p.playerId);
-            double ax = 0;
-            if (in != null){
-                if (in.left && !in.right) ax = -accel;
-                else if (in.right && !in.left) ax = accel;
-                if (in.jump && p.onGround){
-                    p.vy = jumpVy;
-                }
-                in.jump = false; // consume
-            }
-            // integrate
-            p.vx += ax * dt;
-            // clamp vx with friction if no input
-            if (ax == 0){
-                p.vx *= 0.90;
-                if (Math.abs(p.vx) < 10) p.vx = 0;
-            }
-            if (p.vx > maxSpeed) p.vx = maxSpeed;
-            if (p.vx < -maxSpeed) p.vx = -maxSpeed;
+    private synchronized ForkJoinPool regionPool(){
+        if (regionPool == null){
+            int threads = parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors();
+            regionPool = new ForkJoinPool(threads);
+        }
+        return regionPool;
+    }
 
-            p.vy += gravity * dt;
+    private ArenaStatePool poolFor(String mapId){
+        return pools.computeIfAbsent(mapId, id -> {
+            ArenaMap map = maps.get(id);
+            if (!offHeapState) return new ArenaStatePool(map::newState, poolCapacity);
+            return new ArenaStatePool(() -> {
+                ArenaState st = map.newState();
+                st.useOffHeap();
+                return st;
+            }, poolCapacity);
+        });
+    }
 
-            // horizontal move and collide
-            double newX = p.x + p.vx * dt;
-            double newY = p.y;
-            // collide sides
-            for (int i=0;i<st.platforms.size();i++){
-                Platform2D pl = st.platforms.get(i);
-                if (pl.intersects(newX, newY, Player2D.WIDTH, Player2D.HEIGHT)){
-                    if (p.vx > 0) newX = pl.x() - Player2D.WIDTH; else if (p.vx < 0) newX = pl.x() + pl.width();
-                    p.vx = 0;
-                }
-            }
-            p.x = clamp(newX, 0, st.width - Player2D.WIDTH);
+    public void stopGame(String code){
+        ArenaRoom room = arenas.remove(code);
+        if (room != null) engine.remove(room);
+        subscriptions.release(code);
+        if (checkpoints != null) checkpoints.delete(code);
+    }
 
-            // vertical move and collide
-            newY = p.y + p.vy * dt;
-            Platform2D groundPl = null;
-            for (int i=0;i<st.platforms.size();i++){
-                Platform2D pl = st.platforms.get(i);
-                if (pl.intersects(p.x, newY, Player2D.WIDTH, Player2D.HEIGHT)){
-                    if (p.vy > 0){ // falling onto top
-                        newY = pl.y() - Player2D.HEIGHT;
-                        groundPl = pl;
-                    } else if (p.vy < 0){ // hitting bottom
-                        newY = pl.y() + pl.height();
-                    }
-                    p.vy = 0;
+    // Sends the room's latest unclaimed snapshot; pose-only snapshots carry no paint. Only one
+    // broadcaster works on a room at a time (it holds broadcastQueued), since viewers' sent-chunk
+    // versions must follow the order frames go out in
+    private void broadcast(ArenaRoom room, SimpMessagingTemplate out){
+        Sent sent = new Sent();
+        do {
+            ArenaSnapshot snap = room.claim();
+            if (snap != null){
+                long start = System.nanoTime();
+                sent.messages = 0;
+                sent.bytes = 0;
+                try {
+                    send(room, snap, out, sent);
+                    engine.metrics().broadcast(room.shard, System.nanoTime() - start, sent.messages);
+                    room.recordSent(sent.messages, sent.bytes);
+                } catch (Exception ex){
+                    log.warn("Arena broadcast failed for room {}: {}", room.code, ex.toString());
+                } finally {
+                    // The frames are serialized by now: the paint buffers can be filled again
+                    room.recycle(snap);
                 }
             }
-            p.y = clamp(newY, 0, st.height - Player2D.HEIGHT);
-            // Determine if the player is standing on a platform top this frame (even without collision)
-            Platform2D underTouch = groundPl;
-            if (underTouch == null){
-                for (int i=0;i<st.platforms.size();i++){
-                    Platform2D pl = st.platforms.get(i);
-                    boolean horizontallyOver = (p.x + Player2D.WIDTH) > pl.x() && p.x < (pl.x() + pl.width());
-                    if (horizontallyOver && Math.abs((p.y + Player2D.HEIGHT) - pl.y()) <= 3.0){
-                        underTouch = pl;
-                        break;
-                    }
-                }
-            }
-            boolean onFloor = p.y >= st.height - Player2D.HEIGHT - 0.5;
-            p.onGround = (underTouch != null) || onFloor;
+            room.broadcastQueued.set(false);
+            // A snapshot published while this one was being sent found the flag still set
+        } while (room.hasPending() && room.broadcastQueued.compareAndSet(false, true));
+        // The room was detached while this broadcast read its state: the state goes back now
+        releaseWhenIdle(room);
+    }
 
-            // painting if on ground (paint all cells under player's footprint width)
-            if (p.onGround){
-                Platform2D under = underTouch;
-                if (under != null){
-                    int idx = st.platforms.indexOf(under);
-                    st.ensurePaintArray(idx, under.cells());
-                    String[] arr = st.paint.get(idx);
-                    double cellW = under.width() / under.cells();
-                    double leftRel = (p.x - under.x());
-                    double rightRel = (p.x + Player2D.WIDTH - under.x());
-                    int cStart = (int)Math.floor(leftRel / cellW);
-                    int cEnd = (int)Math.floor(rightRel / cellW);
-                    if (cStart < 0) cStart = 0;
-                    if (cEnd >= under.cells()) cEnd = under.cells()-1;
-                    boolean awarded = false;
-                    boolean decremented = false;
-                    boolean canAward = (nowMs - p.lastAwardMs) >= awardIntervalMs;
-                    for (int ci = cStart; ci <= cEnd; ci++){
-                        String prev = arr[ci];
-                        String newCol = p.color.name();
-                        if (newCol.equals(prev)) continue; // no-op on same color
-                        // Award paint score only once per unique cell for this player
-                        long key = com.Color_craze.board.arena.models.ArenaState.cellKey(idx, ci);
-                        java.util.Set<Long> credited = st.creditedByPlayer.computeIfAbsent(p.playerId, k -> new java.util.HashSet<>());
-                        if (canAward && !credited.contains(key) && !awarded){
-                            p.score += 1;
-                            credited.add(key);
-                            p.lastAwardMs = nowMs;
-                            awarded = true; // limit to +1 per tick even if footprint spans multiple new cells
-                        }
-                        // If there was a previous owner (other color), decrement their score and remove their credit
-                        // Extra rule: only allow decrement when the painting player is actually moving horizontally
-                        // to avoid a stationary player "fighting back" every frame and draining the passer's score.
-                        boolean isMovingHorizontally = Math.abs(p.vx) > 1.0;
-                        if (!decremented && prev != null && !prev.equals(newCol) && !decrementedCellsThisTick.contains(key) && isMovingHorizontally){
-                            Player2D prevOwner = null;
-                            for (Player2D tp : st.players.values()){
-                                if (tp.color.name().equals(prev)) { prevOwner = tp; break; }
-                            }
-                            if (prevOwner != null && prevOwner.score > 0){
-                                prevOwner.score -= 1;
-                                java.util.Set<Long> prevSet = st.creditedByPlayer.get(prevOwner.playerId);
-                                if (prevSet != null) prevSet.remove(key);
-                                decrementedCellsThisTick.add(key); // ensure only one decrement for this cell in this tick
-                                decremented = true; // limit to -1 per tick to balance the +1 cap
-                            }
-                        }
-                        // Finally, paint the cell
-                        arr[ci] = newCol;
-                        // don't break; paint entire footprint so the stripe isn't too thin
-                    }
-                }
-            }
-        }
+    /*
+     * Returns a detached room's state to its pool once no broadcaster reads it (frames read the live
+     * state, e.g. viewer chunk bounds). Whoever takes broadcastQueued after the detach releases it:
+     * the shard on detaching when no broadcast is queued, otherwise the broadcaster when it is done.
+     * The flag then stays set, so the room never broadcasts again and the state is released once.
+     */
+    private void releaseWhenIdle(ArenaRoom room){
+        if (room.detached && room.broadcastQueued.compareAndSet(false, true)) poolFor(room.state.mapId).release(room.state);
     }
 
-    private static class BotTarget { int platformIndex; int cellIndex; double x; double y; }
+    // Counts the messages of a broadcast and their serialized size as the template converts them
+    private static final class Sent implements MessagePostProcessor {
+        int messages;
+        long bytes;
 
-    private void updateBots(String code, ArenaState st){
-        final long now = System.currentTimeMillis();
-        for (Player2D p : new java.util.ArrayList<>(st.players.values())){
-            if (p.playerId == null || !p.playerId.startsWith("bot_")) continue;
-            String key = code+"|"+p.playerId;
-            InputState in = inputs.computeIfAbsent(key, k -> new InputState());
+        @Override
+        public Message<?> postProcessMessage(Message<?> message){
+            messages++;
+            if (message.getPayload() instanceof byte[] b) bytes += b.length;
+            return message;
+        }
+    }
 
-            // Determine platform underfoot (top-touch heuristic)
-            Platform2D under = null;
-            int underIndex = -1;
-            for (int i=0;i<st.platforms.size();i++){
-                var pl = st.platforms.get(i);
-                boolean over = (p.x + Player2D.WIDTH) > pl.x() && p.x < (pl.x() + pl.width());
-                if (over && Math.abs((p.y + Player2D.HEIGHT) - pl.y()) <= 3.0){ under = pl; underIndex = i; break; }
+    void send(ArenaRoom room, ArenaSnapshot snap, SimpMessagingTemplate out, Sent sent){
+        String shared = String.format("/topic/board/%s/arena", room.code);
+        if (room.viewers.isEmpty() || subscriptions.subscribers(shared) > 0){
+            out.convertAndSend(shared, snap.toFrame(room.code), sent);
+        }
+        for (ArenaViewer v : room.viewers.values()){
+            String topic = v.topic(room.code);
+            if (subscriptions.subscribers(topic) == 0){
+                // Gone after having subscribed: forget it; not subscribed yet: wait for it
+                if (v.subscribed) room.viewers.remove(v.id, v);
+                continue;
             }
+            v.subscribed = true;
+            out.convertAndSend(topic, snap.toViewerFrame(room.code, v, room.state, viewportMargin), sent);
+        }
+    }
 
-            // Find the nearest unpainted cell to pursue
-            BotTarget target = findNearestUnpainted(st, p);
-
-            int dir = botDir.getOrDefault(key, (Math.random() < 0.5 ? -1 : 1));
-            long nextDec = botNextDecisionMs.getOrDefault(key, 0L);
-
-            if (target != null){
-                // Move horizontally towards target cell center
-                double centerX = p.x + Player2D.WIDTH * 0.5;
-                double dx = target.x - centerX;
-                if (Math.abs(dx) > 2){
-                    dir = dx < 0 ? -1 : 1;
-                } else {
-                    dir = 0; // already aligned horizontally
-                }
-
-                // Decide when to jump:
-                // 1) If target platform is above our feet and we're roughly aligned, hop up
-                boolean targetIsAbove = target.y < (p.y + Player2D.HEIGHT - 6);
-                boolean roughlyAligned = Math.abs(dx) < 30;
-                if (p.onGround && targetIsAbove && roughlyAligned){
-                    in.jump = true;
-                }
+    /** Live rooms, for the inspector; a weakly consistent view. */
+    Collection<ArenaRoom> rooms(){
+        return arenas.values();
+    }
 
-                // 2) If target is beyond the edge of current platform, try a gap jump when near edge
-                if (under != null){
-                    double leftEdge = under.x();
-                    double rightEdge = under.x() + under.width() - Player2D.WIDTH;
-                    boolean targetOutside = (target.x < leftEdge) || (target.x > rightEdge + Player2D.WIDTH);
-                    boolean nearLeft = p.x <= leftEdge + 10;
-                    boolean nearRight = p.x >= rightEdge - 10;
-                    if (p.onGround && targetOutside && (nearLeft || nearRight)){
-                        in.jump = true;
-                    }
-                }
+    public ArenaState getState(String code){
+        ArenaRoom room = arenas.get(code);
+        return room != null ? room.state : null;
+    }
 
-                // Small randomness so it doesn't look like a perfect robot
-                if (now >= nextDec){
-                    botNextDecisionMs.put(key, now + 800 + (long)(Math.random()*600));
-                    if (Math.random() < 0.12) dir = -dir; // occasional hesitation/flip
-                }
-            } else {
-                // No unpainted cells left: roam casually (fallback behavior)
-                if (under != null){
-                    double leftEdge = under.x();
-                    double rightEdge = under.x() + under.width() - Player2D.WIDTH;
-                    if (p.x <= leftEdge + 8) dir = 1;
-                    else if (p.x >= rightEdge - 8) dir = -1;
-                }
-                if (now >= nextDec){
-                    botNextDecisionMs.put(key, now + 700 + (long)(Math.random()*500));
-                    double r = Math.random();
-                    if (r < 0.20) dir = -dir;
-                    if (p.onGround && r > 0.70) in.jump = true;
-                }
-            }
+    /** Latest published snapshot of the room (scores, territory, poses), or null. */
+    public ArenaSnapshot getSnapshot(String code){
+        ArenaRoom room = arenas.get(code);
+        return room != null ? room.latest() : null;
+    }
 
-            botDir.put(key, dir);
-            in.left = dir < 0; in.right = dir > 0;
-        }
+    // Called from STOMP threads: the input is queued and applied by the room's shard on its next step
+    public void updateInput(ArenaInput input){
+        if (input == null || input.code() == null || input.playerId() == null) return;
+        ArenaRoom room = arenas.get(input.code());
+        if (room == null) return;
+        room.offer(input);
     }
 
-    // Heuristic: look for the closest unpainted cell across all platforms.
-    // Returns world coordinates at the center of that cell and its platform index.
-    private BotTarget findNearestUnpainted(ArenaState st, Player2D p){
-        double bestD2 = Double.POSITIVE_INFINITY;
-        BotTarget best = null;
-        double px = p.x + Player2D.WIDTH * 0.5;
-        double py = p.y + Player2D.HEIGHT; // use feet as reference
-        for (int i=0;i<st.platforms.size();i++){
-            var pl = st.platforms.get(i);
-            st.ensurePaintArray(i, pl.cells());
-            String[] arr = st.paint.get(i);
-            if (arr == null) continue;
-            double cellW = pl.width() / pl.cells();
-            for (int c=0;c<pl.cells();c++){
-                if (arr[c] != null) continue; // already painted
-                double cx = pl.x() + c*cellW + cellW*0.5;
-                double cy = pl.y(); // top of platform
-                double dx = cx - px;
-                double dy = cy - py;
-                double d2 = dx*dx + dy*dy;
-                if (d2 < bestD2){
-                    bestD2 = d2;
-                    BotTarget t = new BotTarget();
-                    t.platformIndex = i; t.cellIndex = c; t.x = cx; t.y = cy;
-                    best = t;
-                }
-            }
+    /**
+     * Called from STOMP threads: registers or moves a viewer's viewport. From the next frame on the
+     * viewer gets players and paint chunks around that area on its own topic.
+     */
+    public void updateViewport(ArenaViewport viewport){
+        if (viewport == null || viewport.code() == null || viewport.viewerId() == null) return;
+        if (!VIEWER_ID.matcher(viewport.viewerId()).matches()) return;
+        ArenaRoom room = arenas.get(viewport.code());
+        if (room == null) return;
+        ArenaViewer v = room.viewers.get(viewport.viewerId());
+        if (v == null){
+            if (room.viewers.size() >= maxViewers) return;
+            v = room.viewers.computeIfAbsent(viewport.viewerId(), ArenaViewer::new);
         }
-        return best;
+        v.moveTo(viewport.x(), viewport.y(), viewport.width(), viewport.height());
     }
 
-    private double clamp(double v, double lo, double hi){
-        return Math.max(lo, Math.min(hi, v));
+    @PreDestroy
+    public void shutdown(){
+        broadcaster.shutdownNow();
+        if (regionPool != null) regionPool.shutdownNow();
     }
-
-    // kept for reference; now unused
 }
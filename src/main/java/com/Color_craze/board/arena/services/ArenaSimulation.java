@@ -0,0 +1,562 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.Color_craze.board.arena.models.ArenaEntities;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Platform2D;
+import com.Color_craze.board.arena.models.Player2D;
+
+/**
+ * Physics, painting/scoring and bot steering for one arena step.
+ * Runs on the shard thread that owns the room and works only on the room's
+ * preallocated arrays: no collections, boxing or string keys on this path, so a
+ * steady-state step allocates nothing (see ArenaSimulationAllocationTest).
+ * Time is the room's tick number and randomness comes from the room's seeded generator,
+ * so a step never reads the wall clock and replays are deterministic.
+ */
+public class ArenaSimulation {
+    static final double DT = 0.008; // ~120 Hz base step
+    static final double GRAVITY = 2400.0;
+    static final double MAX_SPEED = 300.0;
+    static final double ACCEL = 3200.0;
+    static final double JUMP_VY = -820.0;
+    static final double FRICTION = 0.90; // per base step when there is no horizontal input
+    static final long AWARD_INTERVAL_MS = 150; // ~6-7 points per second maximum
+    static final long AWARD_INTERVAL_TICKS = ticks(AWARD_INTERVAL_MS);
+    static final double BOMB_RADIUS = 96.0;
+    static final long BOMB_COOLDOWN_TICKS = ticks(8000);
+    // Cells painted on each side of a projectile's impact cell
+    static final int SPLAT_CELLS = 1;
+    // Side of the square a pickup or hazard occupies around its position
+    static final double ENTITY_SIZE = 16.0;
+    // Contact tolerance for swept tests: positions snapped to an edge compare equal within this
+    private static final double EPS = 1e-6;
+
+    public void step(ArenaRoom room){
+        beginStep(room);
+        for (int pi = 0; pi < room.state.roster.size(); pi++){
+            Player2D p = room.state.roster.get(pi);
+            if (!room.swept) p.vy = fall(p.vy, room.dt);
+            p.vx = integrate(p.vx, room.accel[pi], room.dt, room.friction);
+        }
+        finishStep(room);
+    }
+
+    /*
+     * A step runs in three phases so a batch of rooms can share the middle one (see
+     * ArenaVectorKernel): beginStep turns inputs into accelerations and jumps, the velocity
+     * update needs nothing but the player's own numbers, and finishStep moves, collides and
+     * paints. Players never collide with each other, so doing all velocity updates before any
+     * move gives the same result as updating and moving them one by one.
+     */
+    void beginStep(ArenaRoom room){
+        ArenaState st = room.state;
+        room.drainInputs();
+        // Moving platforms go to this tick's positions first, taking the players standing on them along
+        if (st.movePlatforms(room.tick) > 0) carryRiders(room);
+        // Update bot inputs before integrating physics
+        try { updateBots(room); } catch (Exception ignore) {}
+        // A cell may cause at most one decrement per step (avoids mutual double-decrement)
+        room.stepDecrementCount = 0;
+        // Paint that was not renewed in time fades before anyone paints on this step
+        if (room.decay != null) room.decay.advance(st, room.tick);
+        if (st.hasEntities()) updateEntities(room);
+        for (int pi = 0; pi < st.roster.size(); pi++){
+            Player2D p = st.roster.get(pi);
+            ArenaRoom.InputState in = room.inputs[pi];
+            double ax = 0;
+            if (in.left && !in.right) ax = -ACCEL;
+            else if (in.right && !in.left) ax = ACCEL;
+            if (in.jump && p.onGround){
+                p.vy = JUMP_VY;
+            }
+            in.jump = false; // consume
+            if (in.bomb && room.tick - p.lastBombTick >= BOMB_COOLDOWN_TICKS){
+                p.lastBombTick = room.tick;
+                bomb(room, p);
+                // Worth a checkpoint soon: a bomb moves a lot of paint at once
+                room.checkpointRequested = true;
+            }
+            in.bomb = false;
+            room.accel[pi] = ax;
+        }
+    }
+
+    // Players that stood on a platform after the previous step move with it, so they stay on top
+    private static void carryRiders(ArenaRoom room){
+        ArenaState st = room.state;
+        for (int pi = 0; pi < st.roster.size(); pi++){
+            int g = room.ground[pi];
+            if (g < 0) continue;
+            Player2D p = st.roster.get(pi);
+            p.x = clamp(p.x + st.platformDX(g), 0, st.width - Player2D.WIDTH);
+            p.y = clamp(p.y + st.platformDY(g), 0, st.height - Player2D.HEIGHT);
+        }
+    }
+
+    // Horizontal velocity after one step: accelerate, friction when there is no input, clamp
+    static double integrate(double vx, double ax, double dt, double friction){
+        vx += ax * dt;
+        if (ax == 0){
+            vx *= friction;
+            if (Math.abs(vx) < 10) vx = 0;
+        }
+        if (vx > MAX_SPEED) vx = MAX_SPEED;
+        if (vx < -MAX_SPEED) vx = -MAX_SPEED;
+        return vx;
+    }
+
+    // Vertical velocity after one discrete step (swept moves integrate gravity exactly themselves)
+    static double fall(double vy, double dt){
+        return vy + GRAVITY * dt;
+    }
+
+    void finishStep(ArenaRoom room){
+        // Large rooms move their players region by region in parallel, then paint in slot order
+        if (room.regions != null){
+            room.regions.finish(room);
+            return;
+        }
+        final List<Player2D> plist = room.state.roster;
+        for (int pi = 0; pi < plist.size(); pi++){
+            Player2D p = plist.get(pi);
+            double x0 = p.x;
+            int underIdx = move(room, pi, room.candidates);
+            paintUnder(room, pi, x0, underIdx);
+        }
+    }
+
+    /*
+     * finishStep for one player is move, then paintUnder. move reads and writes nothing but the
+     * player itself (and the given broadphase scratch), and painting never looks at positions, so
+     * all moves can run first, in any order and on any thread, as long as paintUnder then runs
+     * in slot order (see ArenaRegionStep).
+     */
+
+    // Moves and collides a player; returns the platform it stands on afterwards, or -1
+    int move(ArenaRoom room, int pi, int[] cand){
+        ArenaState st = room.state;
+        Player2D p = st.roster.get(pi);
+        int groundIdx = room.swept ? moveSwept(room, p, room.dt, cand) : moveDiscrete(room, p, room.dt, cand);
+        // Determine if the player is standing on a platform top this frame (even without collision)
+        int underIdx = groundIdx >= 0 ? groundIdx : platformUnderFeet(st, p);
+        boolean onFloor = p.y >= st.height - Player2D.HEIGHT - 0.5;
+        p.onGround = (underIdx >= 0) || onFloor;
+        return underIdx;
+    }
+
+    // Paints under a player that moved from x0 onto underIdx, with scoring; updates room.ground
+    void paintUnder(ArenaRoom room, int pi, double x0, int underIdx){
+        Player2D p = room.state.roster.get(pi);
+        int prevGround = room.ground[pi];
+        room.ground[pi] = underIdx;
+        // painting if on ground (paint all cells under player's footprint width)
+        if (p.onGround && underIdx >= 0){
+            double left = p.x, right = p.x + Player2D.WIDTH;
+            // A long step that stayed on the same platform paints everything the feet swept over,
+            // which is what the base-rate steps in between would have painted
+            if (room.swept && prevGround == underIdx){
+                left = Math.min(x0, p.x);
+                right = Math.max(x0, p.x) + Player2D.WIDTH;
+            }
+            paintSpan(room, p, underIdx, left, right, room.tick);
+        }
+    }
+
+    // Overlap test after each axis move: exact at 120 Hz, tunnels through thin platforms at larger steps
+    private int moveDiscrete(ArenaRoom room, Player2D p, double dt, int[] cand){
+        final ArenaState st = room.state;
+        final List<Platform2D> platforms = st.platforms;
+
+        // horizontal move and collide (velocities were integrated before the move, gravity included)
+        double newX = p.x + p.vx * dt;
+        double newY = p.y;
+        // collide sides: candidates come from the broadphase, padded by one player size so a
+        // position adjusted while resolving is still covered; the exact test below decides
+        int n = st.queryPlatforms(newX - Player2D.WIDTH, newY - Player2D.HEIGHT, Player2D.WIDTH * 3, Player2D.HEIGHT * 3, cand);
+        for (int k=0;k<n;k++){
+            int i = cand[k];
+            Platform2D pl = platforms.get(i);
+            if (st.platformIntersects(i, newX, newY, Player2D.WIDTH, Player2D.HEIGHT)){
+                if (p.vx > 0) newX = st.platformX(i) - Player2D.WIDTH; else if (p.vx < 0) newX = st.platformX(i) + pl.width();
+                p.vx = 0;
+            }
+        }
+        p.x = clamp(newX, 0, st.width - Player2D.WIDTH);
+
+        // vertical move and collide
+        newY = p.y + p.vy * dt;
+        int groundIdx = -1;
+        n = st.queryPlatforms(p.x - Player2D.WIDTH, newY - Player2D.HEIGHT, Player2D.WIDTH * 3, Player2D.HEIGHT * 3, cand);
+        for (int k=0;k<n;k++){
+            int i = cand[k];
+            Platform2D pl = platforms.get(i);
+            if (st.platformIntersects(i, p.x, newY, Player2D.WIDTH, Player2D.HEIGHT)){
+                if (p.vy > 0){ // falling onto top
+                    newY = st.platformY(i) - Player2D.HEIGHT;
+                    groundIdx = i;
+                } else if (p.vy < 0){ // hitting bottom
+                    newY = st.platformY(i) + pl.height();
+                }
+                p.vy = 0;
+            }
+        }
+        p.y = clamp(newY, 0, st.height - Player2D.HEIGHT);
+        return groundIdx;
+    }
+
+    /*
+     * Swept AABB: each axis move is tested against the faces it crosses during the step (time of
+     * impact along that axis), so nothing is skipped however long the step is. Vertical motion uses
+     * the exact ballistic update, which keeps jump arcs and landing spots the same at 120, 60 or 30 Hz.
+     */
+    private int moveSwept(ArenaRoom room, Player2D p, double dt, int[] cand){
+        final ArenaState st = room.state;
+        final List<Platform2D> platforms = st.platforms;
+        final double w = Player2D.WIDTH, h = Player2D.HEIGHT;
+
+        // horizontal sweep from x0 to x1 within the current vertical band
+        double x0 = p.x, x1 = x0 + p.vx * dt;
+        if (x1 != x0){
+            double lo = Math.min(x0, x1), hi = Math.max(x0, x1) + w;
+            int n = st.queryPlatforms(lo, p.y, hi - lo, h, cand);
+            boolean hit = false;
+            for (int k=0;k<n;k++){
+                double left = st.platformX(cand[k]), right = left + platforms.get(cand[k]).width();
+                if (p.vx > 0 && left >= x0 + w - EPS && left < x1 + w){ x1 = left - w; hit = true; }
+                else if (p.vx < 0 && right <= x0 + EPS && right > x1){ x1 = right; hit = true; }
+            }
+            if (hit) p.vx = 0;
+        }
+        p.x = clamp(x1, 0, st.width - w);
+
+        // vertical sweep from y0 to y1: earliest top when falling, lowest bottom when rising
+        double y0 = p.y;
+        double y1 = y0 + p.vy * dt + 0.5 * GRAVITY * dt * dt;
+        p.vy += GRAVITY * dt;
+        int groundIdx = -1;
+        if (y1 != y0){
+            double lo = Math.min(y0, y1), hi = Math.max(y0, y1) + h;
+            int n = st.queryPlatforms(p.x, lo, w, hi - lo, cand);
+            for (int k=0;k<n;k++){
+                int i = cand[k];
+                double top = st.platformY(i), bottom = top + platforms.get(i).height();
+                if (y1 > y0){
+                    if (top >= y0 + h - EPS && top < y1 + h){ y1 = top - h; groundIdx = i; p.vy = 0; }
+                } else if (bottom <= y0 + EPS && bottom > y1){
+                    y1 = bottom; p.vy = 0;
+                }
+            }
+        }
+        p.y = clamp(y1, 0, st.height - h);
+        return groundIdx;
+    }
+
+    // Paints the cells of platform idx covered by [left, right) and applies credit/steal scoring
+    private void paintSpan(ArenaRoom room, Player2D p, int idx, double left, double right, long now){
+        ArenaState st = room.state;
+        Platform2D under = st.platforms.get(idx);
+        int base = st.cellOffset(idx);
+        double cellW = under.width() / under.cells();
+        // Cells ride along with their platform: positions are relative to where it is now
+        double leftRel = (left - st.platformX(idx));
+        double rightRel = (right - st.platformX(idx));
+        int cStart = (int)Math.floor(leftRel / cellW);
+        int cEnd = (int)Math.floor(rightRel / cellW);
+        if (cStart < 0) cStart = 0;
+        if (cEnd >= under.cells()) cEnd = under.cells()-1;
+        boolean awarded = false;
+        // At most one decrement per base step (-1 per tick balances the +1 cap); longer steps get
+        // the budget of the base steps they stand for
+        int decrements = room.substeps;
+        boolean canAward = (now - p.lastAwardTick) >= AWARD_INTERVAL_TICKS;
+        // Extra rule: only allow decrement when the painting player is actually moving horizontally
+        // to avoid a stationary player "fighting back" every frame and draining the passer's score.
+        boolean isMovingHorizontally = Math.abs(p.vx) > 1.0;
+        byte newCol = p.paint;
+        for (int ci = cStart; ci <= cEnd; ci++){
+            int cell = base + ci;
+            // Walking over paint renews it, the player's own included
+            if (room.decay != null) room.decay.painted(cell, now);
+            if (st.paintAt(cell) == newCol) continue; // no-op on same color
+            int prevSlot = st.ownerAt(cell);
+            // Award paint score only once per unique cell for this player
+            if (canAward && !awarded && !p.credited.get(cell)){
+                p.score += 1;
+                p.credited.set(cell);
+                p.lastAwardTick = now;
+                awarded = true; // limit to +1 per tick even if footprint spans multiple new cells
+            }
+            // If there was a previous owner (other color), decrement their score and remove their credit
+            if (decrements > 0 && prevSlot >= 0 && isMovingHorizontally && !decrementedThisStep(room, cell)){
+                Player2D prevOwner = st.roster.get(prevSlot);
+                if (prevOwner.score > 0){
+                    prevOwner.score -= 1;
+                    prevOwner.credited.clear(cell);
+                    markDecremented(room, cell); // ensure only one decrement for this cell in this step
+                    decrements--;
+                }
+            }
+            // Finally, paint the cell (updates owner and coverage counters)
+            st.paintCell(cell, p);
+            // don't break; paint entire footprint so the stripe isn't too thin
+        }
+    }
+
+    private static boolean decrementedThisStep(ArenaRoom room, int cell){
+        int[] cells = room.scratch.stepDecrements;
+        for (int i = 0; i < room.stepDecrementCount; i++) if (cells[i] == cell) return true;
+        return false;
+    }
+
+    private static void markDecremented(ArenaRoom room, int cell){
+        RoomScratch s = room.scratch;
+        if (room.stepDecrementCount == s.stepDecrements.length) s.stepDecrements = Arrays.copyOf(s.stepDecrements, 2 * s.stepDecrements.length);
+        s.stepDecrements[room.stepDecrementCount++] = cell;
+    }
+
+    /*
+     * Paint bomb: every cell whose center lies within BOMB_RADIUS of the player's center. On each
+     * platform that is one contiguous span, painted as a single range (ArenaState.paintRange), and
+     * scored from the per-owner counts it reports: +1 per cell the bomber takes over, -1 (down to 0)
+     * for each cell another player loses, credits moved in bulk. No per-cell bookkeeping.
+     */
+    void bomb(ArenaRoom room, Player2D p){
+        ArenaState st = room.state;
+        double cx = p.x + Player2D.WIDTH * 0.5, cy = p.y + Player2D.HEIGHT * 0.5;
+        int n = st.queryPlatforms(cx - BOMB_RADIUS, cy - BOMB_RADIUS, 2 * BOMB_RADIUS, 2 * BOMB_RADIUS, room.candidates);
+        for (int k = 0; k < n; k++){
+            int i = room.candidates[k];
+            Platform2D pl = st.platforms.get(i);
+            double dy = st.platformY(i) - cy;
+            if (Math.abs(dy) > BOMB_RADIUS) continue;
+            double half = Math.sqrt(BOMB_RADIUS * BOMB_RADIUS - dy * dy);
+            double cellW = pl.width() / pl.cells();
+            // Cells whose centers fall within [cx - half, cx + half]
+            int c0 = (int) Math.ceil((cx - half - st.platformX(i)) / cellW - 0.5);
+            int c1 = (int) Math.floor((cx + half - st.platformX(i)) / cellW - 0.5);
+            if (c0 < 0) c0 = 0;
+            if (c1 >= pl.cells()) c1 = pl.cells() - 1;
+            if (c0 > c1) continue;
+            paintArea(room, p, st.cellOffset(i) + c0, st.cellOffset(i) + c1 + 1);
+        }
+    }
+
+    // Paints global cells [from, to) for p in one range, scored from the previous owners' counts
+    private void paintArea(ArenaRoom room, Player2D p, int from, int to){
+        ArenaState st = room.state;
+        int[] before = room.repainted;
+        int taken = st.paintRange(from, to, p, before);
+        if (room.decay != null) room.decay.painted(from, to, room.tick);
+        if (taken == 0) return;
+        p.score += taken;
+        p.credited.set(from, to);
+        for (int v = 1; v <= ArenaState.MAX_PLAYERS; v++){
+            if (v == p.paint || before[v] == 0) continue;
+            Player2D owner = st.roster.get(v - 1);
+            owner.score = Math.max(0, owner.score - before[v]);
+            owner.credited.clear(from, to);
+        }
+    }
+
+    /*
+     * Entities: one dense walk over the store per step, from the last index down so removals (which
+     * move the last entity into the hole) never skip one. Everything disappears on its expiry tick.
+     * A projectile falls like a player and splats its owner's paint where it lands on a platform top,
+     * scored like a bomb; one that hits anything else or leaves the map is gone. A pickup a player
+     * touches recharges that player's bomb; a hazard drifts with its velocity and knocks players back.
+     */
+    private void updateEntities(ArenaRoom room){
+        ArenaEntities e = room.state.entities();
+        for (int i = e.size() - 1; i >= 0; i--){
+            if (room.tick >= e.expiresAt[i]){
+                e.removeAt(i);
+                continue;
+            }
+            boolean gone = switch (e.kind[i]){
+                case ArenaEntities.PROJECTILE -> projectile(room, e, i);
+                case ArenaEntities.PICKUP -> pickup(room, e, i);
+                case ArenaEntities.HAZARD -> hazard(room, e, i);
+                default -> false;
+            };
+            if (gone) e.removeAt(i);
+        }
+    }
+
+    // Moves projectile i over one step; true when it landed or left the map
+    private boolean projectile(ArenaRoom room, ArenaEntities e, int i){
+        ArenaState st = room.state;
+        double dt = room.dt;
+        double x0 = e.x[i], y0 = e.y[i];
+        double x1 = x0 + e.vx[i] * dt, y1 = y0 + e.vy[i] * dt + 0.5 * GRAVITY * dt * dt;
+        e.vy[i] += GRAVITY * dt;
+        e.x[i] = x1;
+        e.y[i] = y1;
+        if (x1 < 0 || x1 >= st.width || y1 >= st.height) return true;
+        int n = st.queryPlatforms(Math.min(x0, x1), Math.min(y0, y1), Math.abs(x1 - x0), Math.abs(y1 - y0), room.candidates);
+        int hit = -1;
+        double hitTop = Double.POSITIVE_INFINITY, hitX = x1;
+        for (int k = 0; k < n; k++){
+            int pi = room.candidates[k];
+            double top = st.platformY(pi), left = st.platformX(pi), right = left + st.platforms.get(pi).width();
+            // Crossed the top while falling: where along the step, and is that over the platform
+            if (y1 > y0 && top >= y0 && top <= y1 && top < hitTop){
+                double at = x0 + (x1 - x0) * (top - y0) / (y1 - y0);
+                if (at >= left && at < right){ hit = pi; hitTop = top; hitX = at; }
+            }
+        }
+        if (hit < 0){
+            // Anything else it ends up inside (a side, a bottom) just stops it
+            for (int k = 0; k < n; k++) if (st.platformIntersects(room.candidates[k], x1, y1, 0, 0)) return true;
+            return false;
+        }
+        int slot = e.owner[i];
+        if (slot >= 0 && slot < st.roster.size()){
+            Platform2D pl = st.platforms.get(hit);
+            double cellW = pl.width() / pl.cells();
+            int c = Math.min(pl.cells() - 1, (int) ((hitX - st.platformX(hit)) / cellW));
+            int from = Math.max(0, c - SPLAT_CELLS), to = Math.min(pl.cells(), c + SPLAT_CELLS + 1);
+            paintArea(room, st.roster.get(slot), st.cellOffset(hit) + from, st.cellOffset(hit) + to);
+        }
+        return true;
+    }
+
+    // True when a player picked up pickup i
+    private boolean pickup(ArenaRoom room, ArenaEntities e, int i){
+        int pi = touching(room.state, e.x[i], e.y[i]);
+        if (pi < 0) return false;
+        room.state.roster.get(pi).lastBombTick = room.tick - BOMB_COOLDOWN_TICKS;
+        return true;
+    }
+
+    // Drifts hazard i and knocks back whoever it touches; hazards only leave by expiring
+    private boolean hazard(ArenaRoom room, ArenaEntities e, int i){
+        e.x[i] += e.vx[i] * room.dt;
+        e.y[i] += e.vy[i] * room.dt;
+        int pi = touching(room.state, e.x[i], e.y[i]);
+        if (pi >= 0){
+            Player2D p = room.state.roster.get(pi);
+            p.vx = -p.vx;
+            p.vy = JUMP_VY * 0.5;
+        }
+        return false;
+    }
+
+    // Lowest slot of a player overlapping the ENTITY_SIZE square centered on (x, y), or -1
+    private static int touching(ArenaState st, double x, double y){
+        double half = ENTITY_SIZE * 0.5;
+        for (int pi = 0; pi < st.roster.size(); pi++){
+            Player2D p = st.roster.get(pi);
+            if (p.x < x + half && p.x + Player2D.WIDTH > x - half && p.y < y + half && p.y + Player2D.HEIGHT > y - half) return pi;
+        }
+        return -1;
+    }
+
+    // Top-touch heuristic: platform whose top is within 3px of the player's feet, or -1
+    private static int platformUnderFeet(ArenaState st, Player2D p){
+        return st.platformUnder(p.x, p.y + Player2D.HEIGHT, Player2D.WIDTH, 3.0);
+    }
+
+    private void updateBots(ArenaRoom room){
+        final ArenaState st = room.state;
+        final long now = room.tick;
+        for (int pi = 0; pi < st.roster.size(); pi++){
+            if (!room.bot[pi]) continue;
+            Player2D p = st.roster.get(pi);
+            ArenaRoom.InputState in = room.inputs[pi];
+
+            // Determine platform underfoot (top-touch heuristic)
+            int underIndex = platformUnderFeet(st, p);
+            Platform2D under = underIndex >= 0 ? st.platforms.get(underIndex) : null;
+
+            // Find the nearest unpainted cell to pursue
+            ArenaRoom.BotTarget target = nearestUnpainted(room, p);
+
+            int dir = room.botDir[pi];
+            long nextDec = room.botNextDecisionTick[pi];
+
+            if (target != null){
+                // Move horizontally towards target cell center
+                double centerX = p.x + Player2D.WIDTH * 0.5;
+                double dx = target.x - centerX;
+                if (Math.abs(dx) > 2){
+                    dir = dx < 0 ? -1 : 1;
+                } else {
+                    dir = 0; // already aligned horizontally
+                }
+
+                // Decide when to jump:
+                // 1) If target platform is above our feet and we're roughly aligned, hop up
+                boolean targetIsAbove = target.y < (p.y + Player2D.HEIGHT - 6);
+                boolean roughlyAligned = Math.abs(dx) < 30;
+                if (p.onGround && targetIsAbove && roughlyAligned){
+                    in.jump = true;
+                }
+
+                // 2) If target is beyond the edge of current platform, try a gap jump when near edge
+                if (under != null){
+                    double leftEdge = st.platformX(underIndex);
+                    double rightEdge = leftEdge + under.width() - Player2D.WIDTH;
+                    boolean targetOutside = (target.x < leftEdge) || (target.x > rightEdge + Player2D.WIDTH);
+                    boolean nearLeft = p.x <= leftEdge + 10;
+                    boolean nearRight = p.x >= rightEdge - 10;
+                    if (p.onGround && targetOutside && (nearLeft || nearRight)){
+                        in.jump = true;
+                    }
+                }
+
+                // Small randomness so it doesn't look like a perfect robot
+                if (now >= nextDec){
+                    room.botNextDecisionTick[pi] = now + ticks(800) + (long)(room.random.nextDouble()*ticks(600));
+                    if (room.random.nextDouble() < 0.12) dir = -dir; // occasional hesitation/flip
+                }
+            } else {
+                // No unpainted cells left: roam casually (fallback behavior)
+                if (under != null){
+                    double leftEdge = st.platformX(underIndex);
+                    double rightEdge = leftEdge + under.width() - Player2D.WIDTH;
+                    if (p.x <= leftEdge + 8) dir = 1;
+                    else if (p.x >= rightEdge - 8) dir = -1;
+                }
+                if (now >= nextDec){
+                    room.botNextDecisionTick[pi] = now + ticks(700) + (long)(room.random.nextDouble()*ticks(500));
+                    double r = room.random.nextDouble();
+                    if (r < 0.20) dir = -dir;
+                    if (p.onGround && r > 0.70) in.jump = true;
+                }
+            }
+
+            room.botDir[pi] = dir;
+            in.left = dir < 0; in.right = dir > 0;
+        }
+    }
+
+    // Heuristic: the closest unpainted cell across all platforms, from the state's unpainted-cell index.
+    // Fills the room's reusable target with world coordinates at the center of that cell, or returns null.
+    private static ArenaRoom.BotTarget nearestUnpainted(ArenaRoom room, Player2D p){
+        ArenaState st = room.state;
+        // Feet as reference
+        int cell = st.nearestUnpainted(p.x + Player2D.WIDTH * 0.5, p.y + Player2D.HEIGHT);
+        if (cell < 0) return null;
+        int i = st.platformOfCell(cell);
+        Platform2D pl = st.platforms.get(i);
+        double cellW = pl.width() / pl.cells();
+        ArenaRoom.BotTarget t = room.botTarget;
+        t.platformIndex = i;
+        t.cellIndex = cell - st.cellOffset(i);
+        t.x = st.platformX(i) + t.cellIndex * cellW + cellW * 0.5;
+        t.y = st.platformY(i); // top of platform
+        return t;
+    }
+
+    // Whole engine ticks covering the given duration
+    static long ticks(long ms){
+        return Math.round(ms * 1_000_000.0 / ArenaTickEngine.TICK_NANOS);
+    }
+
+    private static double clamp(double v, double lo, double hi){
+        return Math.max(lo, Math.min(hi, v));
+    }
+}
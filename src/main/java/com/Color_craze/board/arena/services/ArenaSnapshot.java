@@ -0,0 +1,108 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.Color_craze.board.arena.dtos.ArenaFrame;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Player2D;
+
+/**
+ * Immutable view of a room taken by its owning shard right after a tick. Broadcasters and
+ * the game service read these instead of the live ArenaState, so they never see a half
+ * applied tick or iterate a map the tick is writing.
+ * <p>
+ * Everything is indexed by the players' roster slot (Player2D.index), which is also how frames
+ * name players: playerIds maps a slot back to its id. Poses, scores and territory are copies.
+ * The paint is one of the room's two alternating chunked buffers (see SnapshotPaint) and belongs
+ * to whoever claimed the snapshot (ArenaRoom.claim); it goes back to the room through
+ * ArenaRoom.recycle once the frame is serialized.
+ */
+public final class ArenaSnapshot {
+    public final long tick;
+    // Player id per roster slot; the room's own list, never changes during a match
+    public final List<String> playerIds;
+    public final List<ArenaFrame.PlayerPose> players;
+    // Per roster slot: score and share of all cells (0-100)
+    final int[] scores;
+    final double[] territory;
+    // Copy of the paint at this tick with every chunk's version, or null on pose-only snapshots
+    final SnapshotPaint paint;
+
+    private ArenaSnapshot(long tick, List<String> playerIds, List<ArenaFrame.PlayerPose> players, int[] scores,
+                          double[] territory, SnapshotPaint paint){
+        this.tick = tick;
+        this.playerIds = playerIds;
+        this.players = players;
+        this.scores = scores;
+        this.territory = territory;
+        this.paint = paint;
+    }
+
+    static ArenaSnapshot of(ArenaRoom room, SnapshotPaint paint){
+        ArenaState st = room.state;
+        int n = st.roster.size();
+        List<ArenaFrame.PlayerPose> poses = new ArrayList<>(n);
+        int[] scores = new int[n];
+        double[] territory = new double[n];
+        for (int i = 0; i < n; i++){
+            Player2D p = st.roster.get(i);
+            poses.add(new ArenaFrame.PlayerPose(i, round1(p.x), round1(p.y), p.onGround));
+            scores[i] = p.score;
+            territory[i] = round1(st.territoryPercent(p));
+        }
+        return new ArenaSnapshot(room.tick, room.playerIds, Collections.unmodifiableList(poses), scores, territory, paint);
+    }
+
+    // One decimal is below a pixel and keeps the JSON short
+    private static double round1(double v){
+        return Math.round(v * 10) / 10.0;
+    }
+
+    public boolean hasPaint(){
+        return paint != null;
+    }
+
+    /** Score of a player of this room, or null when the id is not part of it. */
+    public Integer score(String playerId){
+        int i = playerIds.indexOf(playerId);
+        return i >= 0 ? scores[i] : null;
+    }
+
+    /** Territory share (0-100) of a player of this room, or 0 when the id is not part of it. */
+    public double territory(String playerId){
+        int i = playerIds.indexOf(playerId);
+        return i >= 0 ? territory[i] : 0;
+    }
+
+    // Scores and territory only change when paint does, so frames carry them with paint only
+    ArenaFrame toFrame(String code){
+        return new ArenaFrame(code, tick, players, paint != null ? paint.flat() : null, paint != null ? scores : null, paint != null ? territory : null, null);
+    }
+
+    /**
+     * Frame for one viewer: players within its viewport plus margin, and the paint chunks in that
+     * area whose version differs from what the viewer was last sent (sent is updated in place).
+     * Pose-only snapshots carry no chunks; changes go out with the next paint snapshot.
+     */
+    ArenaFrame toViewerFrame(String code, ArenaViewer viewer, ArenaState state, double margin){
+        double x = viewer.x - margin, y = viewer.y - margin;
+        double w = viewer.width + 2 * margin, h = viewer.height + 2 * margin;
+        List<ArenaFrame.PlayerPose> visible = new ArrayList<>(players.size());
+        for (ArenaFrame.PlayerPose p : players){
+            if (p.x() + Player2D.WIDTH > x && p.x() < x + w && p.y() + Player2D.HEIGHT > y && p.y() < y + h) visible.add(p);
+        }
+        List<ArenaFrame.PaintChunk> chunks = new ArrayList<>();
+        if (paint != null){
+            int[] versions = paint.versions;
+            int[] sent = viewer.sent(versions.length);
+            for (int k = 0; k < versions.length; k++){
+                if (sent[k] == versions[k] || !state.chunkIntersects(k, x, y, w, h)) continue;
+                chunks.add(new ArenaFrame.PaintChunk(k, paint.chunkCopy(k)));
+                sent[k] = versions[k];
+            }
+        }
+        return new ArenaFrame(code, tick, visible, null, paint != null ? scores : null, paint != null ? territory : null, chunks);
+    }
+}
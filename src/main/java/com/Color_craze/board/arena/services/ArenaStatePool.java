@@ -0,0 +1,48 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+import com.Color_craze.board.arena.models.ArenaState;
+
+/**
+ * Ready-to-use arena states for one map. Building a map (platform list, paint and owner
+ * arrays, broadphase, player slots) happens once per pooled instance; a finished room hands
+ * its state back, it is reset in place and the next room starts from it without rebuilding
+ * anything. The free list is a bounded array queue, so handing states in and out does not
+ * allocate either; states beyond the capacity are left to the GC.
+ */
+public class ArenaStatePool {
+    private final Supplier<ArenaState> factory;
+    private final ArrayBlockingQueue<ArenaState> free;
+
+    public ArenaStatePool(Supplier<ArenaState> factory, int capacity){
+        this.factory = factory;
+        this.free = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    /** Builds states up front so the first rooms after startup are as cheap as later ones. */
+    public void prewarm(int count){
+        for (int i = 0; i < count && free.remainingCapacity() > 0; i++) free.offer(factory.get());
+    }
+
+    /** A reset state with no players, built on the spot when the pool is empty. */
+    public ArenaState acquire(){
+        ArenaState st = free.poll();
+        return st != null ? st : factory.get();
+    }
+
+    /**
+     * Takes a state back once no thread touches it anymore: the room is detached from its shard and
+     * no broadcast reads it (see ArenaService), and input lookups go through the room, not the state.
+     */
+    public void release(ArenaState st){
+        if (st == null) return;
+        st.reset();
+        free.offer(st);
+    }
+
+    public int available(){
+        return free.size();
+    }
+}
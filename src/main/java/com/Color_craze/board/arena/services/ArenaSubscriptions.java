@@ -0,0 +1,86 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+/**
+ * Counts STOMP subscriptions to each room's arena topic, so the tick can skip building and
+ * sending frames nobody receives. Rooms hold their counter directly (see ArenaRoom.watched),
+ * which keeps the per-tick check to a single volatile read. A room's count covers its shared
+ * topic and every viewer topic under it (/topic/board/{code}/arena/{viewerId}); each of those
+ * destinations is also counted on its own so the broadcaster can skip topics nobody listens to.
+ */
+@Component
+public class ArenaSubscriptions {
+    private static final Pattern ARENA_TOPIC = Pattern.compile("^/topic/board/([^/]+)/arena(?:/[^/]+)?$");
+
+    private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+    // Per destination (shared or viewer topic)
+    private final Map<String, AtomicInteger> destinations = new ConcurrentHashMap<>();
+    // sessionId -> subscriptionId -> destination, to undo subscriptions on unsubscribe/disconnect
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+
+    /** Live subscriber counter for a room code; created on first use. */
+    public AtomicInteger counter(String code){
+        return counts.computeIfAbsent(code, k -> new AtomicInteger());
+    }
+
+    /** Current subscriptions to one exact arena destination. */
+    public int subscribers(String destination){
+        AtomicInteger c = destinations.get(destination);
+        return c != null ? c.get() : 0;
+    }
+
+    /** Forgets the counters of a finished room unless somebody is still subscribed. */
+    public void release(String code){
+        AtomicInteger c = counts.get(code);
+        if (c != null && c.get() <= 0) counts.remove(code, c);
+        String prefix = "/topic/board/" + code + "/arena";
+        destinations.entrySet().removeIf(e -> e.getValue().get() <= 0
+            && (e.getKey().equals(prefix) || e.getKey().startsWith(prefix + "/")));
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event){
+        StompHeaderAccessor h = StompHeaderAccessor.wrap(event.getMessage());
+        if (h.getDestination() == null || h.getSessionId() == null || h.getSubscriptionId() == null) return;
+        String destination = h.getDestination();
+        if (!ARENA_TOPIC.matcher(destination).matches()) return;
+        String prev = sessions.computeIfAbsent(h.getSessionId(), k -> new ConcurrentHashMap<>()).put(h.getSubscriptionId(), destination);
+        if (prev != null) count(prev, -1);
+        count(destination, 1);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event){
+        StompHeaderAccessor h = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subs = h.getSessionId() != null ? sessions.get(h.getSessionId()) : null;
+        if (subs == null || h.getSubscriptionId() == null) return;
+        String destination = subs.remove(h.getSubscriptionId());
+        if (destination != null) count(destination, -1);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event){
+        Map<String, String> subs = sessions.remove(event.getSessionId());
+        if (subs == null) return;
+        for (String destination : subs.values()) count(destination, -1);
+    }
+
+    private void count(String destination, int delta){
+        Matcher m = ARENA_TOPIC.matcher(destination);
+        if (!m.matches()) return;
+        counter(m.group(1)).addAndGet(delta);
+        destinations.computeIfAbsent(destination, k -> new AtomicInteger()).addAndGet(delta);
+    }
+}
@@ -0,0 +1,385 @@
+package com.Color_craze.board.arena.services;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sharded simulation loop for arena rooms.
+ * One daemon thread per shard (defaults to one per core) steps every room it owns
+ * back to back at 120 Hz and publishes frames on tick-aligned phases, so the number
+ * of rooms no longer turns into a number of timer entries. Rooms are pinned to the
+ * least loaded shard and handed over through that shard's own queue; adding or
+ * removing a room never touches the other shards.
+ * <p>
+ * Each shard runs a fixed-step accumulator against an {@link ArenaClock}: elapsed time is
+ * turned into whole ticks, at most maxCatchUp of them per wake-up, and any backlog beyond
+ * that is dropped rather than burst through. Simulation time is the room's tick number, never
+ * the wall clock, so the same inputs give the same game at any speed (see {@link #advance}).
+ * <p>
+ * Every tick a shard runs is reported to the {@link ArenaMetrics} set with {@link #setMetrics}:
+ * how late it started, how long it took and how much work it did.
+ */
+@Component
+public class ArenaTickEngine {
+    private static final Logger log = LoggerFactory.getLogger(ArenaTickEngine.class);
+
+    public static final long TICK_NANOS = 8_000_000L;   // ~120 Hz physics
+    public static final int POSE_EVERY_TICKS = 3;        // ~24 ms => positions/scores ~40 Hz
+    public static final int PAINT_EVERY_TICKS = 19;      // ~152 ms => full frame with paint
+    public static final int DEFAULT_MAX_CATCH_UP = 4;    // ticks run back to back after a late wake-up
+
+    /** Callbacks a shard invokes for each of its rooms. */
+    public interface Simulation {
+        void step(ArenaRoom room);
+        void publish(ArenaRoom room, boolean includePaint);
+        /** Called on the shard thread once a removed room is dropped; nothing steps it afterwards. */
+        default void detached(ArenaRoom room) {}
+        /** Steps rooms[from..to) that are all due on the same tick; batching kernels override this. */
+        default void stepAll(ArenaRoom[] rooms, int from, int to){
+            for (int i = from; i < to; i++){
+                try {
+                    step(rooms[i]);
+                } catch (Exception ex){
+                    log.warn("Arena tick failed for room {}: {}", rooms[i].code, ex.toString());
+                }
+            }
+        }
+    }
+
+    private final Shard[] shards;
+    private volatile ArenaMetrics metrics = ArenaMetrics.NOOP;
+
+    @Autowired
+    public ArenaTickEngine(@Value("${arena.engine.shards:0}") int shards,
+                           @Value("${arena.engine.max-catch-up:4}") int maxCatchUp){
+        this(shards, maxCatchUp, ArenaClock.SYSTEM);
+    }
+
+    public ArenaTickEngine(int shards, int maxCatchUp, ArenaClock clock){
+        int n = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[Math.max(1, n)];
+        for (int i = 0; i < this.shards.length; i++) this.shards[i] = new Shard(i, Math.max(1, maxCatchUp), clock);
+    }
+
+    /**
+     * Runs one engine tick for a room: advances its tick number, steps it when a step is due
+     * and publishes on the broadcast cadence; hibernating rooms only count the tick. Shards call this for every room on every tick;
+     * tests and benchmarks call it in a plain loop to run a room faster than real time.
+     */
+    public static void advance(ArenaRoom room, Simulation sim){
+        if (beginTick(room)){
+            sim.step(room);
+            room.steps++;
+        }
+        publishDue(room, sim);
+    }
+
+    /**
+     * Runs one engine tick for rooms sharing a simulation the way a shard does: the rooms due for a
+     * step go to stepAll as one batch, then every room publishes on its cadence. scratch must hold
+     * rooms.length entries. For warm-up and benchmarks that need the batched path faster than real time.
+     */
+    public static void advanceAll(ArenaRoom[] rooms, Simulation sim, ArenaRoom[] scratch){
+        int n = 0;
+        for (ArenaRoom room : rooms) if (beginTick(room)) scratch[n++] = room;
+        if (n > 0) sim.stepAll(scratch, 0, n);
+        for (int i = 0; i < n; i++) scratch[i].steps++;
+        Arrays.fill(scratch, 0, n, null);
+        for (ArenaRoom room : rooms) publishDue(room, sim);
+    }
+
+    // Advances the room's tick number; true when the room takes a step on this tick
+    private static boolean beginTick(ArenaRoom room){
+        ++room.tick;
+        // Nobody plays or watches: the room costs one check per tick until input or a subscriber arrives
+        if (room.updateActivity() == ArenaRoom.Activity.HIBERNATING) return false;
+        return (room.tick + room.phase) % room.substeps == 0;
+    }
+
+    // Broadcast cadence follows ticks, whatever the room's step rate
+    private static void publishDue(ArenaRoom room, Simulation sim){
+        if (room.activity() == ArenaRoom.Activity.HIBERNATING) return;
+        long phase = room.tick + room.phase;
+        if (phase % PAINT_EVERY_TICKS == 0) sim.publish(room, true);
+        else if (phase % POSE_EVERY_TICKS == 0) sim.publish(room, false);
+    }
+
+    public int shardCount(){
+        return shards.length;
+    }
+
+    public int roomCount(int shard){
+        return shards[shard].size.get();
+    }
+
+    /** Ticks skipped because a shard fell more than maxCatchUp ticks behind. */
+    public long droppedTicks(){
+        long n = 0;
+        for (Shard s : shards) n += s.dropped;
+        return n;
+    }
+
+    public long droppedTicks(int shard){
+        return shards[shard].dropped;
+    }
+
+    /**
+     * Thread CPU time per nanosecond of wall time the shard spent running ticks (1.0 when the
+     * JVM cannot measure thread CPU time). Scales a room's share of tick wall time into CPU time.
+     */
+    public double cpuPerBusyNano(int shard){
+        Shard s = shards[shard];
+        long busy = s.busyNanos, cpu = s.cpuNanos;
+        return busy <= 0 || cpu < 0 ? 1.0 : (double) cpu / busy;
+    }
+
+    /** Routes tick measurements of every shard (and the rooms' broadcasts) to the given sink. */
+    public void setMetrics(ArenaMetrics metrics){
+        this.metrics = metrics != null ? metrics : ArenaMetrics.NOOP;
+        for (Shard s : shards) s.metrics = this.metrics;
+    }
+
+    public ArenaMetrics metrics(){
+        return metrics;
+    }
+
+    /** Pins the room to the least loaded shard and schedules it from the next tick on. */
+    public void add(ArenaRoom room, Simulation sim){
+        Shard target = shards[0];
+        for (Shard s : shards) if (s.size.get() < target.size.get()) target = s;
+        room.shard = target.index;
+        room.phase = target.nextPhase++ % PAINT_EVERY_TICKS;
+        target.size.incrementAndGet();
+        target.submit(new Command(room, sim));
+    }
+
+    /** Detaches the room from its shard; it is skipped immediately and dropped on the shard's next pass. */
+    public void remove(ArenaRoom room){
+        if (room == null || room.closed) return;
+        room.closed = true;
+        if (room.shard >= 0) shards[room.shard].submit(new Command(room, null));
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        for (Shard s : shards) s.stop();
+    }
+
+    private record Command(ArenaRoom room, Simulation sim) {}
+
+    private static final class Slot {
+        final ArenaRoom room;
+        final Simulation sim;
+        Slot(ArenaRoom room, Simulation sim){ this.room = room; this.sim = sim; }
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final class Shard implements Runnable {
+        final int index;
+        final int maxCatchUp;
+        final ArenaClock clock;
+        final AtomicInteger size = new AtomicInteger();
+        final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+        // Only touched by the shard thread
+        final List<Slot> slots = new ArrayList<>();
+        int nextPhase;
+        // Rooms due for a step on the current tick, and their simulations (scratch, reused)
+        ArenaRoom[] due = new ArenaRoom[16];
+        Simulation[] dueSims = new Simulation[16];
+        volatile long dropped;
+        volatile boolean running = true;
+        volatile ArenaMetrics metrics = ArenaMetrics.NOOP;
+        // Wall and thread CPU time spent in ticks; cpuNanos stays -1 without thread CPU timing
+        volatile long busyNanos;
+        volatile long cpuNanos = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled() ? 0 : -1;
+        // Work done by the current tick: players in the rooms stepped and cells they changed
+        int tickPlayers, tickCellsChanged;
+        private Thread thread;
+
+        Shard(int index, int maxCatchUp, ArenaClock clock){
+            this.index = index;
+            this.maxCatchUp = maxCatchUp;
+            this.clock = clock;
+        }
+
+        void submit(Command c){
+            commands.add(c);
+            ensureStarted();
+            LockSupport.unpark(thread);
+        }
+
+        private synchronized void ensureStarted(){
+            if (thread != null) return;
+            thread = new Thread(this, "arena-shard-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        synchronized void stop(){
+            running = false;
+            if (thread != null) LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run(){
+            long last = clock.nanoTime();
+            // Elapsed time not yet turned into ticks
+            long lag = 0;
+            while (running){
+                drainCommands();
+                if (slots.isEmpty()){
+                    // Nothing to simulate: sleep until a room is handed over
+                    LockSupport.park(this);
+                    last = clock.nanoTime();
+                    lag = 0;
+                    continue;
+                }
+                long now = clock.nanoTime();
+                lag += now - last;
+                last = now;
+                if (lag < TICK_NANOS){
+                    LockSupport.parkNanos(this, TICK_NANOS - lag);
+                    continue;
+                }
+                long cpu = cpuNanos >= 0 ? THREADS.getCurrentThreadCpuTime() : -1;
+                long busyFrom = clock.nanoTime();
+                for (int n = 0; n < maxCatchUp && lag >= TICK_NANOS; n++){
+                    long start = clock.nanoTime();
+                    // The tick became due when the accumulator crossed TICK_NANOS, i.e. lag - TICK_NANOS
+                    // before `now`; catch-up ticks were due earlier still and show a larger lag
+                    long late = start - now + lag - TICK_NANOS;
+                    runTick();
+                    report(late, clock.nanoTime() - start);
+                    lag -= TICK_NANOS;
+                }
+                busyNanos += clock.nanoTime() - busyFrom;
+                if (cpu >= 0) cpuNanos += THREADS.getCurrentThreadCpuTime() - cpu;
+                // Still behind after the cap (GC pause, overload): drop the backlog instead of
+                // bursting; rooms resume from their next tick number, so game time stretches
+                if (lag >= TICK_NANOS){
+                    dropped += lag / TICK_NANOS;
+                    lag %= TICK_NANOS;
+                }
+            }
+        }
+
+        private void report(long lateNanos, long wallNanos){
+            try {
+                metrics.tick(index, lateNanos, wallNanos, tickPlayers, tickCellsChanged);
+            } catch (Exception ex){
+                log.warn("Arena tick metrics failed: {}", ex.toString());
+            }
+        }
+
+        // One tick for every room: rooms due for a step are handed to their simulation as one
+        // batch, then every room publishes on its cadence
+        private void runTick(){
+            tickPlayers = 0;
+            tickCellsChanged = 0;
+            int n = 0;
+            for (int i = 0; i < slots.size(); i++){
+                Slot s = slots.get(i);
+                if (s.room.closed) continue;
+                if (beginTick(s.room)){
+                    if (n == due.length){
+                        due = Arrays.copyOf(due, n * 2);
+                        dueSims = Arrays.copyOf(dueSims, n * 2);
+                    }
+                    due[n] = s.room;
+                    dueSims[n++] = s.sim;
+                }
+            }
+            // Consecutive rooms with the same simulation (in practice all of them) share a batch
+            for (int i = 0; i < n; ){
+                int j = i + 1;
+                while (j < n && dueSims[j] == dueSims[i]) j++;
+                long from = clock.nanoTime();
+                try {
+                    dueSims[i].stepAll(due, i, j);
+                } catch (Exception ex){
+                    log.warn("Arena batch step failed: {}", ex.toString());
+                }
+                long took = clock.nanoTime() - from;
+                int batchPlayers = 0;
+                for (int k = i; k < j; k++){
+                    due[k].steps++;
+                    batchPlayers += due[k].state.roster.size();
+                    tickCellsChanged += due[k].takeCellsChanged();
+                }
+                // A batch is timed as a whole; each room's share follows its player count
+                for (int k = i; k < j; k++){
+                    int weight = due[k].state.roster.size();
+                    due[k].stepShareNanos = batchPlayers > 0 ? took * weight / batchPlayers : took / (j - i);
+                }
+                tickPlayers += batchPlayers;
+                i = j;
+            }
+            Arrays.fill(due, 0, n, null);
+            Arrays.fill(dueSims, 0, n, null);
+            long mark = clock.nanoTime();
+            for (int i = 0; i < slots.size(); i++){
+                Slot s = slots.get(i);
+                if (s.room.closed) continue;
+                try {
+                    publishDue(s.room, s.sim);
+                } catch (Exception ex){
+                    log.warn("Arena tick failed for room {}: {}", s.room.code, ex.toString());
+                }
+                // One clock read per room: the end of this room's publish starts the next one's
+                long now = clock.nanoTime();
+                if (s.room.activity() != ArenaRoom.Activity.HIBERNATING) s.room.recordTick(s.room.stepShareNanos + now - mark);
+                s.room.stepShareNanos = 0;
+                mark = now;
+            }
+        }
+
+        private void drainCommands(){
+            Command c;
+            while ((c = commands.poll()) != null){
+                if (c.sim() != null){
+                    if (!c.room().closed) slots.add(new Slot(c.room(), c.sim()));
+                    else {
+                        size.decrementAndGet();
+                        detach(c.room(), c.sim());
+                    }
+                } else {
+                    for (int i = 0; i < slots.size(); i++){
+                        Slot s = slots.get(i);
+                        if (s.room == c.room()){
+                            // swap-remove: order inside a shard carries no meaning
+                            int last = slots.size() - 1;
+                            slots.set(i, slots.get(last));
+                            slots.remove(last);
+                            size.decrementAndGet();
+                            detach(s.room, s.sim);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        private void detach(ArenaRoom room, Simulation sim){
+            try {
+                sim.detached(room);
+            } catch (Exception ex){
+                log.warn("Arena detach failed for room {}: {}", room.code, ex.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.Color_craze.board.arena.models.Player2D;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Batched velocity update for all rooms a shard steps on one tick (arena.physics.vector).
+ * A room has only a handful of players, too few for SIMD, so the players of every due room
+ * are laid out structure-of-arrays (vx, vy, acceleration, step length, friction, gravity lane
+ * mask) and integrated together with the incubating Vector API; collision and painting then
+ * run per room as usual. Each lane performs the same operations in the same order as
+ * ArenaSimulation.integrate/fall, so results are bit-for-bit those of the scalar path.
+ * A room that throws in its begin or finish step is logged and left out of the rest of the
+ * batch, as the scalar stepAll would; the other rooms step normally.
+ * <p>
+ * Needs the jdk.incubator.vector module at runtime (--add-modules jdk.incubator.vector);
+ * ArenaService only loads this class when the module is present.
+ */
+public class ArenaVectorKernel {
+    private static final Logger log = LoggerFactory.getLogger(ArenaVectorKernel.class);
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final ArenaSimulation physics;
+    // Lane buffers per shard thread; they only grow, so steady-state batches do not allocate
+    private final ThreadLocal<Lanes> lanes = ThreadLocal.withInitial(Lanes::new);
+
+    private static final class Lanes {
+        double[] vx = new double[64], vy = new double[64], ax = new double[64];
+        double[] dt = new double[64], friction = new double[64], gravity = new double[64];
+        // Per room of the batch: its begin step succeeded, so it takes part in the lanes and finishes
+        boolean[] stepping = new boolean[16];
+
+        void ensure(int n){
+            if (n <= vx.length) return;
+            int cap = Math.max(n, vx.length * 2);
+            vx = Arrays.copyOf(vx, cap); vy = Arrays.copyOf(vy, cap); ax = Arrays.copyOf(ax, cap);
+            dt = Arrays.copyOf(dt, cap); friction = Arrays.copyOf(friction, cap); gravity = Arrays.copyOf(gravity, cap);
+        }
+
+        void ensureRooms(int n){
+            if (n > stepping.length) stepping = new boolean[Math.max(n, stepping.length * 2)];
+        }
+    }
+
+    public ArenaVectorKernel(ArenaSimulation physics){
+        this.physics = physics;
+    }
+
+    /** Steps rooms[from..to) together: per-room begin, one vectorized velocity pass, per-room finish. */
+    public void stepAll(ArenaRoom[] rooms, int from, int to){
+        Lanes l = lanes.get();
+        l.ensureRooms(to - from);
+        int players = 0;
+        for (int r = from; r < to; r++){
+            boolean ok = begin(rooms[r]);
+            l.stepping[r - from] = ok;
+            if (ok) players += rooms[r].state.roster.size();
+        }
+        l.ensure(players);
+        // gather
+        int k = 0;
+        for (int r = from; r < to; r++){
+            if (!l.stepping[r - from]) continue;
+            ArenaRoom room = rooms[r];
+            for (int pi = 0; pi < room.state.roster.size(); pi++, k++){
+                Player2D p = room.state.roster.get(pi);
+                l.vx[k] = p.vx; l.vy[k] = p.vy; l.ax[k] = room.accel[pi];
+                l.dt[k] = room.dt; l.friction[k] = room.friction;
+                l.gravity[k] = room.swept ? 0 : 1;
+            }
+        }
+        integrate(l, players);
+        // scatter
+        k = 0;
+        for (int r = from; r < to; r++){
+            if (!l.stepping[r - from]) continue;
+            ArenaRoom room = rooms[r];
+            for (int pi = 0; pi < room.state.roster.size(); pi++, k++){
+                Player2D p = room.state.roster.get(pi);
+                p.vx = l.vx[k]; p.vy = l.vy[k];
+            }
+        }
+        for (int r = from; r < to; r++){
+            if (!l.stepping[r - from]) continue;
+            try {
+                physics.finishStep(rooms[r]);
+            } catch (Exception ex){
+                log.warn("Arena tick failed for room {}: {}", rooms[r].code, ex.toString());
+            }
+        }
+    }
+
+    private boolean begin(ArenaRoom room){
+        try {
+            physics.beginStep(room);
+            return true;
+        } catch (Exception ex){
+            log.warn("Arena tick failed for room {}: {}", room.code, ex.toString());
+            return false;
+        }
+    }
+
+    private static void integrate(Lanes l, int n){
+        int i = 0;
+        int bound = SPECIES.loopBound(n);
+        for (; i < bound; i += SPECIES.length()){
+            DoubleVector dt = DoubleVector.fromArray(SPECIES, l.dt, i);
+            // vy += GRAVITY * dt on discrete lanes only
+            DoubleVector vy = DoubleVector.fromArray(SPECIES, l.vy, i);
+            VectorMask<Double> falls = DoubleVector.fromArray(SPECIES, l.gravity, i).compare(VectorOperators.NE, 0.0);
+            vy = vy.blend(vy.add(dt.mul(ArenaSimulation.GRAVITY)), falls);
+            vy.intoArray(l.vy, i);
+            // vx += ax * dt; friction and snap to zero where there is no input; clamp
+            DoubleVector ax = DoubleVector.fromArray(SPECIES, l.ax, i);
+            DoubleVector vx = DoubleVector.fromArray(SPECIES, l.vx, i).add(ax.mul(dt));
+            VectorMask<Double> coasting = ax.compare(VectorOperators.EQ, 0.0);
+            DoubleVector slowed = vx.mul(DoubleVector.fromArray(SPECIES, l.friction, i));
+            slowed = slowed.blend(0.0, slowed.abs().compare(VectorOperators.LT, 10.0));
+            vx = vx.blend(slowed, coasting);
+            vx = vx.min(ArenaSimulation.MAX_SPEED).max(-ArenaSimulation.MAX_SPEED);
+            vx.intoArray(l.vx, i);
+        }
+        for (; i < n; i++){
+            if (l.gravity[i] != 0) l.vy[i] = ArenaSimulation.fall(l.vy[i], l.dt[i]);
+            l.vx[i] = ArenaSimulation.integrate(l.vx[i], l.ax[i], l.dt[i], l.friction[i]);
+        }
+    }
+}
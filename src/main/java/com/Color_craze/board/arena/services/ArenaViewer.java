@@ -0,0 +1,35 @@
+package com.Color_craze.board.arena.services;
+
+/**
+ * One client's interest area in a room: the rectangle it currently shows, in map units, and the
+ * version of every paint chunk it has been sent so far. The rectangle is replaced from STOMP
+ * threads; sent is only touched by the broadcaster currently sending the room's frame.
+ */
+final class ArenaViewer {
+    final String id;
+    volatile double x, y, width, height;
+    // Set once a subscription to the viewer's topic was seen, so a viewer that left can be dropped
+    volatile boolean subscribed;
+    // Chunk versions this viewer has; 0 matches a never painted chunk, which clients start out with
+    private int[] sent = new int[0];
+
+    ArenaViewer(String id){
+        this.id = id;
+    }
+
+    void moveTo(double x, double y, double width, double height){
+        this.x = x;
+        this.y = y;
+        this.width = Math.max(0, width);
+        this.height = Math.max(0, height);
+    }
+
+    int[] sent(int chunks){
+        if (sent.length != chunks) sent = new int[chunks];
+        return sent;
+    }
+
+    String topic(String code){
+        return String.format("/topic/board/%s/arena/%s", code, id);
+    }
+}
@@ -0,0 +1,125 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Startup warm-up: before the node takes traffic, runs a few bot-only arenas through the real
+ * tick, snapshot and broadcast path (frames are serialized by the application's message converter
+ * and dropped by a null channel), so the JIT has compiled the hot code before the first match.
+ * <p>
+ * Runs as an ApplicationRunner: Spring Boot only reports readiness (ACCEPTING_TRAFFIC, see
+ * /actuator/health/readiness) once all runners have returned, so the node turns ready after the
+ * warm-up. A failing warm-up is logged and does not keep the node from starting.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ArenaWarmup implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ArenaWarmup.class);
+    private static final ColorStatus[] COLORS = {ColorStatus.YELLOW, ColorStatus.PINK, ColorStatus.PURPLE, ColorStatus.GREEN};
+
+    private final ArenaService arenaService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @org.springframework.beans.factory.annotation.Value("${arena.warmup.enabled:true}")
+    private boolean enabled = true;
+    @org.springframework.beans.factory.annotation.Value("${arena.warmup.rooms:4}")
+    private int rooms = 4;
+    @org.springframework.beans.factory.annotation.Value("${arena.warmup.players:4}")
+    private int players = 4;
+    @org.springframework.beans.factory.annotation.Value("${arena.warmup.ticks:12000}")
+    private long ticks = 12_000;
+    private volatile Report last;
+
+    /**
+     * Outcome of a warm-up. firstNsPerTick and lastNsPerTick average one engine tick over all rooms
+     * in the first and last tenth of the run; their ratio shows what compilation bought.
+     */
+    public record Report(int rooms, int players, long ticks, long elapsedMs,
+                         long firstNsPerTick, long lastNsPerTick, long frames, long frameBytes) {}
+
+    @Override
+    public void run(ApplicationArguments args){
+        if (!enabled || ticks <= 0 || rooms <= 0) return;
+        try {
+            Report r = warmUp(rooms, players, ticks);
+            last = r;
+            log.info("Arena warm-up: {} rooms x {} bots, {} ticks in {} ms; tick {} us -> {} us; {} frames, {} KB serialized",
+                r.rooms(), r.players(), r.ticks(), r.elapsedMs(), r.firstNsPerTick() / 1000, r.lastNsPerTick() / 1000,
+                r.frames(), r.frameBytes() / 1024);
+        } catch (Exception ex){
+            log.warn("Arena warm-up failed, starting cold: {}", ex.toString());
+        }
+    }
+
+    /** Latest warm-up report, or null when none ran. */
+    public Report lastReport(){
+        return last;
+    }
+
+    Report warmUp(int roomCount, int playerCount, long tickCount){
+        NullChannel sink = new NullChannel();
+        SimpMessagingTemplate out = new SimpMessagingTemplate(sink);
+        out.setMessageConverter(messagingTemplate.getMessageConverter());
+        ArenaTickEngine.Simulation sim = arenaService.newSimulation(out);
+
+        ArenaRoom[] batch = new ArenaRoom[roomCount];
+        for (int r = 0; r < roomCount; r++){
+            String code = "WARMUP" + r;
+            List<PlayerEntry> bots = new ArrayList<>();
+            for (int i = 0; i < playerCount; i++) bots.add(new PlayerEntry("bot_" + code + "_" + i, "CPU", COLORS[i % COLORS.length]));
+            batch[r] = arenaService.newHeadlessRoom(code, bots);
+        }
+        ArenaRoom[] scratch = new ArenaRoom[roomCount];
+        long window = Math.max(1, tickCount / 10);
+        long first = 0, lastWindow = 0;
+        long start = System.nanoTime();
+        try {
+            for (long t = 0; t < tickCount; t++){
+                long t0 = System.nanoTime();
+                ArenaTickEngine.advanceAll(batch, sim, scratch);
+                long took = System.nanoTime() - t0;
+                if (t < window) first += took;
+                else if (t >= tickCount - window) lastWindow += took;
+            }
+        } finally {
+            // States go back to the pool once the broadcasters have sent the last frames
+            for (ArenaRoom room : batch) sim.detached(room);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new Report(roomCount, playerCount, tickCount, elapsedMs,
+            first / window, lastWindow / Math.max(1, Math.min(window, tickCount - window)), sink.frames.get(), sink.bytes.get());
+    }
+
+    // Accepts and drops every message, counting what would have gone out
+    private static final class NullChannel implements MessageChannel {
+        final AtomicLong frames = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+
+        @Override
+        public boolean send(Message<?> message, long timeout){
+            frames.incrementAndGet();
+            if (message.getPayload() instanceof byte[] b) bytes.addAndGet(b.length);
+            return true;
+        }
+    }
+}
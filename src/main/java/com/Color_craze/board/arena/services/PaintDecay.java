@@ -0,0 +1,161 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.Arrays;
+
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Player2D;
+
+/**
+ * Paint decay for one room: a painted cell fades back to unpainted a fixed number of ticks after it
+ * was last painted. Expiry times sit in a hierarchical timing wheel keyed by tick number (LEVELS
+ * wheels of SLOTS slots, each level SLOTS times coarser than the one below), so a tick only visits
+ * the cells that expire on it plus, every SLOTS^level ticks, one slot cascading down a level.
+ * Nothing is scanned per cell and repainting a cell just moves it to another slot.
+ *
+ * Slots are intrusive doubly linked lists over per-cell arrays sized once for the map, so
+ * scheduling and expiring never allocate; reset re-arms them for the next room (see RoomScratch).
+ * Owner thread only, like the rest of the room.
+ */
+final class PaintDecay {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    // 64^4 ticks is about 39 hours at 120 Hz; later deadlines wait in the top level and cascade again
+    private static final int LEVELS = 4;
+    private static final int NONE = -1;
+
+    long ttlTicks;
+    // Last tick processed by advance; deadlines are always after it
+    private long now;
+    private int size;
+    // First cell of each slot's list, level by level
+    private final int[] head = new int[LEVELS * SLOTS];
+    // Per cell: list links, the slot it sits in (NONE = not scheduled) and its expiry tick
+    private final int[] next;
+    private final int[] prev;
+    private final int[] slotOf;
+    private final long[] deadline;
+
+    PaintDecay(int cells, long ttlTicks, long now){
+        this.ttlTicks = Math.max(1, ttlTicks);
+        this.now = now;
+        this.next = new int[cells];
+        this.prev = new int[cells];
+        this.slotOf = new int[cells];
+        this.deadline = new long[cells];
+        Arrays.fill(head, NONE);
+        Arrays.fill(slotOf, NONE);
+    }
+
+    /** Drops every scheduled cell and starts over at tick now, for the next room on the same map. */
+    void reset(long ttlTicks, long now){
+        this.ttlTicks = Math.max(1, ttlTicks);
+        this.now = now;
+        this.size = 0;
+        Arrays.fill(head, NONE);
+        Arrays.fill(slotOf, NONE);
+    }
+
+    int cells(){
+        return slotOf.length;
+    }
+
+    /** Restarts the cell's countdown: it expires ttlTicks after tick unless painted again before. */
+    void painted(int cell, long tick){
+        if (slotOf[cell] != NONE) unlink(cell);
+        else size++;
+        insert(cell, Math.max(tick + ttlTicks, now + 1));
+    }
+
+    /** painted() for global cells [from, to), as painted in one go by an area ability. */
+    void painted(int from, int to, long tick){
+        for (int c = from; c < to; c++) painted(c, tick);
+    }
+
+    /** Cells waiting to expire. */
+    int scheduled(){
+        return size;
+    }
+
+    /** Expiry tick of a scheduled cell, or -1. */
+    long expiresAt(int cell){
+        return slotOf[cell] != NONE ? deadline[cell] : -1;
+    }
+
+    /**
+     * Processes every tick up to and including the given one: cells that expire are unpainted
+     * through ArenaState (coverage and chunk versions follow) and, like a cell taken by another
+     * player, cost their owner the point and the credit for it. Returns the cells unpainted.
+     */
+    int advance(ArenaState st, long tick){
+        int expired = 0;
+        while (now < tick){
+            // Nothing pending: jump straight to the target, e.g. after hibernating
+            if (size == 0){
+                now = tick;
+                break;
+            }
+            long t = ++now;
+            // Coarser levels first, so entries they hand down can still cascade further on this tick
+            for (int level = LEVELS - 1; level > 0; level--){
+                if ((t & ((1L << (BITS * level)) - 1)) == 0) cascade(level * SLOTS + (int) ((t >>> (BITS * level)) & MASK));
+            }
+            int cell = head[(int) (t & MASK)];
+            head[(int) (t & MASK)] = NONE;
+            while (cell != NONE){
+                int n = next[cell];
+                slotOf[cell] = NONE;
+                size--;
+                if (expire(st, cell)) expired++;
+                cell = n;
+            }
+        }
+        return expired;
+    }
+
+    private static boolean expire(ArenaState st, int cell){
+        int owner = st.clearCell(cell);
+        if (owner < 0) return false;
+        Player2D p = st.roster.get(owner);
+        if (p.score > 0) p.score--;
+        p.credited.clear(cell);
+        return true;
+    }
+
+    // Re-files a coarse slot's cells relative to the current tick; each lands on a finer level
+    private void cascade(int slot){
+        int cell = head[slot];
+        head[slot] = NONE;
+        while (cell != NONE){
+            int n = next[cell];
+            insert(cell, deadline[cell]);
+            cell = n;
+        }
+    }
+
+    // Level = the finest one on which the deadline and now agree about all coarser digits. A cascade
+    // may hand in the current tick itself; it goes to the level 0 slot that is processed next
+    private void insert(int cell, long d){
+        int level = 0;
+        while (level < LEVELS - 1 && ((d ^ now) >>> (BITS * (level + 1))) != 0) level++;
+        int slot = level * SLOTS + (int) ((d >>> (BITS * level)) & MASK);
+        deadline[cell] = d;
+        slotOf[cell] = slot;
+        prev[cell] = NONE;
+        next[cell] = head[slot];
+        if (head[slot] != NONE) prev[head[slot]] = cell;
+        head[slot] = cell;
+    }
+
+    private void unlink(int cell){
+        int p = prev[cell], n = next[cell];
+        if (p != NONE) next[p] = n;
+        else head[slotOf[cell]] = n;
+        if (n != NONE) prev[n] = p;
+        slotOf[cell] = NONE;
+    }
+
+    long estimatedBytes(){
+        return 16L + 4L * head.length + 3 * (16L + 4L * next.length) + 16L + 8L * deadline.length;
+    }
+}
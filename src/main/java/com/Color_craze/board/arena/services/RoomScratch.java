@@ -0,0 +1,69 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.Arrays;
+
+import com.Color_craze.board.arena.models.ArenaState;
+
+/**
+ * The per-room arrays a room steps with, kept on its ArenaState so a pooled state's next room
+ * borrows them instead of allocating: per-player input and bot state in MAX_PLAYERS slots, the
+ * per-map broadphase output and repaint counts, the cells decremented this step and the decay
+ * wheel. ArenaState.reset puts them back to a new room's look.
+ */
+final class RoomScratch implements ArenaState.Scratch {
+    final ArenaRoom.InputState[] inputs = new ArenaRoom.InputState[ArenaState.MAX_PLAYERS];
+    final boolean[] bot = new boolean[ArenaState.MAX_PLAYERS];
+    final int[] botDir = new int[ArenaState.MAX_PLAYERS];
+    final long[] botNextDecisionTick = new long[ArenaState.MAX_PLAYERS];
+    final int[] ground = new int[ArenaState.MAX_PLAYERS];
+    final double[] accel = new double[ArenaState.MAX_PLAYERS];
+    final int[] repainted = new int[ArenaState.MAX_PLAYERS + 1];
+    final int[] candidates;
+    // Grown by the simulation if a step ever needs more; the larger array is kept
+    int[] stepDecrements = new int[ArenaState.MAX_PLAYERS];
+    // Built by the first room with decay on, re-armed for later ones
+    private PaintDecay decay;
+
+    private RoomScratch(int platforms){
+        this.candidates = new int[platforms];
+        for (int i = 0; i < inputs.length; i++) inputs[i] = new ArenaRoom.InputState();
+        Arrays.fill(ground, -1);
+    }
+
+    /** The state's scratch, attached on first use. */
+    static RoomScratch of(ArenaState st){
+        if (st.scratch() instanceof RoomScratch s && s.candidates.length == st.platforms.size()) return s;
+        RoomScratch s = new RoomScratch(st.platforms.size());
+        st.attachScratch(s);
+        return s;
+    }
+
+    @Override
+    public void reset(){
+        for (ArenaRoom.InputState in : inputs){
+            in.left = false;
+            in.right = false;
+            in.jump = false;
+            in.bomb = false;
+        }
+        Arrays.fill(bot, false);
+        Arrays.fill(botDir, 0);
+        Arrays.fill(botNextDecisionTick, 0);
+        Arrays.fill(ground, -1);
+        Arrays.fill(accel, 0);
+        Arrays.fill(repainted, 0);
+    }
+
+    /** The decay wheel for a room starting at tick now, nothing scheduled. */
+    PaintDecay decay(int cells, long ttlTicks, long now){
+        if (decay == null || decay.cells() != cells) decay = new PaintDecay(cells, ttlTicks, now);
+        else decay.reset(ttlTicks, now);
+        return decay;
+    }
+
+    long estimatedBytes(){
+        // Array headers, inputs, bot state, ground and accel per slot, then the int arrays
+        long bytes = 9 * 16L + ArenaState.MAX_PLAYERS * (8L + 32 + 1 + 4 + 8 + 4 + 8);
+        return bytes + 4L * (repainted.length + candidates.length + stepDecrements.length);
+    }
+}
@@ -0,0 +1,81 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.Arrays;
+
+import com.Color_craze.board.arena.models.ArenaState;
+
+/**
+ * The paint of a snapshot, kept chunk by chunk like the state's own (ArenaState.CHUNK_CELLS cells
+ * per chunk). A chunk is only copied once the state has painted in it, and capturing into a buffer
+ * that is being reused only copies the chunks whose version moved since that buffer last saw them,
+ * so both memory and copy work follow the painted, changing area rather than the map size.
+ * <p>
+ * Frames on the shared topic carry the whole map as one array; that copy is built from the chunks
+ * the first time such a frame is sent and refreshed the same way, chunk by chunk. Rooms whose
+ * clients all use viewports never have one.
+ * <p>
+ * capture runs on the owner thread; the rest on the broadcaster that claimed the snapshot. The
+ * room hands buffers between them (ArenaRoom.publish, claim, recycle), never sharing one.
+ */
+final class SnapshotPaint {
+    final int cells;
+    // Per chunk: its cells as of versions[k], or null while never painted (all unpainted)
+    private final byte[][] chunks;
+    // Per chunk: the ArenaState.chunkVersion the copy reflects
+    final int[] versions;
+    // Whole-map copy for shared-topic frames and the chunk versions it reflects; null until asked for
+    private byte[] flat;
+    private int[] flatVersions;
+
+    SnapshotPaint(int cells, int chunkCount){
+        this.cells = cells;
+        this.chunks = new byte[chunkCount][];
+        this.versions = new int[chunkCount];
+    }
+
+    /** Owner thread: brings the copy up to the state's paint, copying changed chunks only; returns how many. */
+    int capture(ArenaState st){
+        int copied = 0;
+        for (int k = 0; k < chunks.length; k++){
+            int v = st.chunkVersion(k);
+            if (v == versions[k]) continue;
+            if (chunks[k] == null) chunks[k] = new byte[ArenaState.CHUNK_CELLS];
+            st.copyChunk(k, chunks[k]);
+            versions[k] = v;
+            copied++;
+        }
+        return copied;
+    }
+
+    int chunkCount(){
+        return chunks.length;
+    }
+
+    /** The cells of chunk k, as a new array the frame can keep; the last chunk may be shorter. */
+    byte[] chunkCopy(int k){
+        int len = Math.min(ArenaState.CHUNK_CELLS, cells - (k << ArenaState.CHUNK_SHIFT));
+        return chunks[k] != null ? Arrays.copyOf(chunks[k], len) : new byte[len];
+    }
+
+    /** One byte per cell across the map, for shared-topic frames; valid until the buffer is recycled. */
+    byte[] flat(){
+        if (flat == null){
+            flat = new byte[cells];
+            flatVersions = new int[chunks.length];
+        }
+        for (int k = 0; k < chunks.length; k++){
+            if (flatVersions[k] == versions[k]) continue;
+            int from = k << ArenaState.CHUNK_SHIFT;
+            System.arraycopy(chunks[k], 0, flat, from, Math.min(ArenaState.CHUNK_CELLS, cells - from));
+            flatVersions[k] = versions[k];
+        }
+        return flat;
+    }
+
+    long estimatedBytes(){
+        long bytes = 16L + 8L * chunks.length + 16L + 4L * versions.length;
+        for (byte[] c : chunks) if (c != null) bytes += 16L + c.length;
+        if (flat != null) bytes += 16L + flat.length + 16L + 4L * flatVersions.length;
+        return bytes;
+    }
+}
@@ -15,7 +15,7 @@ public record GameInfoResponse(
 ) {
     public static record PlayerInfo(String playerId, String nickname, String color, String avatar, int score) {}
     public static record PlayerPos(String playerId, int row, int col, String color) {}
-    public static record ArenaConfig(double width, double height, List<ArenaPlatform> platforms) {}
-    public static record ArenaPlatform(double x, double y, double width, double height, int cells) {}
+    // mapId: catalog map the arena plays; its geometry and palette come from GET /api/arena/maps/{mapId}
+    public static record ArenaConfig(String mapId) {}
 }
 
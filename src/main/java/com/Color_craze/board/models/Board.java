@@ -40,10 +40,30 @@ public class Board {
     }
 
     public void addPlayer(Player player) {
+        // Home cells depend on the color, which several players may share: take the next free cell
+        if (!isFree(player.getRow(), player.getCol())) {
+            int free = firstFreeCell();
+            if (free < 0) throw new IllegalStateException("Board is full");
+            player.setRow(free / COLS);
+            player.setCol(free % COLS);
+        }
         players.put(player.getId(), player);
         grid[player.getRow()][player.getCol()] = player;
     }
 
+    private boolean isFree(int row, int col) {
+        return row >= 0 && row < ROWS && col >= 0 && col < COLS && !(grid[row][col] instanceof Player);
+    }
+
+    private int firstFreeCell() {
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                if (isFree(r, c)) return r * COLS + c;
+            }
+        }
+        return -1;
+    }
+
     public void removePlayer(UUID playerId) {
         Player player = players.remove(playerId);
         if (player != null) {
@@ -98,7 +118,7 @@ public class Board {
                 Platform prevPlatform = new Platform(ColorStatus.WHITE);
                 grid[currentRow][currentCol] = prevPlatform;
                 // actualizar puntajes por pintar la casilla anterior y registrar update visual
-                updatePlatformAndScores(prevPlatform, player.getColor(), currentRow, currentCol, affectedPlayers);
+                updatePlatformAndScores(prevPlatform, player, currentRow, currentCol, affectedPlayers);
                 updatedPlatforms.add(new PlatformUpdate(currentRow, currentCol, player.getColor()));
                 player.setRow(newRow);
                 player.setCol(newCol);
@@ -114,7 +134,8 @@ public class Board {
     }
 
 
-    private List<PlatformUpdate> updateAdjacentPlatforms(int row, int col, ColorStatus playerColor, List<PlayerUpdate> affectedPlayers) {
+    private List<PlatformUpdate> updateAdjacentPlatforms(int row, int col, Player painter, List<PlayerUpdate> affectedPlayers) {
+        ColorStatus playerColor = painter.getColor();
         int[][] directions = {
             {-1, 0}, {1, 0}, {0, -1}, {0, 1}
         };
@@ -128,13 +149,14 @@ public class Board {
             if (r >= 0 && r < ROWS && c >= 0 && c < COLS) {
                 Box box = grid[r][c];
                 if (box instanceof Platform platform) {
-                    updatePlatformAndScores(platform, playerColor, r, c, affectedPlayers);
+                    updatePlatformAndScores(platform, painter, r, c, affectedPlayers);
                     updates.add(new PlatformUpdate(r, c, playerColor));
                 } else if (!(box instanceof Player)) {
-                    // Si es un Box genérico, conviértelo en Platform y pinta
+                    // Si es un Box genérico, conviértelo en Platform y pinta (sin puntaje, como siempre)
                     Platform platform = new Platform(playerColor);
+                    platform.setOwner(painter.getId());
                     grid[r][c] = platform;
-                    updatePlatformAndScores(platform, playerColor, r, c, affectedPlayers);
+                    updatePlatformAndScores(platform, painter, r, c, affectedPlayers);
                     updates.add(new PlatformUpdate(r, c, playerColor));
                 }
             }
@@ -144,37 +166,37 @@ public class Board {
     }
 
 
-    private void updatePlatformAndScores(Platform platform, ColorStatus newColor, int row, int col, List<PlayerUpdate> affectedPlayers) {
+    private void updatePlatformAndScores(Platform platform, Player paintingPlayer, int row, int col, List<PlayerUpdate> affectedPlayers) {
         ColorStatus previousColor = platform.getColor();
+        ColorStatus newColor = paintingPlayer.getColor();
+        UUID previousOwner = platform.getOwner();
 
-        if (previousColor == newColor) {
+        if (paintingPlayer.getId().equals(previousOwner) || (previousOwner == null && previousColor == newColor)) {
             return;
         }
 
-        Player paintingPlayer = findPlayerByColor(newColor);
-        if (paintingPlayer != null) {
-            // Credit score only once per unique cell for this player
-            long key = cellKey(row, col);
-            java.util.Set<Long> credited = paintedByPlayer.computeIfAbsent(paintingPlayer.getId(), k -> new java.util.HashSet<>());
-            if (!credited.contains(key)) {
-                paintingPlayer.setScore(paintingPlayer.getScore() + 1);
-                credited.add(key);
-                affectedPlayers.add(new PlayerUpdate(paintingPlayer.getId(), paintingPlayer.getColor(), paintingPlayer.getScore()));
-            }
+        // Credit score only once per unique cell for this player
+        long key = cellKey(row, col);
+        java.util.Set<Long> credited = paintedByPlayer.computeIfAbsent(paintingPlayer.getId(), k -> new java.util.HashSet<>());
+        if (!credited.contains(key)) {
+            paintingPlayer.setScore(paintingPlayer.getScore() + 1);
+            credited.add(key);
+            affectedPlayers.add(new PlayerUpdate(paintingPlayer.getId(), paintingPlayer.getColor(), paintingPlayer.getScore()));
         }
 
-        if (previousColor != ColorStatus.WHITE && previousColor != newColor) {
-            Player previousPlayer = findPlayerByColor(previousColor);
-            if (previousPlayer != null && previousPlayer.getScore() > 0) {
-                previousPlayer.setScore(previousPlayer.getScore() - 1);
-                affectedPlayers.add(new PlayerUpdate(previousPlayer.getId(), previousPlayer.getColor(), previousPlayer.getScore()));
-                // Remove credit from the previous player's set for this cell
-                java.util.Set<Long> prevSet = paintedByPlayer.get(previousPlayer.getId());
-                if (prevSet != null) prevSet.remove(cellKey(row, col));
-            }
+        // Platforms painted before owners were tracked (or restored from a snapshot) go by color
+        Player previousPlayer = previousOwner != null ? players.get(previousOwner)
+            : previousColor != ColorStatus.WHITE ? findPlayerByColor(previousColor) : null;
+        if (previousPlayer != null && previousPlayer.getScore() > 0) {
+            previousPlayer.setScore(previousPlayer.getScore() - 1);
+            affectedPlayers.add(new PlayerUpdate(previousPlayer.getId(), previousPlayer.getColor(), previousPlayer.getScore()));
+            // Remove credit from the previous player's set for this cell
+            java.util.Set<Long> prevSet = paintedByPlayer.get(previousPlayer.getId());
+            if (prevSet != null) prevSet.remove(cellKey(row, col));
         }
 
         platform.setColor(newColor);
+        platform.setOwner(paintingPlayer.getId());
     }
 
 
@@ -186,6 +208,16 @@ public class Board {
     }
 
 
+    /** Rough heap bytes of the grid, the players and their credited cells, for the room inspector. */
+    public long estimatedBytes() {
+        synchronized (gridLock) {
+            long bytes = (long) ROWS * (16 + COLS * (8 + 16));
+            bytes += players.size() * 96L;
+            for (java.util.Set<Long> cells : paintedByPlayer.values()) bytes += 48 + cells.size() * 48L;
+            return bytes;
+        }
+    }
+
     public Box[][] getGrid() {
         return grid;
     }
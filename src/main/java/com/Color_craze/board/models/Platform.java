@@ -1,11 +1,24 @@
 package com.Color_craze.board.models;
 
+import java.util.UUID;
+
 import com.Color_craze.utils.enums.ColorStatus;
 
 public class Platform extends Box{
+    // Player whose paint is on this platform (null = unpainted or restored from a snapshot);
+    // colors repeat in large rooms, so scoring goes by owner rather than by color
+    private UUID owner;
 
     public Platform(ColorStatus color) {
         super(color);
     }
-    
+
+    public UUID getOwner() {
+        return owner;
+    }
+
+    public void setOwner(UUID owner) {
+        this.owner = owner;
+    }
+
 }
\ No newline at end of file
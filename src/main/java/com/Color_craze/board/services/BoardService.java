@@ -39,7 +39,7 @@ public class BoardService {
 
     public MoveResult movePlayer(String gameCode, String playerId, PlayerMove playerMove) {
         Board b = getOrCreateBoard(gameCode);
-        UUID uuid = toUuid(playerId);
+        UUID uuid = boardId(playerId);
         return b.movePlayer(uuid, playerMove);
     }
 
@@ -66,14 +66,15 @@ public class BoardService {
 
     public void ensurePlayerOnBoard(String gameCode, String playerId, ColorStatus color) {
         Board b = getOrCreateBoard(gameCode);
-        UUID uuid = toUuid(playerId);
+        UUID uuid = boardId(playerId);
         if (!b.getPlayers().containsKey(uuid)) {
             Player p = new Player(uuid, color);
             b.addPlayer(p);
         }
     }
 
-    private UUID toUuid(String raw) {
+    /** Id a game player has on the board; MoveResult and PlayerUpdate name players by it. */
+    public static UUID boardId(String raw) {
         if (raw == null || raw.isBlank()) {
             return UUID.randomUUID();
         }
@@ -85,6 +86,11 @@ public class BoardService {
         }
     }
 
+    /** Live boards by game code; a read-only, weakly consistent view. */
+    public java.util.Map<String, Board> boards() {
+        return java.util.Collections.unmodifiableMap(boards);
+    }
+
     public void resetBoard(String gameCode) {
         boards.put(gameCode, new Board());
     }
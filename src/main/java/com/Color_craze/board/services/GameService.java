@@ -39,6 +39,7 @@ import com.Color_craze.board.arena.services.ArenaService;
 @Service
 @RequiredArgsConstructor
 public class GameService {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(GameService.class);
 
     private final GameRepository gameRepository;
     private final BoardService boardService;
@@ -70,6 +71,7 @@ public class GameService {
     // Configurable timings (in seconds)
     private static final long JOIN_WINDOW_SECONDS = 60; // tiempo para unirse
     private static final long GAME_DURATION_SECONDS = 60; // duración de la partida
+    private static final int MAX_PLAYERS = com.Color_craze.board.arena.models.ArenaState.MAX_PLAYERS; // jugadores por sala
 
     private static final String ALPHANUM = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
 
@@ -150,12 +152,7 @@ public class GameService {
             // Try include arena config if available
             try {
                 var st = arenaService.getState(gs.getCode());
-                if (st != null) {
-                    var plats = st.platforms.stream()
-                        .map(pl -> new GameInfoResponse.ArenaPlatform(pl.x(), pl.y(), pl.width(), pl.height(), pl.cells()))
-                        .collect(Collectors.toList());
-                    arenaCfg = new GameInfoResponse.ArenaConfig(st.width, st.height, plats);
-                }
+                if (st != null) arenaCfg = new GameInfoResponse.ArenaConfig(st.mapId);
             } catch (Exception ignored) {}
         }
         return new GameInfoResponse(gs.getCode(), gs.getStatus(), joinDeadlineMs, players, startedAtMs, durationMs, positions, arenaCfg, gs.getTheme());
@@ -183,12 +180,12 @@ public class GameService {
         // delegate to board
         MoveResult result = boardService.movePlayer(code, playerId, direction);
 
-        // update session scores from affected players (map by color to original playerId)
+        // update session scores from affected players (board id -> session player; colors may repeat)
+        Map<java.util.UUID, PlayerEntry> byBoardId = new java.util.HashMap<>();
+        for (PlayerEntry p : gs.getPlayers()) byBoardId.put(BoardService.boardId(p.playerId), p);
         result.affectedPlayers().forEach(up -> {
-            gs.getPlayers().stream()
-                .filter(p -> p.color == up.color())
-                .findFirst()
-                .ifPresent(p -> p.score = up.newScore());
+            PlayerEntry p = byBoardId.get(up.playerId());
+            if (p != null) p.score = up.newScore();
         });
     // persist platform state snapshot
     gs.setPlatforms(boardService.exportPlatformStates(code));
@@ -256,11 +253,8 @@ public class GameService {
 
         java.util.List<Map<String, Object>> affected = new java.util.ArrayList<>();
         for (var up : result.affectedPlayers()){
-            String origId = gs.getPlayers().stream()
-                .filter(pp -> pp.color == up.color())
-                .map(pp -> pp.playerId)
-                .findFirst()
-                .orElse(up.playerId().toString());
+            PlayerEntry owner = byBoardId.get(up.playerId());
+            String origId = owner != null ? owner.playerId : up.playerId().toString();
             java.util.Map<String, Object> m = new java.util.HashMap<>();
             m.put("playerId", origId);
             m.put("color", up.color().name());
@@ -288,7 +282,7 @@ public class GameService {
             System.err.println("[ERROR] joinGame failed: gameCode=" + code + ", playerId=" + req.playerId() + ", reason=Sala no encontrada");
             return new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found");
         });
-        if (gs.getPlayers().size() >= 4) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Room full");
+        if (gs.getPlayers().size() >= MAX_PLAYERS) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Room full");
 
         // Color is always auto-assigned randomly from available player colors
         ColorStatus color = pickColor(gs);
@@ -329,18 +323,21 @@ public class GameService {
     }
 
     private ColorStatus pickColor(GameSession gs) {
-        // Allowed player colors (skip WHITE)
+        // Allowed player colors (skip WHITE). Colors are only for display: with more than four
+        // players they repeat, so pick randomly among the least used ones
         ColorStatus[] choices = new ColorStatus[]{ColorStatus.YELLOW, ColorStatus.PINK, ColorStatus.PURPLE, ColorStatus.GREEN};
-        java.util.List<ColorStatus> available = new java.util.ArrayList<>();
-        for (ColorStatus c : choices) {
-            boolean used = gs.getPlayers().stream().anyMatch(p -> p.color == c);
-            if (!used) available.add(c);
+        int[] uses = new int[choices.length];
+        int least = Integer.MAX_VALUE;
+        for (int i = 0; i < choices.length; i++) {
+            ColorStatus c = choices[i];
+            uses[i] = (int) gs.getPlayers().stream().filter(p -> p.color == c).count();
+            least = Math.min(least, uses[i]);
         }
-        if (!available.isEmpty()) {
-            return available.get(random.nextInt(available.size()));
+        java.util.List<ColorStatus> available = new java.util.ArrayList<>();
+        for (int i = 0; i < choices.length; i++) {
+            if (uses[i] == least) available.add(choices[i]);
         }
-        // fallback: all taken (shouldn't happen with max 4 players)
-        return choices[random.nextInt(choices.length)];
+        return available.get(random.nextInt(available.size()));
     }
 
     // kept for potential future validations
@@ -405,13 +402,8 @@ public class GameService {
         // Initialize 2D arena and append its config to the state
         try {
             var st = arenaService.initGame(code, gs.getPlayers());
-            Map<String, Object> arena = Map.of(
-                "width", st.width,
-                "height", st.height,
-                "platforms", st.platforms.stream().map(pl -> Map.of(
-                    "x", pl.x(), "y", pl.y(), "width", pl.width(), "height", pl.height(), "cells", pl.cells()
-                )).collect(Collectors.toList())
-            );
+            // Only the map id: clients fetch (and cache) the geometry from /api/arena/maps/{id}
+            Map<String, Object> arena = Map.of("mapId", st.mapId);
             java.util.HashMap<String, Object> mutable = new java.util.HashMap<>(state);
             mutable.put("arena", arena);
             messagingTemplate.convertAndSend(String.format("/topic/board/%s/state", code), mutable);
@@ -478,18 +470,56 @@ public class GameService {
         messagingTemplate.convertAndSend(String.format("/topic/board/%s/state", gs.getCode()), waiting);
     }
 
+    /**
+     * After a restart, picks up the matches that were still PLAYING: each resumes from its latest
+     * arena checkpoint and ends when it would have ended anyway. A match without a usable checkpoint
+     * is ended right away with the scores it had persisted, instead of staying PLAYING forever.
+     */
+    @org.springframework.context.event.EventListener(org.springframework.boot.context.event.ApplicationReadyEvent.class)
+    public void resumeMatches() {
+        List<GameSession> playing;
+        try {
+            playing = gameRepository.findByStatus("PLAYING");
+        } catch (Exception ex) {
+            return;
+        }
+        if (playing == null) return;
+        for (GameSession gs : playing) {
+            String code = gs.getCode();
+            long remainingMs = 0;
+            if (gs.getStartedAt() != null) {
+                remainingMs = Math.max(0, gs.getStartedAt().toEpochMilli() + GAME_DURATION_SECONDS * 1000 - Instant.now().toEpochMilli());
+            }
+            boolean resumed = false;
+            try {
+                resumed = remainingMs > 0 && arenaService.resumeGame(code, gs.getPlayers()) != null;
+            } catch (Exception ex) {
+                log.warn("Match {} could not be resumed from its arena checkpoint", code, ex);
+            }
+            // endGame decrements the gauge either way
+            incrementActiveRooms();
+            if (resumed) meterRegistry.counter("game.rooms.resumed").increment();
+            // Without a room there is nothing left to play: end it now rather than when time runs out
+            scheduler.schedule(() -> endGame(code), resumed ? remainingMs : 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
     private void endGame(String code) {
         Optional<GameSession> opt = gameRepository.findByCode(code);
         if (opt.isEmpty()) return;
         GameSession gs = opt.get();
         meterRegistry.counter("game.rooms.end.invocations").increment();
-        // Sync arena scores back to game session before finishing
+        // Sync arena scores back to game session before finishing, from the room's latest published snapshot
+        java.util.Map<String, Double> territory = new java.util.HashMap<>();
         try {
-            var st = arenaService.getState(code);
-            if (st != null && st.players != null) {
+            var snap = arenaService.getSnapshot(code);
+            if (snap != null) {
                 for (var p : gs.getPlayers()) {
-                    var pl2d = st.players.get(p.playerId);
-                    if (pl2d != null) p.score = pl2d.score;
+                    Integer score = snap.score(p.playerId);
+                    if (score != null) {
+                        p.score = score;
+                        territory.put(p.playerId, snap.territory(p.playerId));
+                    }
                 }
             }
         } catch (Exception ignored) {}
@@ -501,7 +531,7 @@ public class GameService {
         // publish final standings
         var standings = gs.getPlayers().stream()
             .sorted(Comparator.comparingInt(p -> -p.score))
-            .map(p -> Map.of("playerId", p.playerId, "nickname", p.nickname, "avatar", p.avatar == null ? null : sanitizeAvatar(p.avatar), "score", p.score))
+            .map(p -> Map.of("playerId", p.playerId, "nickname", p.nickname, "avatar", p.avatar == null ? null : sanitizeAvatar(p.avatar), "score", p.score, "territory", territory.getOrDefault(p.playerId, 0.0)))
             .collect(Collectors.toList());
         messagingTemplate.convertAndSend(String.format("/topic/board/%s/end", code), Map.of("code", code, "standings", standings));
         try { arenaService.stopGame(code); } catch (Exception ignored) {}
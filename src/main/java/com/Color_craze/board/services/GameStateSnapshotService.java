@@ -8,9 +8,10 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
 import java.time.Duration;
+import java.util.Base64;
 
 /**
- * Snapshot persistence for GameSession state.
+ * Snapshot persistence for GameSession state, board snapshots and arena checkpoints.
  * Uses Redis if configured; otherwise falls back to in-memory map.
  */
 @Component
@@ -77,4 +78,29 @@ public class GameStateSnapshotService {
         }
     }
     private String boardKey(String code) { return "board:" + code; }
+
+    // Arena checkpoints (binary, see ArenaCheckpoints), kept as base64 next to the JSON snapshots
+    public void saveArena(String code, byte[] checkpoint) {
+        String key = arenaKey(code);
+        String value = Base64.getEncoder().encodeToString(checkpoint);
+        if (redis != null) {
+            redis.opsForValue().set(key, value, Duration.ofSeconds(ttlSeconds));
+        } else {
+            fallback.put(key, value);
+        }
+    }
+    public byte[] loadArena(String code) {
+        String key = arenaKey(code);
+        String value = redis != null ? redis.opsForValue().get(key) : fallback.get(key);
+        return value != null ? Base64.getDecoder().decode(value) : null;
+    }
+    public void deleteArena(String code) {
+        String key = arenaKey(code);
+        if (redis != null) {
+            redis.delete(key);
+        } else {
+            fallback.remove(key);
+        }
+    }
+    private String arenaKey(String code) { return "arena:" + code; }
 }
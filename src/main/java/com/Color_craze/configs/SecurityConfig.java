@@ -36,7 +36,9 @@ public class SecurityConfig {
                     "/api/auth/guest-token",
                     "/api/auth/guest",
                     "/api/games",
-                    "/api/games/**"
+                    "/api/games/**",
+                    "/api/arena/maps",
+                    "/api/arena/maps/**"
                 ).permitAll()
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
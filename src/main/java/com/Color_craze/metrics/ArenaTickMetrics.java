@@ -0,0 +1,92 @@
+package com.Color_craze.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.Color_craze.board.arena.services.ArenaMetrics;
+import com.Color_craze.board.arena.services.ArenaTickEngine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the arena loops per shard: arena.tick.duration (wall time of a shard tick over all
+ * its rooms), arena.tick.lag (start vs when the tick was due), arena.tick.overruns (ticks over
+ * the tick period), arena.tick.dropped, arena.tick.players and arena.tick.cells.changed (work
+ * per tick), arena.broadcast.duration and arena.broadcast.messages, and an arena.shard.rooms
+ * gauge. Percentile histograms are enabled in application.properties.
+ */
+@Component
+public class ArenaTickMetrics implements ArenaMetrics {
+    private final Timer[] tickDuration;
+    private final Timer[] tickLag;
+    private final Counter[] overruns;
+    private final DistributionSummary[] players;
+    private final DistributionSummary[] cellsChanged;
+    private final Timer[] broadcastDuration;
+    private final DistributionSummary[] broadcastMessages;
+
+    public ArenaTickMetrics(MeterRegistry registry, ArenaTickEngine engine) {
+        int n = engine.shardCount();
+        tickDuration = new Timer[n];
+        tickLag = new Timer[n];
+        overruns = new Counter[n];
+        players = new DistributionSummary[n];
+        cellsChanged = new DistributionSummary[n];
+        broadcastDuration = new Timer[n];
+        broadcastMessages = new DistributionSummary[n];
+        for (int i = 0; i < n; i++) {
+            final int index = i;
+            String shard = String.valueOf(i);
+            tickDuration[i] = Timer.builder("arena.tick.duration")
+                .description("Wall time of one shard tick: stepping and publishing all of its rooms")
+                .tag("shard", shard).register(registry);
+            tickLag[i] = Timer.builder("arena.tick.lag")
+                .description("How late a shard tick started after it became due")
+                .tag("shard", shard).register(registry);
+            overruns[i] = Counter.builder("arena.tick.overruns")
+                .description("Shard ticks that took longer than the tick period")
+                .tag("shard", shard).register(registry);
+            players[i] = DistributionSummary.builder("arena.tick.players")
+                .description("Players in the rooms a shard stepped on one tick")
+                .tag("shard", shard).register(registry);
+            cellsChanged[i] = DistributionSummary.builder("arena.tick.cells.changed")
+                .description("Paint cells changed by the rooms a shard stepped on one tick")
+                .tag("shard", shard).register(registry);
+            broadcastDuration[i] = Timer.builder("arena.broadcast.duration")
+                .description("Wall time to build, serialize and send one room snapshot")
+                .tag("shard", shard).register(registry);
+            broadcastMessages[i] = DistributionSummary.builder("arena.broadcast.messages")
+                .description("Messages sent for one room snapshot: shared topic plus viewers")
+                .tag("shard", shard).register(registry);
+            FunctionCounter.builder("arena.tick.dropped", engine, e -> e.droppedTicks(index))
+                .description("Ticks skipped because the shard fell too far behind")
+                .tag("shard", shard).register(registry);
+            Gauge.builder("arena.shard.rooms", engine, e -> e.roomCount(index))
+                .tag("shard", shard).register(registry);
+        }
+        engine.setMetrics(this);
+    }
+
+    @Override
+    public void tick(int shard, long lagNanos, long wallNanos, int playerCount, int changed) {
+        tickDuration[shard].record(wallNanos, TimeUnit.NANOSECONDS);
+        tickLag[shard].record(Math.max(0, lagNanos), TimeUnit.NANOSECONDS);
+        if (wallNanos > ArenaTickEngine.TICK_NANOS) overruns[shard].increment();
+        players[shard].record(playerCount);
+        cellsChanged[shard].record(changed);
+    }
+
+    @Override
+    public void broadcast(int shard, long wallNanos, int messages) {
+        // Rooms outside the engine (the startup warm-up) would skew the live numbers
+        if (shard < 0 || shard >= broadcastDuration.length) return;
+        broadcastDuration[shard].record(wallNanos, TimeUnit.NANOSECONDS);
+        broadcastMessages[shard].record(messages);
+    }
+}
@@ -0,0 +1,39 @@
+package com.Color_craze.admin;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+
+import com.Color_craze.board.arena.services.ArenaInspector;
+import com.Color_craze.board.services.BoardService;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Room inspector endpoint: grid boards ranked by players, only the top `limit` kept.
+ */
+class RoomAdminControllerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsTheBoardsWithTheMostPlayers() {
+        BoardService boards = new BoardService();
+        int[] players = { 2, 5, 1, 4, 3 };
+        for (int b = 0; b < players.length; b++) {
+            for (int i = 0; i < players[b]; i++) boards.ensurePlayerOnBoard("B" + b, "p" + b + "_" + i, ColorStatus.YELLOW);
+        }
+        RoomAdminController controller = new RoomAdminController(Mockito.mock(ArenaInspector.class), boards);
+
+        ResponseEntity<Map<String, Object>> resp = controller.rooms("cpu", 3);
+
+        assertEquals(5, resp.getBody().get("boardCount"));
+        List<Map<String, Object>> rows = (List<Map<String, Object>>) resp.getBody().get("boards");
+        assertEquals(List.of("B1", "B3", "B4"), rows.stream().map(r -> r.get("code")).toList());
+        assertEquals(List.of(5, 4, 3), rows.stream().map(r -> r.get("players")).toList());
+        assertTrue((Long) rows.get(0).get("retainedBytes") > 0);
+    }
+}
@@ -0,0 +1,63 @@
+package com.Color_craze.board.arena.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link ArenaEntities}: dense packing, stable ids and free-list reuse under random spawns and removals.
+ */
+class ArenaEntitiesTest {
+
+    @Test
+    void idsStayValidWhileDenseIndicesArePacked() {
+        ArenaEntities e = new ArenaEntities(64);
+        Random rnd = new Random(3);
+        // id -> the x it was spawned with
+        Map<Integer, Double> live = new HashMap<>();
+        for (int round = 0; round < 5000; round++) {
+            if (live.isEmpty() || (rnd.nextBoolean() && live.size() < e.capacity())) {
+                double x = rnd.nextDouble();
+                int id = e.spawn(ArenaEntities.PICKUP, x, 0, 0, 0, 100, 2);
+                assertNotEquals(ArenaEntities.NONE, id);
+                assertNull(live.put(id, x), "a live id is never handed out twice");
+            } else {
+                int id = live.keySet().stream().skip(rnd.nextInt(live.size())).findFirst().orElseThrow();
+                assertTrue(e.despawn(id));
+                live.remove(id);
+                assertFalse(e.despawn(id));
+            }
+            assertEquals(live.size(), e.size());
+            for (var en : live.entrySet()) {
+                int i = e.indexOf(en.getKey());
+                assertTrue(i >= 0 && i < e.size());
+                assertEquals(en.getKey(), e.id(i));
+                assertEquals(en.getValue(), e.x[i]);
+                assertEquals(2, e.owner[i]);
+            }
+        }
+    }
+
+    @Test
+    void fullStoreRefusesAndClearFreesEverything() {
+        ArenaEntities e = new ArenaEntities(4);
+        for (int k = 0; k < 4; k++) assertEquals(k, e.spawn(ArenaEntities.PROJECTILE, k, 0, 0, 0, 10, -1));
+        assertEquals(ArenaEntities.NONE, e.spawn(ArenaEntities.PROJECTILE, 9, 0, 0, 0, 10, -1));
+        // Walking down while removing sees every entity once
+        int seen = 0;
+        for (int i = e.size() - 1; i >= 0; i--) {
+            seen++;
+            if (e.x[i] % 2 == 0) e.removeAt(i);
+        }
+        assertEquals(4, seen);
+        assertEquals(2, e.size());
+        e.clear();
+        assertEquals(0, e.size());
+        assertEquals(ArenaEntities.NONE, e.indexOf(1));
+        assertEquals(0, e.spawn(ArenaEntities.HAZARD, 0, 0, 0, 0, 10, -1));
+    }
+}
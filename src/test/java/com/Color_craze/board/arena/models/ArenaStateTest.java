@@ -0,0 +1,216 @@
+package com.Color_craze.board.arena.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Owner tracking and incremental coverage counters of {@link ArenaState}.
+ */
+class ArenaStateTest {
+
+    @Test
+    void paintCellTracksPreviousOwnerAndCoverage() {
+        ArenaState st = new ArenaState(200, 100);
+        st.addPlatform(new Platform2D(0, 80, 200, 20, 10));
+        st.addPlatform(new Platform2D(50, 40, 100, 10, 10));
+        Player2D a = new Player2D("a", 0, 0, ColorStatus.YELLOW);
+        Player2D b = new Player2D("b", 0, 0, ColorStatus.PINK);
+        st.addPlayer(a);
+        st.addPlayer(b);
+        assertEquals(20, st.totalCells());
+        assertEquals(10, st.cellOffset(1));
+
+        assertEquals(-1, st.paintCell(3, a), "Unpainted cell has no previous owner");
+        assertEquals(-1, st.paintCell(12, a));
+        assertEquals(2, st.coverage(a.paint));
+        assertEquals(10.0, st.territoryPercent(a), 1e-9);
+
+        assertEquals(a.index, st.paintCell(12, b), "Steal reports the previous owner slot");
+        assertEquals(b.index, st.ownerAt(12));
+        assertEquals(1, st.coverage(a.paint));
+        assertEquals(1, st.coverage(b.paint));
+        assertEquals(b.paint, st.paintAt(1, 2));
+    }
+
+    @Test
+    void creditPaintKeepsCountersInStep() {
+        ArenaState st = new ArenaState(100, 100);
+        st.addPlatform(new Platform2D(0, 80, 100, 20, 4));
+        Player2D g = new Player2D("g", 0, 0, ColorStatus.GREEN);
+        st.addPlayer(g);
+        assertTrue(st.creditPaint(0, 1, g));
+        assertFalse(st.creditPaint(0, 1, g), "Own paint is a no-op");
+        assertFalse(st.creditPaint(0, 9, g), "Out of range cell is rejected");
+        assertEquals(1, st.coverage(g.paint));
+        assertEquals(g.index, st.ownerAt(1));
+    }
+
+    @Test
+    void sixteenPlayersSharingColorsKeepSeparateTerritory() {
+        ArenaState st = new ArenaState(1000, 100);
+        st.addPlatform(new Platform2D(0, 80, 1000, 20, 160));
+        ColorStatus[] colors = {ColorStatus.YELLOW, ColorStatus.PINK, ColorStatus.PURPLE, ColorStatus.GREEN};
+        for (int i = 0; i < ArenaState.MAX_PLAYERS; i++) st.addPlayer(new Player2D("p" + i, 0, 0, colors[i % 4]));
+        assertThrows(IllegalStateException.class, () -> st.addPlayer(new Player2D("extra", 0, 0, ColorStatus.PINK)));
+
+        for (int i = 0; i < ArenaState.MAX_PLAYERS; i++){
+            Player2D p = st.roster.get(i);
+            for (int c = 0; c <= i; c++) st.paintCell(i * 10 + c, p);
+        }
+        Player2D first = st.roster.get(0), sameColor = st.roster.get(4);
+        assertEquals(first.color, sameColor.color);
+        assertEquals(1, st.coverage(first.paint));
+        assertEquals(5, st.coverage(sameColor.paint), "Same color, separate counters");
+        assertEquals(15, st.ownerAt(150));
+        assertEquals(4, st.paintCell(40, first), "Steals report the slot even between same-colored players");
+    }
+
+    @Test
+    void paintChunksAreAllocatedOnFirstPaintAndClearedOnReset() {
+        ArenaState st = new ArenaState(1000, 100);
+        st.addPlatform(new Platform2D(0, 80, 1000, 20, 200));
+        Player2D a = new Player2D("a", 0, 0, ColorStatus.YELLOW);
+        st.addPlayer(a);
+        assertEquals(4, st.chunkCount(), "200 cells in chunks of " + ArenaState.CHUNK_CELLS);
+        assertEquals(0, st.allocatedChunks(), "Nothing is allocated before the first paint");
+        assertEquals(ArenaState.UNPAINTED, st.paintAt(150));
+        assertEquals(-1, st.ownerAt(150));
+
+        st.paintCell(150, a);
+        st.paintCell(151, a);
+        assertEquals(1, st.allocatedChunks());
+        assertEquals(2, st.chunkVersion(2), "Every change bumps its chunk's version");
+        assertEquals(0, st.chunkVersion(0));
+        byte[] flat = st.paint();
+        assertEquals(200, flat.length);
+        assertEquals(a.paint, flat[150]);
+        assertEquals(ArenaState.UNPAINTED, flat[10]);
+
+        assertTrue(st.chunkIntersects(2, 700, 0, 50, 100), "Cells 128-191 span x 640-960");
+        assertFalse(st.chunkIntersects(2, 0, 0, 500, 100));
+
+        st.reset();
+        assertEquals(ArenaState.UNPAINTED, st.paintAt(150));
+        assertEquals(0, st.chunkVersion(2));
+        assertEquals(1, st.allocatedChunks(), "Allocated chunks are kept for the next room");
+    }
+
+    @Test
+    void paintRangeMatchesCellByCellPaintingAndCountsPreviousOwners() {
+        ArenaState st = new ArenaState(1000, 100);
+        st.addPlatform(new Platform2D(0, 80, 1000, 20, 150));
+        st.addPlatform(new Platform2D(0, 40, 1000, 10, 150));
+        Player2D[] players = new Player2D[5];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player2D("p" + i, 0, 0, ColorStatus.YELLOW);
+            st.addPlayer(players[i]);
+        }
+        byte[] expected = new byte[st.totalCells()];
+        int[] before = new int[ArenaState.MAX_PLAYERS + 1];
+        java.util.SplittableRandom rnd = new java.util.SplittableRandom(7);
+        for (int round = 0; round < 2000; round++) {
+            Player2D p = players[rnd.nextInt(players.length)];
+            if (rnd.nextInt(3) == 0) {
+                int cell = rnd.nextInt(st.totalCells());
+                st.paintCell(cell, p);
+                expected[cell] = p.paint;
+                continue;
+            }
+            int from = rnd.nextInt(st.totalCells()), to = Math.min(st.totalCells(), from + 1 + rnd.nextInt(80));
+            int[] naive = new int[ArenaState.MAX_PLAYERS + 1];
+            for (int c = from; c < to; c++) naive[expected[c]]++;
+            java.util.Arrays.fill(expected, from, to, p.paint);
+
+            int changed = st.paintRange(from, to, p, before);
+            assertArrayEquals(naive, before, "previous owners of [" + from + ", " + to + ")");
+            assertEquals(to - from - naive[p.paint], changed);
+        }
+        assertArrayEquals(expected, st.paint());
+        for (Player2D p : players) {
+            int n = 0;
+            for (byte b : expected) if (b == p.paint) n++;
+            assertEquals(n, st.coverage(p.paint));
+        }
+
+        st.reset();
+        for (Player2D p : players) st.addPlayer(p);
+        assertEquals(10, st.paintRange(0, 10, players[0], before));
+        assertEquals(10, before[ArenaState.UNPAINTED], "reset clears the range index too");
+    }
+
+    @Test
+    void nearestUnpaintedMatchesAScanOverAllCells() {
+        ArenaState st = new ArenaState(6000, 400);
+        st.addPlatform(new Platform2D(0, 300, 700, 20, 70));
+        st.addPlatform(new Platform2D(100, 200, 390, 10, 130));
+        st.addPlatform(new Platform2D(600, 120, 50, 10, 5));
+        // Past 4096 cells the index needs more than one summary word
+        st.addPlatform(new Platform2D(0, 380, 6000, 20, 5000));
+        Player2D[] players = new Player2D[3];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player2D("p" + i, 0, 0, ColorStatus.YELLOW);
+            st.addPlayer(players[i]);
+        }
+        int[] before = new int[ArenaState.MAX_PLAYERS + 1];
+        java.util.SplittableRandom rnd = new java.util.SplittableRandom(11);
+        for (int round = 0; round < 3000; round++) {
+            int op = rnd.nextInt(10);
+            if (op < 4) {
+                st.paintCell(rnd.nextInt(st.totalCells()), players[rnd.nextInt(players.length)]);
+            } else if (op < 6) {
+                st.clearCell(rnd.nextInt(st.totalCells()));
+            } else if (op < 9) {
+                int from = rnd.nextInt(st.totalCells()), to = Math.min(st.totalCells(), from + 1 + rnd.nextInt(400));
+                st.paintRange(from, to, players[rnd.nextInt(players.length)], before);
+            } else if (round % 500 == 9) {
+                st.reset();
+                for (Player2D p : players) st.addPlayer(p);
+            }
+            double x = rnd.nextDouble(-100, 6100), y = rnd.nextDouble(0, 400);
+            assertEquals(scanNearestUnpainted(st, x, y), st.nearestUnpainted(x, y), "round " + round);
+        }
+        st.paintRange(0, st.totalCells(), players[0], before);
+        assertEquals(-1, st.nearestUnpainted(10, 10));
+        st.clearCell(4321);
+        assertEquals(4321, st.nearestUnpainted(10, 10));
+        assertEquals(3, st.platformOfCell(4321));
+    }
+
+    // Every cell of every platform, lowest index first on ties
+    private static int scanNearestUnpainted(ArenaState st, double x, double y) {
+        int best = -1;
+        double bestD2 = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < st.platforms.size(); i++) {
+            Platform2D pl = st.platforms.get(i);
+            double cellW = pl.width() / pl.cells();
+            for (int c = 0; c < pl.cells(); c++) {
+                if (st.paintAt(i, c) != ArenaState.UNPAINTED) continue;
+                double dx = st.platformX(i) + c * cellW + cellW * 0.5 - x, dy = st.platformY(i) - y;
+                if (dx * dx + dy * dy < bestD2) {
+                    bestD2 = dx * dx + dy * dy;
+                    best = st.cellOffset(i) + c;
+                }
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void playersBeyondTheSpawnSpotsStandBesideEarlierOnes() {
+        ArenaState st = new ArenaState(1000, 400);
+        st.addPlatform(new Platform2D(0, 300, 1000, 20, 100));
+        st.addSpawn(100, 268);
+        st.addSpawn(950, 268);
+        java.util.Set<Double> xs = new java.util.HashSet<>();
+        for (int i = 0; i < ArenaState.MAX_PLAYERS; i++) {
+            Player2D p = st.spawn("p" + i, ColorStatus.YELLOW);
+            assertEquals(268, p.y);
+            assertTrue(p.x >= 0 && p.x + Player2D.WIDTH <= 1000, "inside the arena: " + p.x);
+            if (p.x < 500) assertTrue(xs.add(p.x), "player " + i + " spawns on top of another");
+        }
+        assertEquals(8, xs.size());
+    }
+}
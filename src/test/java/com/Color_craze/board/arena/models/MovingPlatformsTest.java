@@ -0,0 +1,67 @@
+package com.Color_craze.board.arena.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Broadphase over fixed and moving platforms in {@link ArenaState}: after any sequence of moves it
+ * must answer exactly what a linear scan over the current positions would.
+ */
+class MovingPlatformsTest {
+
+    @Test
+    void queriesMatchALinearScanAtEveryTick() {
+        Random rnd = new Random(5);
+        double w = 1600, h = 900;
+        ArenaState st = new ArenaState(w, h);
+        for (int i = 0; i < 80; i++) {
+            double pw = 30 + rnd.nextDouble() * 200;
+            boolean moves = i % 3 == 0;
+            st.addPlatform(new Platform2D(rnd.nextDouble() * (w - pw), rnd.nextDouble() * (h - 40), pw, 10 + rnd.nextDouble() * 20, 10,
+                moves ? rnd.nextDouble() * 400 - 200 : 0, moves ? rnd.nextDouble() * 200 - 100 : 0, moves ? 60 + rnd.nextInt(600) : 0));
+        }
+        int[] out = new int[st.platforms.size()];
+        long tick = 0;
+        for (int step = 0; step < 400; step++) {
+            tick += 1 + rnd.nextInt(20);
+            st.movePlatforms(tick);
+            for (int q = 0; q < 20; q++) {
+                double x = rnd.nextDouble() * w - 50, y = rnd.nextDouble() * h - 50;
+                double qw = rnd.nextDouble() * 250, qh = rnd.nextDouble() * 150;
+                List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < st.platforms.size(); i++) {
+                    Platform2D pl = st.platforms.get(i);
+                    double t = pl.travelAt(tick), px = pl.x() + pl.travelX() * t, py = pl.y() + pl.travelY() * t;
+                    assertEquals(px, st.platformX(i), 1e-9);
+                    assertEquals(py, st.platformY(i), 1e-9);
+                    if (x < px + pl.width() && x + qw > px && y < py + pl.height() && y + qh > py) expected.add(i);
+                }
+                int n = st.queryPlatforms(x, y, qw, qh, out);
+                List<Integer> got = new ArrayList<>();
+                for (int k = 0; k < n; k++) got.add(out[k]);
+                assertEquals(expected, got, "query at tick " + tick);
+            }
+        }
+    }
+
+    @Test
+    void resetPutsPlatformsBackAtRest() {
+        ArenaState st = new ArenaState(1000, 400);
+        st.addPlatform(new Platform2D(100, 200, 200, 20, 20, 300, 0, 240));
+        assertTrue(st.hasMovingPlatforms());
+        st.movePlatforms(120);
+        assertEquals(400, st.platformX(0), 1e-9);
+        assertEquals(300, st.platformDX(0), 1e-9);
+        assertEquals(0, st.platformUnder(500, 200, 24, 3));
+        st.reset();
+        assertEquals(100, st.platformX(0), 1e-9);
+        assertEquals(0, st.platformDX(0));
+        assertEquals(-1, st.platformUnder(500, 200, 24, 3));
+        assertEquals(0, st.platformUnder(150, 200, 24, 3));
+    }
+}
@@ -0,0 +1,64 @@
+package com.Color_craze.board.arena.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link PlatformGrid} must answer exactly what a linear scan over the platforms would.
+ */
+class PlatformGridTest {
+
+    private static List<Platform2D> randomPlatforms(Random rnd, int n, double w, double h) {
+        List<Platform2D> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double pw = 20 + rnd.nextDouble() * 300;
+            out.add(new Platform2D(rnd.nextDouble() * (w - pw), rnd.nextDouble() * (h - 20), pw, 10 + rnd.nextDouble() * 20, 10));
+        }
+        return out;
+    }
+
+    @Test
+    void aabbQueryMatchesLinearScan() {
+        Random rnd = new Random(42);
+        double w = 4000, h = 1200;
+        List<Platform2D> platforms = randomPlatforms(rnd, 120, w, h);
+        PlatformGrid grid = new PlatformGrid(platforms, w, h);
+        int[] out = new int[platforms.size()];
+        for (int q = 0; q < 5000; q++) {
+            double x = rnd.nextDouble() * w - 50, y = rnd.nextDouble() * h - 50;
+            double qw = 10 + rnd.nextDouble() * 120, qh = 10 + rnd.nextDouble() * 120;
+            int n = grid.query(x, y, qw, qh, out);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < platforms.size(); i++) if (platforms.get(i).intersects(x, y, qw, qh)) expected.add(i);
+            List<Integer> actual = new ArrayList<>();
+            for (int k = 0; k < n; k++) actual.add(out[k]);
+            assertEquals(expected, actual, "query mismatch at " + x + "," + y);
+        }
+    }
+
+    @Test
+    void platformUnderMatchesLinearProbe() {
+        Random rnd = new Random(7);
+        double w = 2000, h = 800;
+        List<Platform2D> platforms = randomPlatforms(rnd, 60, w, h);
+        PlatformGrid grid = new PlatformGrid(platforms, w, h);
+        for (int q = 0; q < 5000; q++) {
+            // Half of the probes sit right on a platform top so hits are common
+            Platform2D target = platforms.get(rnd.nextInt(platforms.size()));
+            double x = q % 2 == 0 ? target.x() + rnd.nextDouble() * target.width() - 12 : rnd.nextDouble() * w;
+            double feet = q % 2 == 0 ? target.y() + (rnd.nextDouble() * 8 - 4) : rnd.nextDouble() * h;
+            int expected = -1;
+            for (int i = 0; i < platforms.size(); i++) {
+                Platform2D pl = platforms.get(i);
+                boolean over = (x + 24) > pl.x() && x < (pl.x() + pl.width());
+                if (over && Math.abs(feet - pl.y()) <= 3.0) { expected = i; break; }
+            }
+            assertEquals(expected, grid.platformUnder(x, feet, 24, 3.0));
+        }
+    }
+}
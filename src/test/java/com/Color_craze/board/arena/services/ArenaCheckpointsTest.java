@@ -0,0 +1,92 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.models.ArenaLayout;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.board.services.GameStateSnapshotService;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Crash-recovery checkpoints: captured on the owner thread, stored compressed by the writer, and
+ * restored into a fresh room with the same roster.
+ */
+class ArenaCheckpointsTest {
+    private static final List<PlayerEntry> PLAYERS = List.of(
+        new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+        new PlayerEntry("bot_CP", "CPU", ColorStatus.PINK));
+
+    @Test
+    void storedCheckpointRestoresPaintScoresAndTick() throws Exception {
+        GameStateSnapshotService store = new GameStateSnapshotService();
+        ArenaCheckpoints checkpoints = new ArenaCheckpoints(store);
+        ArenaRoom room = ArenaTestMaps.room("CP", PLAYERS);
+        ArenaState st = room.state;
+        Player2D one = st.roster.get(0), two = st.roster.get(1);
+        for (int c = 0; c < 40; c++) st.paintCell(c, one);
+        for (int c = 100; c < 110; c++) st.paintCell(c, two);
+        one.score = 40;
+        two.score = 10;
+        one.x = 321.5;
+        room.tick = 1234;
+
+        checkpoints.capture(room);
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (store.loadArena("CP") == null && System.nanoTime() < deadline) Thread.sleep(5);
+
+        byte[] stored = store.loadArena("CP");
+        assertNotNull(stored);
+        // Mostly unpainted paint and empty credit bitmaps compress to a small fraction
+        assertTrue(stored.length < ArenaLayout.size(st.totalCells()) / 4, "stored " + stored.length + " bytes");
+        ArenaCheckpoints.Checkpoint cp = checkpoints.load("CP");
+        assertEquals(st.mapId, cp.mapId());
+        assertEquals(1234, cp.tick());
+
+        ArenaRoom resumed = ArenaTestMaps.room("CP", PLAYERS);
+        assertEquals(1234, resumed.state.restore(cp.layout()));
+        for (int c = 0; c < st.totalCells(); c++) assertEquals(st.paintAt(c), resumed.state.paintAt(c), "cell " + c);
+        assertEquals(40, resumed.state.roster.get(0).score);
+        assertEquals(10, resumed.state.roster.get(1).score);
+        assertEquals(321.5, resumed.state.roster.get(0).x);
+
+        checkpoints.delete("CP");
+        assertNull(checkpoints.load("CP"));
+        checkpoints.shutdown();
+    }
+
+    @Test
+    void capturesWhenDueOrRequestedOnly() {
+        ArenaCheckpoints checkpoints = new ArenaCheckpoints(new GameStateSnapshotService());
+        ArenaRoom room = ArenaTestMaps.room("CQ", PLAYERS);
+        room.tick = 100;
+        room.lastCheckpointTick = 0;
+        checkpoints.maybeCapture(room);
+        assertEquals(0, room.lastCheckpointTick);
+
+        room.checkpointRequested = true;
+        checkpoints.maybeCapture(room);
+        assertEquals(100, room.lastCheckpointTick);
+        assertFalse(room.checkpointRequested);
+
+        room.tick = 700;
+        checkpoints.maybeCapture(room);
+        assertEquals(700, room.lastCheckpointTick);
+        checkpoints.shutdown();
+    }
+
+    @Test
+    void unreadableCheckpointIsIgnored() throws Exception {
+        GameStateSnapshotService store = new GameStateSnapshotService();
+        ArenaCheckpoints checkpoints = new ArenaCheckpoints(store);
+        store.saveArena("BAD", new byte[] { 1, 0, 0, 0, 0, 1, 2, 3 });
+        assertNull(checkpoints.load("BAD"));
+        assertNull(checkpoints.load("NONE"));
+        checkpoints.shutdown();
+    }
+}
@@ -0,0 +1,102 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.models.ArenaEntities;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Platform2D;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Entities on the arena tick: projectiles splat paint, pickups recharge bombs, everything expires,
+ * and a room with 1,000 live entities steps without allocating.
+ */
+class ArenaEntityTickTest {
+
+    private static final int LIVE = 1000;
+    private static final int TICKS = 5_000;
+    private static final long BUDGET_BYTES = 16 * 1024;
+
+    @Test
+    void projectilesSplatPaintAndPickupsRechargeTheBomb() {
+        ArenaState st = new ArenaState(1000, 400);
+        st.addPlatform(new Platform2D(0, 300, 1000, 20, 100));
+        ArenaRoom room = ArenaService.newRoom("ENT", st, List.of(new PlayerEntry("p1", "One", ColorStatus.YELLOW)));
+        Player2D p = st.roster.get(0);
+        p.x = 800;
+        p.y = 300 - Player2D.HEIGHT;
+        ArenaEntities e = st.entities();
+        // Dropped straight down onto cell 50
+        int shot = e.spawn(ArenaEntities.PROJECTILE, 505, 200, 0, 0, 10_000, 0);
+        int pickup = e.spawn(ArenaEntities.PICKUP, 812, 284, 0, 0, 10_000, -1);
+        int fading = e.spawn(ArenaEntities.HAZARD, 100, 100, 0, 0, 3, -1);
+        p.lastBombTick = 0;
+
+        ArenaSimulation physics = new ArenaSimulation();
+        for (int i = 0; i < 120; i++) {
+            room.tick++;
+            physics.step(room);
+        }
+        assertEquals(ArenaEntities.NONE, e.indexOf(shot), "landed");
+        for (int c = 0; c < 100; c++) {
+            boolean splat = c >= 49 && c <= 51;
+            if (splat) assertEquals(p.paint, st.paintAt(c), "cell " + c);
+        }
+        assertTrue(p.score >= 3);
+        assertEquals(ArenaEntities.NONE, e.indexOf(pickup), "picked up");
+        assertTrue(room.tick - p.lastBombTick >= ArenaSimulation.BOMB_COOLDOWN_TICKS, "bomb is ready again");
+        assertEquals(ArenaEntities.NONE, e.indexOf(fading), "expired");
+        assertEquals(0, e.size());
+    }
+
+    @Test
+    void thousandLiveEntitiesStepWithoutAllocating() {
+        var mx = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(mx instanceof com.sun.management.ThreadMXBean, "Per-thread allocation counters not available");
+        var threads = (com.sun.management.ThreadMXBean) mx;
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        ArenaRoom room = ArenaTestMaps.room("ENTS", List.of(
+            new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+            new PlayerEntry("bot_ENTS", "CPU", ColorStatus.GREEN)));
+        ArenaSimulation sim = new ArenaSimulation();
+        ArenaEntities e = room.state.entities();
+        for (int k = 0; k < 300; k++) e.spawn(ArenaEntities.HAZARD, 10 + k * 3, 20, k % 2 == 0 ? 5 : -5, 0, Long.MAX_VALUE, -1);
+        for (int k = 0; k < 200; k++) e.spawn(ArenaEntities.PICKUP, 15 + k * 4, 5, 0, 0, Long.MAX_VALUE, -1);
+
+        drive(room, sim, TICKS);
+        long tid = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(tid);
+        drive(room, sim, TICKS);
+        long allocated = threads.getThreadAllocatedBytes(tid) - before;
+
+        assertTrue(allocated < BUDGET_BYTES,
+            "Ticks with " + LIVE + " entities allocated " + allocated + " bytes over " + TICKS + " ticks (budget " + BUDGET_BYTES + ")");
+        int painted = 0;
+        for (byte c : room.state.paint()) if (c != 0) painted++;
+        assertTrue(painted > 0, "Projectiles and players should have painted cells");
+    }
+
+    // Keeps the room at LIVE entities: projectiles that landed or expired are replaced every tick
+    private static void drive(ArenaRoom room, ArenaSimulation sim, int ticks) {
+        ArenaEntities e = room.state.entities();
+        for (int t = 0; t < ticks; t++) {
+            for (int k = 0; e.size() < LIVE; k++) {
+                double x = (t * 37 + k * 53) % 960 + 10;
+                e.spawn(ArenaEntities.PROJECTILE, x, 10, (k % 7) * 20 - 60, 0, room.tick + 240, k % 2);
+            }
+            assertEquals(LIVE, e.size());
+            room.tick++;
+            sim.step(room);
+        }
+    }
+}
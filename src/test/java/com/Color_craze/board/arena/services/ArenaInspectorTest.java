@@ -0,0 +1,95 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.Color_craze.board.arena.dtos.ArenaRoomStats;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Room inspector ranking: top-N by the counters rooms keep, tick percentiles from the sample ring
+ * and retained size estimates, refreshed at a low cadence rather than on every publish.
+ */
+class ArenaInspectorTest {
+
+    // A clock that never moves: rooms are registered but never ticked, so only the counters set here count
+    private final ArenaTickEngine engine = new ArenaTickEngine(1, 4, () -> 0L);
+    private final ArenaService arenas;
+
+    ArenaInspectorTest() {
+        SimpMessagingTemplate template = new SimpMessagingTemplate((msg, timeout) -> true);
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        arenas = new ArenaService(template, engine, new ArenaSubscriptions(), ArenaTestMaps.catalog());
+        arenas.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        arenas.shutdown();
+        engine.shutdown();
+    }
+
+    private ArenaRoom start(String code, int players) {
+        List<PlayerEntry> entries = new java.util.ArrayList<>();
+        for (int i = 0; i < players; i++) entries.add(new PlayerEntry(code + "_p" + i, "P" + i, ColorStatus.YELLOW));
+        arenas.initGame(code, entries);
+        return arenas.rooms().stream().filter(r -> r.code.equals(code)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void ranksRoomsAndKeepsOnlyTheTopN() {
+        ArenaRoom cold = start("COLD", 2);
+        ArenaRoom warm = start("WARM", 2);
+        ArenaRoom hot = start("HOT", 8);
+        for (int i = 0; i < 200; i++) {
+            cold.recordTick(10_000);
+            warm.recordTick(50_000);
+            hot.recordTick(i < 199 ? 100_000 : 900_000);
+        }
+        hot.recordSent(10, 1_000);
+        warm.recordSent(40, 4_000);
+
+        ArenaInspector inspector = new ArenaInspector(arenas, engine);
+        assertEquals(3, inspector.roomCount());
+        // First call: rates over each room's whole life
+        assertEquals("WARM", inspector.top(ArenaInspector.Sort.FRAMES, 1).get(0).code());
+
+        List<ArenaRoomStats> byTick = inspector.top(ArenaInspector.Sort.TICK, 2);
+        assertEquals(List.of("HOT", "WARM"), byTick.stream().map(ArenaRoomStats::code).toList());
+        ArenaRoomStats h = byTick.get(0);
+        assertEquals(100.0, h.tickP50Us(), 1e-9);
+        assertEquals(900.0, h.tickMaxUs(), 1e-9, "the slowest of the last 128 ticks");
+        assertEquals(8, h.players());
+        assertTrue(h.cpuMs() > 0);
+
+        // Rates cover the time since the previous call: nothing was sent since, so all rooms read 0
+        assertEquals(0.0, inspector.top(ArenaInspector.Sort.FRAMES, 1).get(0).framesPerSec());
+
+        List<ArenaRoomStats> byMemory = inspector.top(ArenaInspector.Sort.MEMORY, 3);
+        assertEquals("HOT", byMemory.get(0).code(), "more players, more retained bytes");
+        assertTrue(byMemory.get(2).retainedBytes() > 0);
+    }
+
+    @Test
+    void memoryEstimateIsRefreshedAtALowCadenceNotOnEveryPublish() {
+        ArenaRoom room = ArenaTestMaps.room("MEM", List.of(new PlayerEntry("p1", "One", ColorStatus.YELLOW)));
+        long initial = room.retainedBytes;
+        // Paint in many chunks, then publish poses within the refresh interval: the figure stays put
+        for (int c = 0; c < room.state.totalCells(); c += 64) room.state.paintCell(c, room.state.roster.get(0));
+        room.tick = ArenaRoom.MEMORY_REFRESH_TICKS - 1;
+        room.publish(false);
+        assertEquals(initial, room.retainedBytes);
+
+        room.tick = ArenaRoom.MEMORY_REFRESH_TICKS;
+        room.publish(false);
+        assertEquals(room.estimatedBytes(), room.retainedBytes);
+        assertTrue(room.retainedBytes > initial, "allocated paint chunks are counted");
+    }
+}
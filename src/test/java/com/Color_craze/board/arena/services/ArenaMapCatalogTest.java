@@ -0,0 +1,80 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.dtos.ArenaMapResponse;
+import com.Color_craze.board.arena.models.ArenaMap;
+import com.Color_craze.board.arena.models.ArenaState;
+
+/**
+ * Loading and compiling catalog maps, and content-addressed map ids.
+ */
+class ArenaMapCatalogTest {
+
+    private static ArenaMapCatalog.MapFile file(String name, double groundY) {
+        return new ArenaMapCatalog.MapFile(name, 400, 300,
+            List.of(new ArenaMapResponse.Platform(0, groundY, 400, 20, 80)),
+            List.of(new ArenaMapResponse.Spawn(10, groundY - 32)));
+    }
+
+    @Test
+    void bundledClassicMapIsLoadedAndCompiled() {
+        ArenaMapCatalog catalog = ArenaTestMaps.catalog();
+        ArenaMap classic = catalog.defaultMap();
+        assertEquals("classic", classic.name);
+        assertSame(classic, catalog.get(classic.id));
+        assertEquals(7, classic.platforms.size());
+        assertEquals(444, classic.totalCells());
+        assertEquals(ArenaState.MAX_PLAYERS, classic.spawnCount());
+
+        ArenaState st = classic.newState();
+        assertEquals(classic.id, st.mapId);
+        assertEquals(444, st.totalCells());
+        assertSame(st.collisionIndex(), classic.newState().collisionIndex(), "States share the map's compiled grid");
+
+        ArenaMapResponse described = catalog.describe(classic.id);
+        assertEquals(classic.id, described.id());
+        assertEquals(7, described.platforms().size());
+        assertEquals(ArenaState.CHUNK_CELLS, described.chunkCells());
+        assertNull(catalog.describe("nope"));
+    }
+
+    @Test
+    void idFollowsGeometryNotName() {
+        ArenaMap a = ArenaMapCatalog.compile(file("a", 280));
+        ArenaMap b = ArenaMapCatalog.compile(file("b", 280));
+        ArenaMap c = ArenaMapCatalog.compile(file("a", 281));
+        assertEquals(a.id, b.id, "Same geometry, same id");
+        assertNotEquals(a.id, c.id, "Moving a platform changes the id");
+        assertEquals(16, a.id.length());
+    }
+
+    @Test
+    void unknownDefaultFallsBackToALoadedMap() throws Exception {
+        ArenaMapCatalog catalog = new ArenaMapCatalog("classpath*:arena/maps/*.json", "missing");
+        assertNotNull(catalog.defaultMap());
+        assertThrows(IllegalStateException.class, () -> new ArenaMapCatalog("classpath*:arena/none/*.json", "classic"));
+    }
+
+    @Test
+    void everyBundledMapSpawnsAFullRoomApartOnFixedPlatforms() {
+        for (ArenaMap map : ArenaTestMaps.catalog().all()) {
+            ArenaState st = map.newState();
+            java.util.Set<String> spots = new java.util.HashSet<>();
+            for (int i = 0; i < ArenaState.MAX_PLAYERS; i++) {
+                var p = st.spawn("p" + i, com.Color_craze.utils.enums.ColorStatus.YELLOW);
+                assertTrue(spots.add(p.x + "," + p.y), map.name + ": player " + i + " spawns on top of another");
+                boolean standing = false;
+                for (var pl : st.platforms) {
+                    standing |= !pl.moves() && p.y + com.Color_craze.board.arena.models.Player2D.HEIGHT == pl.y()
+                        && p.x >= pl.x() && p.x + com.Color_craze.board.arena.models.Player2D.WIDTH <= pl.x() + pl.width();
+                }
+                assertTrue(standing, map.name + ": player " + i + " does not spawn on a fixed platform");
+            }
+        }
+    }
+}
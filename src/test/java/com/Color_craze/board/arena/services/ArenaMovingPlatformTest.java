@@ -0,0 +1,48 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Platform2D;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Moving platforms in a stepped room: riders are carried along and their paint stays attached to
+ * the platform's cells rather than to map coordinates.
+ */
+class ArenaMovingPlatformTest {
+
+    @Test
+    void riderIsCarriedAndPaintsTheSameCellsOfTheMovingPlatform() {
+        ArenaState st = new ArenaState(1000, 400);
+        st.addPlatform(new Platform2D(0, 380, 1000, 20, 100));
+        // 10-unit cells sliding 300 units right and back every 240 ticks
+        st.addPlatform(new Platform2D(100, 200, 200, 20, 20, 300, 0, 240));
+        ArenaRoom room = ArenaService.newRoom("RIDE", st, List.of(new PlayerEntry("p1", "One", ColorStatus.YELLOW)));
+        Player2D p = st.roster.get(0);
+        p.x = 185;
+        p.y = 200 - Player2D.HEIGHT;
+        room.ground[0] = 1; // standing there since the previous step
+
+        ArenaSimulation physics = new ArenaSimulation();
+        for (int i = 0; i < 240; i++) {
+            room.tick++;
+            physics.step(room);
+            assertTrue(p.onGround, "still standing at tick " + room.tick);
+            assertEquals(1, room.ground[0]);
+            assertEquals(85, p.x - st.platformX(1), 1e-6, "keeps its spot on the platform");
+        }
+        // Only the cells under the feet: 85..109 relative, cells 8..10 of platform 1
+        for (int c = 0; c < 20; c++) {
+            byte expected = c >= 8 && c <= 10 ? p.paint : ArenaState.UNPAINTED;
+            assertEquals(expected, st.paintAt(1, c), "cell " + c);
+        }
+        assertEquals(3, st.coverage(p.paint));
+    }
+}
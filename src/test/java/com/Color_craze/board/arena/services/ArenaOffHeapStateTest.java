@@ -0,0 +1,108 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.Color_craze.board.arena.models.ArenaLayout;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Off-heap arena states: same game as on the heap, the same checkpoint bytes, and a checkpoint
+ * written from the region to a file restores into a fresh room.
+ */
+class ArenaOffHeapStateTest {
+
+    private static final List<PlayerEntry> PLAYERS = List.of(
+        new PlayerEntry("bot_a", "A", ColorStatus.YELLOW),
+        new PlayerEntry("bot_b", "B", ColorStatus.PINK),
+        new PlayerEntry("bot_c", "C", ColorStatus.GREEN));
+
+    private static ArenaRoom room(boolean offHeap) {
+        ArenaState st = ArenaTestMaps.classic().newState();
+        if (offHeap) st.useOffHeap();
+        return ArenaService.newRoom("OFFHEAP", st, PLAYERS);
+    }
+
+    private static void run(ArenaRoom room, int ticks) {
+        ArenaSimulation physics = new ArenaSimulation();
+        ArenaTickEngine.Simulation sim = new ArenaTickEngine.Simulation() {
+            @Override public void step(ArenaRoom r) { physics.step(r); }
+            @Override public void publish(ArenaRoom r, boolean includePaint) {}
+        };
+        for (int t = 0; t < ticks; t++) ArenaTickEngine.advance(room, sim);
+    }
+
+    @Test
+    void offHeapStatePlaysAndCheckpointsLikeTheHeapOne() {
+        ArenaRoom heap = room(false), direct = room(true);
+        run(heap, 3000);
+        run(direct, 3000);
+
+        assertTrue(direct.state.isOffHeap());
+        assertArrayEquals(heap.state.paint(), direct.state.paint());
+        for (int i = 0; i < PLAYERS.size(); i++) {
+            assertEquals(heap.state.roster.get(i).score, direct.state.roster.get(i).score);
+        }
+        int size = ArenaLayout.size(heap.state.totalCells());
+        ByteBuffer a = ByteBuffer.allocate(size), b = ByteBuffer.allocate(size);
+        assertEquals(size, heap.state.checkpoint(a, heap.tick()));
+        direct.state.checkpoint(b, direct.tick());
+        assertArrayEquals(a.array(), b.array(), "one layout whatever the storage");
+    }
+
+    @Test
+    void regionWrittenToAFileRestoresIntoAFreshRoom(@TempDir Path dir) throws Exception {
+        ArenaRoom live = room(true);
+        run(live, 2000);
+        Path file = dir.resolve("OFFHEAP.arena");
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ByteBuffer region = live.state.region(live.tick());
+            while (region.hasRemaining()) ch.write(region);
+        }
+        assertEquals(ArenaLayout.size(live.state.totalCells()), Files.size(file));
+
+        ArenaRoom restored = room(false);
+        ByteBuffer in = ByteBuffer.allocateDirect((int) Files.size(file));
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (in.hasRemaining() && ch.read(in) >= 0) { }
+        }
+        in.flip();
+        assertEquals(live.tick(), restored.state.restore(in));
+        assertFalse(in.hasRemaining());
+
+        assertArrayEquals(live.state.paint(), restored.state.paint());
+        for (int i = 0; i < PLAYERS.size(); i++) {
+            Player2D p = live.state.roster.get(i), q = restored.state.roster.get(i);
+            assertEquals(p.x, q.x);
+            assertEquals(p.vy, q.vy);
+            assertEquals(p.score, q.score);
+            assertEquals(p.credited, q.credited);
+            assertEquals(live.state.coverage(p.paint), restored.state.coverage(q.paint));
+        }
+    }
+
+    @Test
+    void checkpointForAnotherRosterIsRejectedWithoutChanges() {
+        ArenaRoom live = room(true);
+        run(live, 500);
+        ByteBuffer cp = ByteBuffer.allocate(ArenaLayout.size(live.state.totalCells()));
+        live.state.checkpoint(cp, live.tick());
+        cp.flip();
+
+        ArenaRoom other = ArenaService.newRoom("OTHER", ArenaTestMaps.classic().newState(), PLAYERS.subList(0, 2));
+        assertThrows(IllegalArgumentException.class, () -> other.state.restore(cp));
+        assertEquals(0, other.state.allocatedChunks());
+    }
+}
@@ -0,0 +1,60 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.dtos.ArenaInput;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Platform2D;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Paint bombs: a radius painted as one range per platform, scored from the previous owners, with a
+ * cooldown between bombs.
+ */
+class ArenaPaintBombTest {
+
+    @Test
+    void bombPaintsTheRadiusAndMovesPointsFromPreviousOwners() {
+        ArenaState st = new ArenaState(1000, 400);
+        // 100 cells of 10 units on the floor platform
+        st.addPlatform(new Platform2D(0, 300, 1000, 20, 100));
+        ArenaRoom room = ArenaService.newRoom("BOMB", st, List.of(
+            new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+            new PlayerEntry("p2", "Two", ColorStatus.PINK)));
+        Player2D bomber = st.roster.get(0), victim = st.roster.get(1);
+        // Victim owns cells 40..59; bomber stands on the platform centered at x = 500
+        for (int c = 40; c < 60; c++) st.paintCell(c, victim);
+        victim.score = 30;
+        bomber.x = 500 - Player2D.WIDTH / 2;
+        bomber.y = 300 - Player2D.HEIGHT;
+
+        ArenaSimulation physics = new ArenaSimulation();
+        room.offer(new ArenaInput("BOMB", "p1", false, false, false, true));
+        physics.beginStep(room);
+
+        // Cell centers within sqrt(96^2 - 16^2) ~ 94.7 of x = 500: cells 41..58
+        for (int c = 0; c < 100; c++) {
+            byte expected = c >= 41 && c <= 58 ? bomber.paint : (c == 40 || c == 59 ? victim.paint : ArenaState.UNPAINTED);
+            assertEquals(expected, st.paintAt(c), "cell " + c);
+        }
+        assertEquals(18, bomber.score);
+        assertEquals(12, victim.score);
+        assertEquals(18, st.coverage(bomber.paint));
+        assertEquals(2, st.coverage(victim.paint));
+        assertTrue(bomber.credited.get(41) && !victim.credited.get(41));
+
+        // A second bomb right away is held back by the cooldown
+        victim.x = 100;
+        room.offer(new ArenaInput("BOMB", "p1", false, false, false, true));
+        bomber.x = 100;
+        physics.beginStep(room);
+        assertEquals(18, bomber.score);
+        assertEquals(ArenaState.UNPAINTED, st.paintAt(10));
+    }
+}
@@ -0,0 +1,70 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Parallel region stepping gives the serial step's game exactly: positions, paint and scores
+ * compared tick by tick, at 120 Hz and with swept collision at 30 Hz.
+ */
+class ArenaRegionStepTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static ArenaRoom room(int hz) {
+        List<PlayerEntry> bots = new ArrayList<>();
+        ColorStatus[] colors = {ColorStatus.YELLOW, ColorStatus.PINK, ColorStatus.PURPLE, ColorStatus.GREEN};
+        for (int i = 0; i < ArenaState.MAX_PLAYERS; i++) bots.add(new PlayerEntry("bot_" + i, "CPU", colors[i % 4]));
+        ArenaRoom room = ArenaTestMaps.room("REGIONS", bots);
+        room.setTickRate(hz, false);
+        return room;
+    }
+
+    private void assertSameGame(int hz) {
+        ArenaSimulation physics = new ArenaSimulation();
+        ArenaRoom serial = room(hz), parallel = room(hz);
+        parallel.regions = new ArenaRegionStep(pool, physics, parallel, 4);
+        ArenaTickEngine.Simulation sim = new ArenaTickEngine.Simulation() {
+            @Override public void step(ArenaRoom r) { physics.step(r); }
+            @Override public void publish(ArenaRoom r, boolean includePaint) {}
+        };
+        for (int t = 0; t < 3000; t++) {
+            ArenaTickEngine.advance(serial, sim);
+            ArenaTickEngine.advance(parallel, sim);
+            for (int i = 0; i < ArenaState.MAX_PLAYERS; i++) {
+                Player2D a = serial.state.roster.get(i), b = parallel.state.roster.get(i);
+                assertEquals(a.x, b.x, "x of slot " + i + " at tick " + t);
+                assertEquals(a.y, b.y, "y of slot " + i + " at tick " + t);
+                assertEquals(a.score, b.score, "score of slot " + i + " at tick " + t);
+            }
+        }
+        assertArrayEquals(serial.state.paint(), parallel.state.paint());
+        assertTrue(serial.state.allocatedChunks() > 0, "bots painted something");
+    }
+
+    @Test
+    void parallelStepMatchesSerialAt120Hz() {
+        assertSameGame(120);
+    }
+
+    @Test
+    void parallelStepMatchesSerialWithSweptCollisionAt30Hz() {
+        assertSameGame(30);
+    }
+}
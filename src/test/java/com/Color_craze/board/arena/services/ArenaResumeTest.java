@@ -0,0 +1,127 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.Color_craze.board.arena.models.ArenaLayout;
+import com.Color_craze.board.arena.models.ArenaMap;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.board.services.GameStateSnapshotService;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * ArenaService.resumeGame: a stored checkpoint comes back as a registered room on its own map, with
+ * scores readable right away, decay re-seeded and the idle clock starting at the restored tick;
+ * checkpoints that are missing or do not fit the roster resume nothing.
+ */
+class ArenaResumeTest {
+    private static final List<PlayerEntry> PLAYERS = List.of(
+        new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+        new PlayerEntry("bot_RS", "CPU", ColorStatus.PINK));
+
+    // A clock that never moves: resumed rooms are registered but never ticked
+    private final ArenaTickEngine engine = new ArenaTickEngine(1, 4, () -> 0L);
+    private final GameStateSnapshotService store = new GameStateSnapshotService();
+    private final ArenaCheckpoints checkpoints = new ArenaCheckpoints(store);
+    private final ArenaService arenas;
+
+    ArenaResumeTest() {
+        SimpMessagingTemplate template = new SimpMessagingTemplate((msg, timeout) -> true);
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        arenas = new ArenaService(template, engine, new ArenaSubscriptions(), ArenaTestMaps.catalog());
+        ReflectionTestUtils.setField(arenas, "checkpoints", checkpoints);
+        arenas.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        arenas.shutdown();
+        engine.shutdown();
+        checkpoints.shutdown();
+    }
+
+    private static ArenaMap drift() {
+        return ArenaTestMaps.catalog().all().stream().filter(m -> m.name.equals("drift")).findFirst().orElseThrow();
+    }
+
+    // Stores a checkpoint of a state on the given map: p1 owns the first 30 cells, the bot the next 5
+    private void store(String code, ArenaMap map, String mapId, List<PlayerEntry> players, long tick) throws Exception {
+        ArenaState st = map.newState();
+        ArenaRoom room = ArenaService.newRoom(code, st, players);
+        Player2D one = st.roster.get(0);
+        for (int c = 0; c < 30; c++) st.paintCell(c, one);
+        one.score = 30;
+        if (st.roster.size() > 1) {
+            for (int c = 30; c < 35; c++) st.paintCell(c, st.roster.get(1));
+            st.roster.get(1).score = 5;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(ArenaLayout.size(st.totalCells()));
+        st.checkpoint(buf, tick);
+        buf.flip();
+        store.saveArena(room.code, ArenaCheckpoints.encode(mapId, buf));
+    }
+
+    private ArenaRoom room(String code) {
+        return arenas.rooms().stream().filter(r -> r.code.equals(code)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void resumesOnTheCheckpointsMapWithScoresDecayAndTick() throws Exception {
+        ReflectionTestUtils.setField(arenas, "paintDecayMs", 2000L);
+        ArenaMap drift = drift();
+        assertNotEquals(ArenaTestMaps.classic().id, drift.id);
+        store("RS", drift, drift.id, PLAYERS, 1234);
+
+        ArenaState st = arenas.resumeGame("RS", PLAYERS);
+        assertNotNull(st);
+        assertEquals(drift.id, st.mapId, "state comes from the checkpoint's map pool");
+        ArenaRoom room = room("RS");
+        assertSame(st, room.state);
+        assertEquals(1234, room.tick());
+        assertEquals(30, st.coverage(st.roster.get(0).paint));
+
+        // Published before the first tick, so endGame finds the scores even if nothing ever ticks
+        ArenaSnapshot snap = arenas.getSnapshot("RS");
+        assertNotNull(snap);
+        assertEquals(30, snap.score("p1"));
+        assertEquals(5, snap.score("bot_RS"));
+
+        // Every painted cell decays a full period after the restored tick
+        assertEquals(35, room.decay.scheduled());
+        assertEquals(1234 + ArenaSimulation.ticks(2000), room.decay.expiresAt(0));
+        assertEquals(-1, room.decay.expiresAt(35));
+
+        // Nobody is subscribed yet, but the room has not been idle since tick 0
+        assertEquals(ArenaRoom.Activity.ACTIVE, room.updateActivity());
+    }
+
+    @Test
+    void unknownMapFallsBackToTheDefaultMap() throws Exception {
+        store("RU", ArenaTestMaps.classic(), "gone", PLAYERS, 50);
+        ArenaState st = arenas.resumeGame("RU", PLAYERS);
+        assertNotNull(st);
+        assertEquals(ArenaTestMaps.classic().id, st.mapId);
+        assertNull(room("RU").decay, "decay is off by default");
+    }
+
+    @Test
+    void missingOrMismatchedCheckpointResumesNothing() throws Exception {
+        assertNull(arenas.resumeGame("NONE", PLAYERS));
+
+        // Stored with one player, resumed with two
+        store("RM", ArenaTestMaps.classic(), ArenaTestMaps.classic().id, PLAYERS.subList(0, 1), 50);
+        assertNull(arenas.resumeGame("RM", PLAYERS));
+        assertNull(arenas.getSnapshot("RM"));
+        assertTrue(arenas.rooms().isEmpty());
+    }
+}
@@ -0,0 +1,156 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.Color_craze.board.arena.dtos.ArenaInput;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Cross-thread hand-offs of {@link ArenaRoom}: queued inputs applied by the owner,
+ * double-buffered snapshots that later ticks never change and that copy only the paint that moved,
+ * and a detached room's state going back to its pool only after the last broadcast.
+ */
+class ArenaRoomHandoffTest {
+
+    private static ArenaRoom room() {
+        return ArenaTestMaps.room("HAND", List.of(
+            new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+            new PlayerEntry("p2", "Two", ColorStatus.PINK)));
+    }
+
+    @Test
+    void inputsFromManyThreadsAreAppliedOnTheNextStep() throws Exception {
+        ArenaRoom room = room();
+        assertFalse(room.offer(new ArenaInput("HAND", "ghost", true, false, false)), "Unknown players are rejected");
+
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 1000; i++) room.offer(new ArenaInput("HAND", "p1", false, false, false));
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        room.offer(new ArenaInput("HAND", "p1", false, true, true));
+        room.offer(new ArenaInput("HAND", "p2", true, false, false));
+        assertFalse(room.inputs[0].right, "Nothing is applied before the owner steps");
+
+        room.drainInputs();
+        assertTrue(room.inputs[0].right, "Last queued input wins");
+        assertTrue(room.inputs[0].jump);
+        assertTrue(room.inputs[1].left);
+    }
+
+    @Test
+    void snapshotsAlternateBetweenTwoPaintBuffersAndStayFrozen() {
+        ArenaRoom room = room();
+        ArenaSimulation sim = new ArenaSimulation();
+        room.inputs[0].right = true;
+        for (int i = 0; i < 60; i++) sim.step(room);
+
+        ArenaSnapshot first = room.publish(true);
+        assertSame(first, room.claim());
+        byte[] frozen = first.paint.flat().clone();
+        Player2D p1 = room.state.roster.get(0);
+        double x = first.players.get(0).x();
+
+        for (int i = 0; i < 60; i++) sim.step(room);
+        ArenaSnapshot second = room.publish(true);
+        assertNotSame(first.paint, second.paint, "A claimed buffer is not written while it is being sent");
+        assertArrayEquals(frozen, first.paint.flat(), "Later ticks never touch a published snapshot");
+        assertEquals(x, first.players.get(0).x());
+        assertNotEquals(p1.x, x, "The live player moved on");
+
+        // Once the first buffer comes back, the room reuses it instead of allocating
+        assertSame(second, room.claim());
+        room.recycle(first);
+        ArenaSnapshot third = room.publish(true);
+        assertSame(first.paint, third.paint);
+        assertArrayEquals(room.state.paint(), third.paint.flat(), "A reused buffer catches up on what it missed");
+    }
+
+    @Test
+    void snapshotPaintCopiesOnlyChunksThatChanged() {
+        ArenaRoom room = room();
+        ArenaState st = room.state;
+        SnapshotPaint paint = new SnapshotPaint(st.totalCells(), st.chunkCount());
+        assertEquals(0, paint.capture(st), "Unpainted chunks are neither allocated nor copied");
+        assertEquals(16L + 8L * st.chunkCount() + 16L + 4L * st.chunkCount(), paint.estimatedBytes());
+
+        Player2D p1 = st.roster.get(0);
+        st.paintCell(3 * ArenaState.CHUNK_CELLS + 5, p1);
+        st.paintCell(3 * ArenaState.CHUNK_CELLS + 6, p1);
+        assertEquals(1, paint.capture(st));
+        assertEquals(0, paint.capture(st), "Nothing changed since the last capture");
+        assertArrayEquals(st.paint(), paint.flat());
+
+        st.paintCell(st.totalCells() - 1, p1);
+        assertEquals(1, paint.capture(st));
+        assertArrayEquals(st.paint(), paint.flat(), "The shared-topic copy follows chunk by chunk");
+        assertEquals(p1.paint, paint.chunkCopy(st.chunkCount() - 1)[(st.totalCells() - 1) & (ArenaState.CHUNK_CELLS - 1)]);
+    }
+
+    @Test
+    void detachedStateWaitsForTheBroadcastInFlight() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        SimpMessagingTemplate blocking = new SimpMessagingTemplate((msg, timeout) -> {
+            sending.countDown();
+            try { proceed.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            return true;
+        });
+        blocking.setMessageConverter(new MappingJackson2MessageConverter());
+        ArenaTickEngine engine = new ArenaTickEngine(1, 4, () -> 0L);
+        ArenaService arenas = new ArenaService(blocking, engine, new ArenaSubscriptions(), ArenaTestMaps.catalog());
+        arenas.init();
+        try {
+            List<PlayerEntry> players = List.of(new PlayerEntry("p1", "One", ColorStatus.YELLOW));
+            ArenaTickEngine.Simulation sim = arenas.newSimulation(blocking);
+
+            ArenaRoom busy = arenas.newHeadlessRoom("BUSY", players);
+            sim.publish(busy, true);
+            assertTrue(sending.await(2, TimeUnit.SECONDS));
+            busy.closed = true;
+            sim.detached(busy);
+            assertFalse(busy.offer(new ArenaInput("BUSY", "p1", true, false, false)), "A closed room takes no input");
+            assertEquals(1, busy.state.roster.size(), "The state is not reset while a frame is being built from it");
+
+            proceed.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (!busy.state.roster.isEmpty() && System.nanoTime() < deadline) Thread.sleep(5);
+            assertTrue(busy.state.roster.isEmpty(), "The broadcaster hands the state back when it is done");
+            assertTrue(busy.broadcastQueued.get(), "A released room never broadcasts again");
+
+            ArenaRoom quiet = arenas.newHeadlessRoom("QUIET", players);
+            sim.detached(quiet);
+            assertTrue(quiet.state.roster.isEmpty(), "Without a broadcast the state goes back at once");
+        } finally {
+            proceed.countDown();
+            arenas.shutdown();
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void unclaimedPaintIsCarriedIntoTheNextSnapshot() {
+        ArenaRoom room = room();
+        ArenaSnapshot withPaint = room.publish(true);
+        ArenaSnapshot poseOnly = room.publish(false);
+        assertTrue(poseOnly.hasPaint(), "A pose frame replacing an unsent paint frame keeps the paint");
+        assertSame(withPaint.paint, poseOnly.paint, "The unclaimed buffer is reused, not copied again");
+        assertSame(poseOnly, room.latest());
+        assertSame(poseOnly, room.claim());
+        assertFalse(room.publish(false).hasPaint(), "Once the paint frame was claimed, pose frames go out without paint");
+    }
+}
@@ -0,0 +1,58 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tick and frame cost as the player count grows up to ArenaState.MAX_PLAYERS. Prints a table
+ * (players, ns per step, bytes per pose frame, bytes per paint frame) and checks that frames
+ * grow linearly and stay small; the timings are informative only.
+ */
+class ArenaScalingBenchmarkTest {
+
+    private static final int[] PLAYER_COUNTS = {2, 4, 8, 16};
+    private static final int WARMUP_TICKS = 5_000;
+    private static final int TICKS = 5_000;
+    private static final ColorStatus[] COLORS = {ColorStatus.YELLOW, ColorStatus.PINK, ColorStatus.PURPLE, ColorStatus.GREEN};
+
+    @Test
+    void tickAndFrameCostByPlayerCount() throws Exception {
+        ObjectMapper json = new ObjectMapper();
+        ArenaSimulation sim = new ArenaSimulation();
+        int[] poseBytes = new int[PLAYER_COUNTS.length];
+        StringBuilder table = new StringBuilder("players  ns/step  pose-bytes  paint-bytes\n");
+        for (int k = 0; k < PLAYER_COUNTS.length; k++){
+            int n = PLAYER_COUNTS[k];
+            // Bots move and paint on their own, so every player is busy
+            List<PlayerEntry> players = new ArrayList<>();
+            for (int i = 0; i < n; i++) players.add(new PlayerEntry("bot_" + i, "CPU " + i, COLORS[i % COLORS.length]));
+            ArenaRoom room = ArenaTestMaps.room("SCALE" + n, players);
+            for (int t = 0; t < WARMUP_TICKS; t++) sim.step(room);
+
+            long start = System.nanoTime();
+            for (int t = 0; t < TICKS; t++) sim.step(room);
+            long nsPerStep = (System.nanoTime() - start) / TICKS;
+
+            poseBytes[k] = json.writeValueAsBytes(room.publish(false).toFrame(room.code)).length;
+            room.claim();
+            int paintBytes = json.writeValueAsBytes(room.publish(true).toFrame(room.code)).length;
+            table.append(String.format("%7d  %7d  %10d  %11d%n", n, nsPerStep, poseBytes[k], paintBytes));
+        }
+        System.out.print(table);
+
+        int last = PLAYER_COUNTS.length - 1;
+        assertEquals(ArenaState.MAX_PLAYERS, PLAYER_COUNTS[last]);
+        double perPlayer = (poseBytes[last] - poseBytes[0]) / (double) (PLAYER_COUNTS[last] - PLAYER_COUNTS[0]);
+        assertTrue(perPlayer < 64, "A pose costs " + perPlayer + " bytes per player");
+        assertTrue(poseBytes[last] < 1200, "16-player pose frame is " + poseBytes[last] + " bytes");
+    }
+}
@@ -0,0 +1,67 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Allocation regression guard for the arena tick: after warm-up, stepping a room with
+ * humans and a bot must not allocate on the calling thread.
+ */
+class ArenaSimulationAllocationTest {
+
+    private static final int TICKS = 10_000;
+    // Small allowance for measurement noise (MXBean bookkeeping), far below one allocation per tick
+    private static final long BUDGET_BYTES = 16 * 1024;
+
+    @Test
+    void steadyStateTickDoesNotAllocate() {
+        var mx = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(mx instanceof com.sun.management.ThreadMXBean, "Per-thread allocation counters not available");
+        var threads = (com.sun.management.ThreadMXBean) mx;
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        ArenaRoom room = ArenaTestMaps.room("ALLOC", List.of(
+            new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+            new PlayerEntry("p2", "Two", ColorStatus.PINK),
+            new PlayerEntry("bot_ALLOC", "CPU", ColorStatus.GREEN)
+        ));
+        ArenaSimulation sim = new ArenaSimulation();
+
+        // Warm-up so class init and JIT compilation happen outside the measured window
+        drive(room, sim, TICKS);
+
+        long tid = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(tid);
+        drive(room, sim, TICKS);
+        long allocated = threads.getThreadAllocatedBytes(tid) - before;
+
+        assertTrue(allocated < BUDGET_BYTES,
+            "Arena tick allocated " + allocated + " bytes over " + TICKS + " ticks (budget " + BUDGET_BYTES + ")");
+        int painted = 0;
+        for (byte c : room.state.paint()) if (c != 0) painted++;
+        assertTrue(painted > 0, "Players should have painted cells");
+    }
+
+    // Humans run back and forth and jump now and then so painting, stealing and bots are all exercised
+    private static void drive(ArenaRoom room, ArenaSimulation sim, int ticks) {
+        ArenaRoom.InputState a = room.inputs[0];
+        ArenaRoom.InputState b = room.inputs[1];
+        for (int t = 0; t < ticks; t++) {
+            boolean flip = (t / 240) % 2 == 0;
+            a.left = flip; a.right = !flip;
+            b.left = !flip; b.right = flip;
+            if (t % 97 == 0) a.jump = true;
+            if (t % 131 == 0) b.jump = true;
+            sim.step(room);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Platform2D;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Swept collision lets a room run at 60 or 30 Hz: no tunneling through thin platforms and
+ * the same landing and painting as the 120 Hz step for the same input timeline.
+ */
+class ArenaSimulationSweptTest {
+
+    private static ArenaRoom thinPlatformRoom() {
+        ArenaState st = new ArenaState(400, 800);
+        st.addPlatform(new Platform2D(100, 500, 200, 4, 40));
+        st.addPlayer(new Player2D("p1", 180, 458, ColorStatus.YELLOW)); // feet 10px above the top
+        return new ArenaRoom("THIN", st);
+    }
+
+    @Test
+    void sweptStepLandsOnThinPlatformAtThirtyHz() {
+        ArenaRoom discrete = thinPlatformRoom();
+        discrete.setTickRate(120, false);
+        discrete.substeps = 4; discrete.dt = ArenaSimulation.DT * 4; // force a long discrete step
+        ArenaRoom swept = thinPlatformRoom();
+        swept.setTickRate(30, false);
+        assertTrue(swept.swept, "Rates below 120 Hz must use swept collision");
+
+        ArenaSimulation sim = new ArenaSimulation();
+        for (ArenaRoom r : List.of(discrete, swept)) {
+            r.state.roster.get(0).vy = 1800; // falling fast: one 30 Hz step moves ~60px
+            for (int i = 0; i < 60; i++) sim.step(r);
+        }
+        Player2D s = swept.state.roster.get(0);
+        assertEquals(500 - Player2D.HEIGHT, s.y, 1e-9, "Swept step must land exactly on the platform top");
+        assertTrue(s.onGround);
+        assertTrue(discrete.state.roster.get(0).y > 500, "Discrete long step tunnels through the thin platform");
+    }
+
+    // Same input timeline expressed in 120 Hz base ticks: run right, jump, run left, idle
+    private static ArenaRoom runScript(int hz) {
+        ArenaRoom room = ArenaTestMaps.room("RATE", List.of(new PlayerEntry("p1", "One", ColorStatus.YELLOW)));
+        room.setTickRate(hz, true);
+        ArenaSimulation sim = new ArenaSimulation();
+        ArenaRoom.InputState in = room.inputs[0];
+        for (int base = 0; base < 512; base += room.substeps) {
+            in.right = base < 128;
+            in.left = base >= 128 && base < 384;
+            if (base == 128) in.jump = true;
+            sim.step(room);
+        }
+        return room;
+    }
+
+    private static double jaccard(byte[] a, byte[] b) {
+        int inter = 0, union = 0;
+        for (int i = 0; i < a.length; i++) {
+            boolean pa = a[i] != 0, pb = b[i] != 0;
+            if (pa || pb) union++;
+            if (pa && pb) inter++;
+        }
+        return union == 0 ? 1.0 : inter / (double) union;
+    }
+
+    @Test
+    void landingAndPaintingMatchAcrossTickRates() {
+        ArenaRoom r120 = runScript(120);
+        for (int hz : new int[]{60, 30}) {
+            ArenaRoom r = runScript(hz);
+            Player2D a = r120.state.roster.get(0), b = r.state.roster.get(0);
+            assertEquals(a.y, b.y, 1e-6, hz + " Hz must land at the same height");
+            assertEquals(a.onGround, b.onGround);
+            assertEquals(a.x, b.x, 12.0, hz + " Hz should end close to the 120 Hz position");
+            assertTrue(jaccard(r120.state.paint(), r.state.paint()) > 0.95,
+                hz + " Hz should paint (almost) the same cells as 120 Hz");
+        }
+    }
+}
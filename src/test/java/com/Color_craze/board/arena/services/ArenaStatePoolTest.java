@@ -0,0 +1,119 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Reuse of pooled arena states: a released state comes back reset and re-spawns new players
+ * into the same instances, and the next room borrows the previous one's scratch arrays.
+ */
+class ArenaStatePoolTest {
+
+    @Test
+    void releasedStateIsResetAndReused() {
+        ArenaStatePool pool = new ArenaStatePool(ArenaTestMaps.classic()::newState, 4);
+        pool.prewarm(1);
+        assertEquals(1, pool.available());
+
+        ArenaState st = pool.acquire();
+        ArenaRoom room = ArenaService.newRoom("ONE", st, List.of(
+            new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+            new PlayerEntry("p2", "Two", ColorStatus.PINK)));
+        ArenaSimulation sim = new ArenaSimulation();
+        room.inputs[0].right = true;
+        for (int i = 0; i < 300; i++) sim.step(room);
+        Player2D seat = st.roster.get(0);
+        assertTrue(st.coverage(seat.paint) > 0);
+        pool.release(st);
+        assertEquals(1, pool.available());
+
+        ArenaState again = pool.acquire();
+        assertSame(st, again, "The released state is handed out again");
+        assertTrue(again.players.isEmpty());
+        for (byte c : again.paint()) assertEquals(ArenaState.UNPAINTED, c);
+        assertEquals(0, again.coverage((byte) 1));
+
+        ArenaRoom next = ArenaService.newRoom("TWO", again, List.of(new PlayerEntry("q1", "Q", ColorStatus.GREEN)));
+        Player2D q = next.state.roster.get(0);
+        assertSame(seat, q, "Player slots are reused");
+        assertEquals("q1", q.playerId);
+        assertEquals(ColorStatus.GREEN, q.color);
+        assertEquals(1, q.paint, "Paint follows the roster slot, not the color");
+        assertEquals(0, q.score);
+        assertTrue(q.credited.isEmpty());
+        Player2D fresh = ArenaTestMaps.room("REF", List.of(new PlayerEntry("q1", "Q", ColorStatus.GREEN))).state.roster.get(0);
+        assertEquals(fresh.x, q.x);
+        assertEquals(fresh.y, q.y);
+        assertSame(again.collisionIndex(), st.collisionIndex(), "The broadphase is built once per pooled state");
+    }
+
+    @Test
+    void nextRoomBorrowsTheStatesScratchReset() {
+        ArenaStatePool pool = new ArenaStatePool(ArenaTestMaps.classic()::newState, 4);
+        List<PlayerEntry> players = List.of(
+            new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+            new PlayerEntry("bot_S", "CPU", ColorStatus.PINK));
+        ArenaState st = pool.acquire();
+        ArenaRoom first = ArenaService.newRoom("ONE", st, players);
+        first.decay = first.scratch.decay(st.totalCells(), 300, 0);
+        ArenaSimulation sim = new ArenaSimulation();
+        first.inputs[0].right = true;
+        for (int i = 0; i < 300; i++) sim.step(first);
+        assertTrue(first.decay.scheduled() > 0);
+        pool.release(st);
+
+        ArenaRoom second = ArenaService.newRoom("TWO", pool.acquire(), players);
+        assertSame(first.scratch, second.scratch);
+        assertSame(first.inputs, second.inputs);
+        assertSame(first.candidates, second.candidates);
+        assertFalse(second.inputs[0].right, "Inputs start released");
+        for (int g : second.ground) assertEquals(-1, g);
+        for (double a : second.accel) assertEquals(0, a);
+        assertTrue(second.bot[1]);
+        assertEquals(0, second.botNextDecisionTick[1]);
+        PaintDecay decay = second.scratch.decay(st.totalCells(), 600, 50);
+        assertSame(first.decay, decay, "The decay wheel is re-armed, not rebuilt");
+        assertEquals(0, decay.scheduled());
+        assertEquals(-1, decay.expiresAt(0));
+        assertEquals(600, decay.ttlTicks);
+    }
+
+    @Test
+    void roomStartOnPooledStateAllocatesNoScratch() {
+        var mx = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(mx instanceof com.sun.management.ThreadMXBean, "Per-thread allocation counters not available");
+        var threads = (com.sun.management.ThreadMXBean) mx;
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        ArenaStatePool pool = new ArenaStatePool(ArenaTestMaps.classic()::newState, 4);
+        List<PlayerEntry> players = List.of(
+            new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+            new PlayerEntry("p2", "Two", ColorStatus.PINK));
+        // Warm-up: the first room attaches the scratch and builds the decay wheel
+        for (int i = 0; i < 200; i++) pool.release(startWithDecay(pool, players).state);
+
+        long tid = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(tid);
+        ArenaRoom room = startWithDecay(pool, players);
+        long allocated = threads.getThreadAllocatedBytes(tid) - before;
+        // The room object and its hand-off handles; per-cell arrays alone would be several KB
+        assertTrue(allocated < 3 * 1024, "Room start allocated " + allocated + " bytes");
+        assertEquals(0, room.decay.scheduled());
+    }
+
+    private static ArenaRoom startWithDecay(ArenaStatePool pool, List<PlayerEntry> players) {
+        ArenaRoom room = ArenaService.newRoom("POOL", pool.acquire(), players);
+        room.decay = room.scratch.decay(room.state.totalCells(), 600, room.tick());
+        return room;
+    }
+}
@@ -0,0 +1,59 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+/**
+ * Subscriber counting per arena topic from STOMP session events.
+ */
+class ArenaSubscriptionsTest {
+
+    private static Message<byte[]> frame(StompCommand cmd, String session, String sub, String destination) {
+        StompHeaderAccessor h = StompHeaderAccessor.create(cmd);
+        h.setSessionId(session);
+        h.setSubscriptionId(sub);
+        if (destination != null) h.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], h.getMessageHeaders());
+    }
+
+    @Test
+    void countsArenaSubscriptionsUntilUnsubscribeOrDisconnect() {
+        ArenaSubscriptions subs = new ArenaSubscriptions();
+        var counter = subs.counter("ABC");
+        subs.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "0", "/topic/board/ABC/arena")));
+        subs.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "1", "/topic/board/ABC/state")));
+        subs.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s2", "0", "/topic/board/ABC/arena")));
+        assertEquals(2, counter.get(), "Only the arena topic counts");
+
+        subs.onUnsubscribe(new SessionUnsubscribeEvent(this, frame(StompCommand.UNSUBSCRIBE, "s1", "0", null)));
+        assertEquals(1, counter.get());
+        subs.onDisconnect(new SessionDisconnectEvent(this, frame(StompCommand.DISCONNECT, "s2", null, null), "s2", CloseStatus.NORMAL));
+        assertEquals(0, counter.get());
+
+        subs.release("ABC");
+        assertNotSame(counter, subs.counter("ABC"), "An unwatched finished room's counter is dropped");
+    }
+
+    @Test
+    void viewerTopicsCountTowardsTheRoomAndOnTheirOwn() {
+        ArenaSubscriptions subs = new ArenaSubscriptions();
+        var counter = subs.counter("ABC");
+        subs.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "0", "/topic/board/ABC/arena/v1")));
+        assertEquals(1, counter.get(), "A viewer keeps the room watched");
+        assertEquals(1, subs.subscribers("/topic/board/ABC/arena/v1"));
+        assertEquals(0, subs.subscribers("/topic/board/ABC/arena"), "Nobody listens to the shared topic");
+
+        subs.onDisconnect(new SessionDisconnectEvent(this, frame(StompCommand.DISCONNECT, "s1", null, null), "s1", CloseStatus.NORMAL));
+        assertEquals(0, counter.get());
+        assertEquals(0, subs.subscribers("/topic/board/ABC/arena/v1"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.Color_craze.board.arena.services;
+
+import java.util.List;
+
+import com.Color_craze.board.arena.models.ArenaMap;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+
+/**
+ * Rooms on the bundled catalog maps, for tests that step real layouts.
+ */
+final class ArenaTestMaps {
+    private static ArenaMapCatalog catalog;
+
+    private ArenaTestMaps() {}
+
+    static synchronized ArenaMapCatalog catalog() {
+        if (catalog == null) {
+            try {
+                catalog = new ArenaMapCatalog("classpath*:arena/maps/*.json", "classic");
+            } catch (java.io.IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return catalog;
+    }
+
+    static ArenaMap classic() {
+        return catalog().defaultMap();
+    }
+
+    static ArenaRoom room(String code, List<PlayerEntry> players) {
+        return ArenaService.newRoom(code, classic().newState(), players);
+    }
+}
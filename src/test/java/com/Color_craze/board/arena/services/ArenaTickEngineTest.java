@@ -0,0 +1,234 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.dtos.ArenaInput;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Covers shard pinning, tick-aligned publishing, room removal and the fixed-step
+ * accumulator (catch-up cap, deterministic replay) and room hibernation of {@link ArenaTickEngine}.
+ */
+class ArenaTickEngineTest {
+
+    private final ArenaTickEngine engine = new ArenaTickEngine(2, ArenaTickEngine.DEFAULT_MAX_CATCH_UP, ArenaClock.SYSTEM);
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    private static class CountingSim implements ArenaTickEngine.Simulation {
+        final Map<String, AtomicInteger> steps = new ConcurrentHashMap<>();
+        final Map<String, AtomicInteger> paintFrames = new ConcurrentHashMap<>();
+        final Map<String, AtomicInteger> poseFrames = new ConcurrentHashMap<>();
+        final Map<String, String> threads = new ConcurrentHashMap<>();
+        final Map<String, String> detached = new ConcurrentHashMap<>();
+        @Override public void step(ArenaRoom room) {
+            steps.computeIfAbsent(room.code, k -> new AtomicInteger()).incrementAndGet();
+            threads.put(room.code, Thread.currentThread().getName());
+        }
+        @Override public void publish(ArenaRoom room, boolean includePaint) {
+            (includePaint ? paintFrames : poseFrames).computeIfAbsent(room.code, k -> new AtomicInteger()).incrementAndGet();
+        }
+        @Override public void detached(ArenaRoom room) {
+            detached.put(room.code, Thread.currentThread().getName());
+        }
+    }
+
+    @Test
+    void roomsAreSpreadAcrossShardsAndStepped() throws Exception {
+        CountingSim sim = new CountingSim();
+        ArenaRoom a = new ArenaRoom("A", new ArenaState(100, 100));
+        ArenaRoom b = new ArenaRoom("B", new ArenaState(100, 100));
+        engine.add(a, sim);
+        engine.add(b, sim);
+        assertNotEquals(a.shard, b.shard, "Rooms should land on different shards when both are empty");
+
+        Thread.sleep(400);
+        assertTrue(sim.steps.get("A").get() > 10, "Room A should have been stepped repeatedly");
+        assertTrue(sim.steps.get("B").get() > 10, "Room B should have been stepped repeatedly");
+        assertNotEquals(sim.threads.get("A"), sim.threads.get("B"));
+        assertTrue(sim.poseFrames.get("A").get() > 0);
+        assertTrue(sim.paintFrames.get("A").get() > 0);
+        assertTrue(sim.poseFrames.get("A").get() > sim.paintFrames.get("A").get(), "Pose frames are more frequent than paint frames");
+    }
+
+    @Test
+    void removedRoomStopsTickingWithoutAffectingOthers() throws Exception {
+        CountingSim sim = new CountingSim();
+        ArenaRoom a = new ArenaRoom("A", new ArenaState(100, 100));
+        ArenaRoom b = new ArenaRoom("B", new ArenaState(100, 100));
+        ArenaRoom c = new ArenaRoom("C", new ArenaState(100, 100));
+        engine.add(a, sim);
+        engine.add(b, sim);
+        engine.add(c, sim);
+        Thread.sleep(100);
+
+        engine.remove(a);
+        assertTrue(a.isClosed());
+        Thread.sleep(50);
+        int frozen = sim.steps.get("A").get();
+        int bBefore = sim.steps.get("B").get();
+        Thread.sleep(200);
+        assertEquals(frozen, sim.steps.get("A").get(), "Removed room must not be stepped anymore");
+        assertTrue(sim.steps.get("B").get() > bBefore, "Other rooms keep ticking");
+        assertEquals(2, engine.roomCount(0) + engine.roomCount(1));
+        assertEquals(sim.threads.get("A"), sim.detached.get("A"), "Detach runs on the shard that stepped the room");
+        assertFalse(sim.detached.containsKey("B"));
+    }
+
+    private static void awaitTick(ArenaRoom room, long tick) throws InterruptedException {
+        for (int i = 0; i < 200 && room.tick() < tick; i++) Thread.sleep(5);
+    }
+
+    @Test
+    void lateWakeUpRunsAtMostMaxCatchUpTicks() throws Exception {
+        AtomicLong now = new AtomicLong();
+        ArenaTickEngine manual = new ArenaTickEngine(1, 3, now::get);
+        try {
+            ArenaRoom room = new ArenaRoom("LAG", new ArenaState(100, 100));
+            manual.add(room, new CountingSim());
+            Thread.sleep(50);
+            assertEquals(0, room.tick(), "No time has passed on the injected clock");
+
+            now.addAndGet(2 * ArenaTickEngine.TICK_NANOS);
+            awaitTick(room, 2);
+            assertEquals(2, room.tick(), "Elapsed time turns into whole ticks");
+
+            // A 100-tick stall: three ticks are caught up, the rest is dropped
+            now.addAndGet(100 * ArenaTickEngine.TICK_NANOS);
+            awaitTick(room, 5);
+            Thread.sleep(50);
+            assertEquals(5, room.tick());
+            assertEquals(97, manual.droppedTicks());
+        } finally {
+            manual.shutdown();
+        }
+    }
+
+    @Test
+    void ticksAreReportedWithTheirLagAndWork() throws Exception {
+        AtomicLong now = new AtomicLong();
+        ArenaTickEngine manual = new ArenaTickEngine(1, 4, now::get);
+        List<long[]> ticks = new java.util.concurrent.CopyOnWriteArrayList<>();
+        manual.setMetrics(new ArenaMetrics() {
+            @Override public void tick(int shard, long lagNanos, long wallNanos, int players, int cellsChanged) {
+                ticks.add(new long[]{shard, lagNanos, players, cellsChanged});
+            }
+        });
+        try {
+            ArenaRoom room = ArenaTestMaps.room("LATE", List.of(
+                new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+                new PlayerEntry("p2", "Two", ColorStatus.PINK)));
+            manual.add(room, new CountingSim());
+            Thread.sleep(50);
+            // Woken three ticks late: the catch-up ticks were due 2, 1 and 0 ticks before the wake-up
+            now.addAndGet(3 * ArenaTickEngine.TICK_NANOS);
+            awaitTick(room, 3);
+            Thread.sleep(50);
+            assertEquals(3, ticks.size());
+            assertEquals(2 * ArenaTickEngine.TICK_NANOS, ticks.get(0)[1]);
+            assertEquals(ArenaTickEngine.TICK_NANOS, ticks.get(1)[1]);
+            assertEquals(0, ticks.get(2)[1]);
+            for (long[] t : ticks) assertEquals(2, t[2], "players of the stepped room");
+
+            // Paint changed outside a step is attributed to the next tick that steps the room
+            room.state.paintCell(0, room.state.roster.get(0));
+            room.state.paintCell(1, room.state.roster.get(0));
+            now.addAndGet(ArenaTickEngine.TICK_NANOS);
+            awaitTick(room, 4);
+            Thread.sleep(50);
+            assertEquals(2, ticks.get(3)[3]);
+        } finally {
+            manual.shutdown();
+        }
+    }
+
+    // Two players and a bot, with a scripted input timeline, run through the same path the shards use
+    private static ArenaRoom replay(int ticks) {
+        ArenaRoom room = ArenaTestMaps.room("REPLAY", List.of(
+            new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+            new PlayerEntry("p2", "Two", ColorStatus.PINK),
+            new PlayerEntry("bot_REPLAY", "CPU", ColorStatus.GREEN)));
+        ArenaSimulation physics = new ArenaSimulation();
+        ArenaTickEngine.Simulation sim = new ArenaTickEngine.Simulation() {
+            @Override public void step(ArenaRoom r) { physics.step(r); }
+            @Override public void publish(ArenaRoom r, boolean includePaint) {}
+        };
+        for (int t = 0; t < ticks; t++) {
+            boolean flip = (t / 200) % 2 == 0;
+            room.inputs[0].right = flip; room.inputs[0].left = !flip;
+            room.inputs[1].left = flip; room.inputs[1].right = !flip;
+            if (t % 90 == 0) room.inputs[0].jump = true;
+            ArenaTickEngine.advance(room, sim);
+        }
+        return room;
+    }
+
+    @Test
+    void sameInputsReplayToTheSameGame() {
+        ArenaRoom a = replay(6000); // 50 s of game time, far faster than real time
+        ArenaRoom b = replay(6000);
+        assertEquals(6000, a.tick());
+        assertArrayEquals(a.state.paint(), b.state.paint());
+        int total = 0;
+        for (int i = 0; i < a.state.roster.size(); i++) {
+            Player2D pa = a.state.roster.get(i), pb = b.state.roster.get(i);
+            assertEquals(pa.x, pb.x);
+            assertEquals(pa.y, pb.y);
+            assertEquals(pa.score, pb.score);
+            total += pa.score;
+        }
+        assertTrue(total > 0, "Players should have scored");
+    }
+
+    @Test
+    void idleRoomsSlowDownHibernateWhenUnwatchedAndWakeOnInput() {
+        ArenaRoom room = ArenaTestMaps.room("IDLE", List.of(
+            new PlayerEntry("p1", "One", ColorStatus.YELLOW),
+            new PlayerEntry("bot_IDLE", "CPU", ColorStatus.GREEN)));
+        room.setTickRate(120, false);
+        AtomicInteger subscribers = new AtomicInteger(1);
+        room.configureIdle(100, 30, subscribers);
+        CountingSim sim = new CountingSim();
+
+        for (int t = 0; t < 99; t++) ArenaTickEngine.advance(room, sim);
+        assertEquals(ArenaRoom.Activity.ACTIVE, room.activity());
+        for (int t = 0; t < 100; t++) ArenaTickEngine.advance(room, sim);
+        assertEquals(ArenaRoom.Activity.IDLE, room.activity(), "No human input for 100 ticks");
+        assertEquals(4, room.substeps(), "Idle rooms step at 30 Hz");
+        assertTrue(room.swept);
+
+        subscribers.set(0);
+        ArenaTickEngine.advance(room, sim);
+        assertEquals(ArenaRoom.Activity.HIBERNATING, room.activity());
+        int steps = sim.steps.get("IDLE").get();
+        int frames = sim.poseFrames.get("IDLE").get() + sim.paintFrames.get("IDLE").get();
+        for (int t = 0; t < 500; t++) ArenaTickEngine.advance(room, sim);
+        assertEquals(steps, sim.steps.get("IDLE").get(), "Hibernating rooms are not stepped");
+        assertEquals(frames, sim.poseFrames.get("IDLE").get() + sim.paintFrames.get("IDLE").get());
+
+        // Bot moves do not count as activity, a human input wakes the room on the next tick
+        assertTrue(room.offer(new ArenaInput("IDLE", "bot_IDLE", true, false, false)));
+        ArenaTickEngine.advance(room, sim);
+        assertEquals(ArenaRoom.Activity.HIBERNATING, room.activity());
+        assertTrue(room.offer(new ArenaInput("IDLE", "p1", true, false, false)));
+        ArenaTickEngine.advance(room, sim);
+        assertEquals(ArenaRoom.Activity.ACTIVE, room.activity());
+        assertEquals(1, room.substeps());
+        assertFalse(room.swept, "The configured collision mode is restored");
+    }
+}
@@ -0,0 +1,120 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.board.models.GameSession.PlayerEntry;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * The vectorized batch kernel must reproduce the scalar step exactly, across rooms with
+ * different rates and collision modes and a lane count that is not a multiple of the vector size,
+ * and keep stepping the other rooms of a batch when one of them throws.
+ */
+class ArenaVectorKernelTest {
+
+    private static final ColorStatus[] COLORS = {ColorStatus.YELLOW, ColorStatus.PINK, ColorStatus.GREEN, ColorStatus.PURPLE};
+    private static final int[][] ROOMS = { // {players, hz, swept, with bot}
+        {2, 120, 0, 0}, {3, 120, 1, 1}, {4, 60, 1, 0}, {2, 30, 1, 1}, {3, 120, 0, 1}, {1, 60, 1, 0}, {4, 120, 0, 0}
+    };
+
+    private static ArenaRoom[] rooms() {
+        ArenaRoom[] out = new ArenaRoom[ROOMS.length];
+        for (int r = 0; r < ROOMS.length; r++) {
+            List<PlayerEntry> players = new ArrayList<>();
+            for (int i = 0; i < ROOMS[r][0]; i++) {
+                boolean bot = ROOMS[r][3] == 1 && i == ROOMS[r][0] - 1;
+                players.add(new PlayerEntry((bot ? "bot_" : "p") + r + "_" + i, "P" + i, COLORS[i]));
+            }
+            out[r] = ArenaTestMaps.room("V" + r, players);
+            out[r].setTickRate(ROOMS[r][1], ROOMS[r][2] == 1);
+        }
+        return out;
+    }
+
+    // Same scripted inputs for both runs: each human runs back and forth with its own period and jumps
+    private static void script(ArenaRoom[] rooms, int t) {
+        for (ArenaRoom room : rooms) {
+            room.tick++;
+            for (int i = 0; i < room.inputs.length; i++) {
+                if (room.bot[i]) continue;
+                int period = 150 + 37 * i;
+                boolean right = (t / period) % 2 == 0;
+                room.inputs[i].right = right && t % 500 < 430;
+                room.inputs[i].left = !right && t % 500 < 430;
+                if (t % (71 + 13 * i) == 0) room.inputs[i].jump = true;
+            }
+        }
+    }
+
+    @Test
+    void batchKernelMatchesScalarStepExactly() {
+        ArenaSimulation physics = new ArenaSimulation();
+        ArenaVectorKernel kernel = new ArenaVectorKernel(physics);
+        ArenaRoom[] scalar = rooms();
+        ArenaRoom[] vector = rooms();
+        for (int t = 0; t < 4000; t++) {
+            script(scalar, t);
+            script(vector, t);
+            for (ArenaRoom room : scalar) physics.step(room);
+            kernel.stepAll(vector, 0, vector.length);
+        }
+        int painted = 0;
+        for (int r = 0; r < scalar.length; r++) {
+            for (int i = 0; i < scalar[r].state.roster.size(); i++) {
+                Player2D a = scalar[r].state.roster.get(i), b = vector[r].state.roster.get(i);
+                String who = "room " + r + " player " + i;
+                assertEquals(a.x, b.x, who);
+                assertEquals(a.y, b.y, who);
+                assertEquals(a.vx, b.vx, who);
+                assertEquals(a.vy, b.vy, who);
+                assertEquals(a.onGround, b.onGround, who);
+                assertEquals(a.score, b.score, who);
+            }
+            assertArrayEquals(scalar[r].state.paint(), vector[r].state.paint(), "room " + r);
+            for (byte c : scalar[r].state.paint()) if (c != 0) painted++;
+        }
+        assertTrue(painted > 0, "The scenario must actually move and paint");
+    }
+
+    @Test
+    void throwingRoomLeavesTheRestOfTheBatchIntact() {
+        ArenaRoom[] scalar = rooms();
+        ArenaRoom[] vector = rooms();
+        // Room 1 fails while beginning its step, room 4 while finishing it, every time
+        ArenaSimulation failing = new ArenaSimulation() {
+            @Override void beginStep(ArenaRoom room) {
+                if (room == vector[1]) throw new IllegalStateException("begin");
+                super.beginStep(room);
+            }
+            @Override void finishStep(ArenaRoom room) {
+                if (room == vector[4]) throw new IllegalStateException("finish");
+                super.finishStep(room);
+            }
+        };
+        ArenaSimulation physics = new ArenaSimulation();
+        ArenaVectorKernel kernel = new ArenaVectorKernel(failing);
+        double stuckVx = vector[1].state.roster.get(0).vx;
+        for (int t = 0; t < 600; t++) {
+            script(scalar, t);
+            script(vector, t);
+            for (ArenaRoom room : scalar) physics.step(room);
+            kernel.stepAll(vector, 0, vector.length);
+        }
+        for (int r = 0; r < scalar.length; r++) {
+            if (r == 1 || r == 4) continue;
+            for (int i = 0; i < scalar[r].state.roster.size(); i++) {
+                Player2D a = scalar[r].state.roster.get(i), b = vector[r].state.roster.get(i);
+                assertEquals(a.x, b.x, "room " + r + " player " + i);
+                assertEquals(a.vx, b.vx, "room " + r + " player " + i);
+            }
+            assertArrayEquals(scalar[r].state.paint(), vector[r].state.paint(), "room " + r);
+        }
+        assertEquals(stuckVx, vector[1].state.roster.get(0).vx, "A room that failed to begin is not integrated");
+    }
+}
@@ -0,0 +1,70 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.dtos.ArenaFrame;
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Platform2D;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Interest management: viewer frames only carry players and changed paint chunks near the viewport.
+ */
+class ArenaViewerFrameTest {
+
+    // One 2000 wide platform of 256 cells: chunk k covers x [500k, 500k + 500)
+    private static ArenaRoom room() {
+        ArenaState st = new ArenaState(2000, 200);
+        st.addPlatform(new Platform2D(0, 180, 2000, 20, 256));
+        st.spawn("left", ColorStatus.YELLOW);
+        st.spawn("right", ColorStatus.PINK);
+        st.roster.get(0).x = 100;
+        st.roster.get(1).x = 1800;
+        return new ArenaRoom("VIEW", st);
+    }
+
+    @Test
+    void sendsOnlyPlayersAndChunksNearTheViewport() {
+        ArenaRoom room = room();
+        Player2D left = room.state.roster.get(0), right = room.state.roster.get(1);
+        room.state.paintCell(10, left);    // chunk 0
+        room.state.paintCell(250, right);  // chunk 3
+        ArenaViewer v = new ArenaViewer("v1");
+        v.moveTo(0, 0, 400, 200);
+
+        ArenaFrame f = room.publish(true).toViewerFrame(room.code, v, room.state, 50);
+        assertEquals(List.of(left.index), f.players().stream().map(ArenaFrame.PlayerPose::index).toList());
+        assertNull(f.paint());
+        assertEquals(1, f.chunks().size());
+        assertEquals(0, f.chunks().get(0).index());
+        assertEquals(ArenaState.CHUNK_CELLS, f.chunks().get(0).cells().length);
+        assertEquals(left.paint, f.chunks().get(0).cells()[10]);
+    }
+
+    @Test
+    void resendsAChunkOnlyAfterItChangedOrCameIntoView() {
+        ArenaRoom room = room();
+        Player2D left = room.state.roster.get(0), right = room.state.roster.get(1);
+        ArenaViewer v = new ArenaViewer("v1");
+        v.moveTo(0, 0, 400, 200);
+        room.state.paintCell(10, left);
+        room.state.paintCell(250, right);
+        assertEquals(1, room.publish(true).toViewerFrame(room.code, v, room.state, 0).chunks().size());
+        assertTrue(room.publish(true).toViewerFrame(room.code, v, room.state, 0).chunks().isEmpty(), "Nothing changed");
+        assertTrue(room.publish(false).toViewerFrame(room.code, v, room.state, 0).chunks().isEmpty(), "Pose frames carry no paint");
+
+        room.state.paintCell(11, left);
+        assertEquals(1, room.publish(true).toViewerFrame(room.code, v, room.state, 0).chunks().size());
+
+        v.moveTo(1600, 0, 400, 200);
+        ArenaFrame moved = room.publish(true).toViewerFrame(room.code, v, room.state, 0);
+        assertEquals(1, moved.chunks().size(), "The painted chunk that came into view is sent");
+        assertEquals(3, moved.chunks().get(0).index());
+        assertEquals(List.of(right.index), moved.players().stream().map(ArenaFrame.PlayerPose::index).toList());
+    }
+}
@@ -0,0 +1,37 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+/**
+ * Startup warm-up: bot rooms run through the production publish and broadcast path, with frames
+ * serialized and dropped, and nothing reaches the real broker.
+ */
+class ArenaWarmupTest {
+
+    @Test
+    void warmUpSerializesFramesIntoTheNullSink() {
+        int[] delivered = {0};
+        SimpMessagingTemplate broker = new SimpMessagingTemplate((msg, timeout) -> { delivered[0]++; return true; });
+        broker.setMessageConverter(new MappingJackson2MessageConverter());
+        ArenaTickEngine engine = new ArenaTickEngine(1, 4, ArenaClock.SYSTEM);
+        ArenaService arenas = new ArenaService(broker, engine, new ArenaSubscriptions(), ArenaTestMaps.catalog());
+        arenas.init();
+        try {
+            ArenaWarmup warmup = new ArenaWarmup(arenas, broker);
+            ArenaWarmup.Report r = warmup.warmUp(2, 4, 600);
+
+            assertEquals(600, r.ticks());
+            assertTrue(r.frames() > 0, "frames were built and sent");
+            assertTrue(r.frameBytes() > r.frames() * 50, "frames were serialized by the broker's converter");
+            assertTrue(r.firstNsPerTick() > 0 && r.lastNsPerTick() > 0);
+            assertEquals(0, delivered[0], "warm-up frames never reach the broker");
+        } finally {
+            arenas.shutdown();
+            engine.shutdown();
+        }
+    }
+}
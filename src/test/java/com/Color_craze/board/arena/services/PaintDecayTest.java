@@ -0,0 +1,85 @@
+package com.Color_craze.board.arena.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.models.Platform2D;
+import com.Color_craze.board.arena.models.Player2D;
+import com.Color_craze.utils.enums.ColorStatus;
+
+/**
+ * Timing-wheel paint decay: cells fade exactly ttl ticks after their last paint, across wheel levels,
+ * and the owner loses the point and credit for them.
+ */
+class PaintDecayTest {
+
+    @Test
+    void cellFadesOnItsDeadlineAndCostsTheOwnerItsPoint() {
+        ArenaState st = state(10);
+        Player2D p = new Player2D("p1", 0, 0, ColorStatus.YELLOW);
+        st.addPlayer(p);
+        PaintDecay decay = new PaintDecay(st.totalCells(), 300, 0);
+        st.paintCell(3, p);
+        p.credited.set(3);
+        p.score = 1;
+        decay.painted(3, 5);
+
+        assertEquals(0, decay.advance(st, 304));
+        assertEquals(p.paint, st.paintAt(3));
+        // Repainted before the deadline: the countdown starts over
+        decay.painted(3, 304);
+        assertEquals(0, decay.advance(st, 603));
+        assertEquals(1, decay.advance(st, 604));
+        assertEquals(ArenaState.UNPAINTED, st.paintAt(3));
+        assertEquals(0, st.coverage(p.paint));
+        assertEquals(0, p.score);
+        assertFalse(p.credited.get(3));
+        assertEquals(0, decay.scheduled());
+    }
+
+    @Test
+    void expiresEveryCellOnTheSameTickAsAPerCellTimerWould() {
+        int cells = 500;
+        ArenaState st = state(cells);
+        Player2D p = new Player2D("p1", 0, 0, ColorStatus.YELLOW);
+        st.addPlayer(p);
+        SplittableRandom rnd = new SplittableRandom(21);
+        // Deadlines land on every level of the wheel, including past its top one
+        for (long ttl : new long[] { 1, 63, 64, 4095, 4097, 300_000, 20_000_000 }) {
+            PaintDecay decay = new PaintDecay(cells, ttl, 0);
+            long[] due = new long[cells];
+            Arrays.fill(due, -1);
+            long tick = 0;
+            for (int round = 0; round < 400; round++) {
+                long target = tick + 1 + rnd.nextLong(Math.max(2, ttl / 8));
+                for (int k = rnd.nextInt(4); k > 0; k--) {
+                    int c = rnd.nextInt(cells);
+                    st.paintCell(c, p);
+                    decay.painted(c, tick);
+                    due[c] = tick + ttl;
+                }
+                decay.advance(st, target);
+                for (int c = 0; c < cells; c++) {
+                    boolean alive = due[c] > target;
+                    assertEquals(alive, st.paintAt(c) == p.paint, "cell " + c + " at tick " + target + ", ttl " + ttl);
+                    if (!alive) due[c] = -1;
+                    assertEquals(alive ? due[c] : -1, decay.expiresAt(c));
+                }
+                tick = target;
+            }
+            st.reset();
+            st.addPlayer(p);
+        }
+    }
+
+    private static ArenaState state(int cells) {
+        ArenaState st = new ArenaState(1000, 400);
+        st.addPlatform(new Platform2D(0, 300, 1000, 20, cells));
+        return st;
+    }
+}
@@ -1,9 +1,17 @@
 package com.Color_craze.board.services;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.Color_craze.board.dtos.Responses.PlayerUpdate;
+import com.Color_craze.board.models.Box;
+import com.Color_craze.board.models.Platform;
+import com.Color_craze.board.models.Player;
 import com.Color_craze.utils.enums.ColorStatus;
 import com.Color_craze.utils.enums.PlayerMove;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -49,4 +57,54 @@ class BoardServiceTest {
         var states = boardService.exportPlatformStates(code);
         assertTrue(states.size() >= 1, "Debe haber al menos 1 plataforma pintada");
     }
+
+    @Test
+    void playersSharingAColorAreScoredSeparately() {
+        String code = "G3";
+        boardService.ensurePlayerOnBoard(code, "a", ColorStatus.YELLOW);
+        boardService.ensurePlayerOnBoard(code, "b", ColorStatus.YELLOW);
+        var board = boardService.getOrCreateBoard(code);
+        var a = board.getPlayers().get(BoardService.boardId("a"));
+        var b = board.getPlayers().get(BoardService.boardId("b"));
+        assertFalse(a.getRow() == b.getRow() && a.getCol() == b.getCol(), "Same color, different home cells");
+
+        var moved = boardService.movePlayer(code, "b", PlayerMove.RIGHT);
+        assertTrue(moved.success());
+        assertEquals(1, moved.affectedPlayers().size());
+        assertEquals(BoardService.boardId("b"), moved.affectedPlayers().get(0).playerId(), "Credit goes to the mover, not the first player of that color");
+        assertEquals(0, a.getScore());
+        assertEquals(1, b.getScore());
+    }
+
+    @Test
+    void neighbourConversionPaintsWithoutScoringAndLegacyRepaintTakesThePointByColor() {
+        String code = "G4";
+        boardService.ensurePlayerOnBoard(code, "y", ColorStatus.YELLOW);
+        boardService.ensurePlayerOnBoard(code, "p", ColorStatus.PINK);
+        var board = boardService.getOrCreateBoard(code);
+        var y = board.getPlayers().get(BoardService.boardId("y"));
+        var p = board.getPlayers().get(BoardService.boardId("p"));
+        p.setScore(1);
+        Box[][] grid = board.getGrid();
+        int[][] around = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+        List<int[]> cells = new ArrayList<>();
+        for (int[] d : around) {
+            int r = y.getRow() + d[0], c = y.getCol() + d[1];
+            if (r >= 0 && r < grid.length && c >= 0 && c < grid[0].length && !(grid[r][c] instanceof Player)) cells.add(new int[]{r, c});
+        }
+        assertTrue(cells.size() >= 2);
+        // One neighbour painted pink before owners were tracked, one still a plain box
+        int[] legacy = cells.get(0), plain = cells.get(1);
+        grid[legacy[0]][legacy[1]] = new Platform(ColorStatus.PINK);
+        grid[plain[0]][plain[1]] = new Box(ColorStatus.WHITE);
+
+        List<PlayerUpdate> affected = new ArrayList<>();
+        ReflectionTestUtils.invokeMethod(board, "updateAdjacentPlatforms", y.getRow(), y.getCol(), y, affected);
+
+        assertEquals(1, y.getScore(), "Only the repainted platform scores; converting a box does not");
+        assertEquals(0, p.getScore(), "The legacy platform's color still names the player who loses it");
+        assertEquals(ColorStatus.YELLOW, grid[plain[0]][plain[1]].getColor());
+        assertEquals(y.getId(), ((Platform) grid[plain[0]][plain[1]]).getOwner());
+        assertEquals(y.getId(), ((Platform) grid[legacy[0]][legacy[1]]).getOwner());
+    }
 }
@@ -0,0 +1,82 @@
+package com.Color_craze.board.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.Color_craze.board.arena.models.ArenaState;
+import com.Color_craze.board.arena.services.ArenaService;
+import com.Color_craze.board.models.GameSession;
+import com.Color_craze.board.repositories.GameRepository;
+import com.Color_craze.utils.enums.ColorStatus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Startup recovery: PLAYING matches resume from their arena checkpoint and keep their end time;
+ * those that cannot be resumed are finished right away.
+ */
+class GameServiceResumeTest {
+    private final GameRepository repo = mock(GameRepository.class);
+    private final ArenaService arena = mock(ArenaService.class);
+    private final SimpleMeterRegistry meter = new SimpleMeterRegistry();
+    private final GameService service = new GameService(repo, new BoardService(), mock(SimpMessagingTemplate.class),
+        new MoveRateLimiter(), arena, meter);
+
+    private GameSession playing(String code) {
+        GameSession gs = new GameSession();
+        gs.setCode(code);
+        gs.setStatus("PLAYING");
+        gs.setStartedAt(Instant.now().minusSeconds(10));
+        gs.getPlayers().add(new GameSession.PlayerEntry("p1", "Player", ColorStatus.YELLOW, "ROBOT"));
+        when(repo.findByCode(code)).thenReturn(Optional.of(gs));
+        when(repo.save(any(GameSession.class))).thenAnswer(i -> i.getArgument(0));
+        return gs;
+    }
+
+    @Test
+    void matchWithoutCheckpointIsFinishedImmediately() {
+        GameSession gs = playing("NOCP");
+        when(repo.findByStatus("PLAYING")).thenReturn(List.of(gs));
+        when(arena.resumeGame(eq("NOCP"), any())).thenReturn(null);
+
+        service.resumeMatches();
+
+        // Well before the ~50 s the match had left
+        verify(repo, timeout(2000)).save(argThat(g -> "FINISHED".equals(g.getStatus())));
+        assertEquals("FINISHED", gs.getStatus());
+        assertNull(meter.find("game.rooms.resumed").counter());
+    }
+
+    @Test
+    void failingResumeIsFinishedImmediately() {
+        GameSession gs = playing("BAD");
+        when(repo.findByStatus("PLAYING")).thenReturn(List.of(gs));
+        when(arena.resumeGame(eq("BAD"), any())).thenThrow(new IllegalStateException("corrupt"));
+
+        service.resumeMatches();
+
+        verify(repo, timeout(2000)).save(argThat(g -> "FINISHED".equals(g.getStatus())));
+    }
+
+    @Test
+    void resumedMatchKeepsPlayingUntilItsEndTime() throws Exception {
+        GameSession gs = playing("OK");
+        when(repo.findByStatus("PLAYING")).thenReturn(List.of(gs));
+        when(arena.resumeGame(eq("OK"), any())).thenReturn(new ArenaState(100, 100));
+
+        service.resumeMatches();
+
+        verify(arena).resumeGame(eq("OK"), eq(gs.getPlayers()));
+        assertEquals(1.0, meter.find("game.rooms.resumed").counter().count());
+        Thread.sleep(300);
+        assertEquals("PLAYING", gs.getStatus());
+        verify(repo, never()).save(any(GameSession.class));
+    }
+}
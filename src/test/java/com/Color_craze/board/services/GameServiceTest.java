@@ -84,14 +84,19 @@ class GameServiceTest {
         when(gameRepository.findByCode("ROOMX")).thenReturn(Optional.of(gs));
         when(gameRepository.save(any(GameSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        // Llenar la sala con 4 jugadores
-        for (int i = 1; i <= 4; i++) {
+        // Llenar la sala con 16 jugadores
+        for (int i = 1; i <= 16; i++) {
             gameService.joinGame("ROOMX", new JoinGameRequest("p" + i, "N" + i, null, "ROBOT"));
         }
-        assertEquals(4, gs.getPlayers().size());
-        // Intentar un quinto
+        assertEquals(16, gs.getPlayers().size());
+        // Los colores se repiten de forma equilibrada: 4 jugadores por color
+        java.util.Map<ColorStatus, Long> perColor = gs.getPlayers().stream()
+            .collect(java.util.stream.Collectors.groupingBy(p -> p.color, java.util.stream.Collectors.counting()));
+        assertEquals(4, perColor.size());
+        perColor.values().forEach(n -> assertEquals(4L, n));
+        // Intentar un decimoséptimo
         var ex = assertThrows(org.springframework.web.server.ResponseStatusException.class, () ->
-            gameService.joinGame("ROOMX", new JoinGameRequest("p5", "N5", null, "ROBOT"))
+            gameService.joinGame("ROOMX", new JoinGameRequest("p17", "N17", null, "ROBOT"))
         );
         assertTrue(ex.getReason().contains("Room full"));
     }